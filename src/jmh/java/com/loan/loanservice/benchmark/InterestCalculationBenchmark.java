@@ -0,0 +1,82 @@
+package com.loan.loanservice.benchmark;
+
+import com.loan.loanservice.configuration.LoanServiceProperties;
+import com.loan.loanservice.domain.LoanRequest;
+import com.loan.loanservice.service.RateCardIndex;
+import com.loan.loanservice.utils.InterestCalculationUtil;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Annuity and monthly interest calculation. The discount factor of the annuity is cached, so after
+ * warm up {@link #calculateAnnuity()} measures the cached path. {@link #calculateRateCardAnnuity()}
+ * looks the annuity factor up on a rate card holding the rate and duration.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InterestCalculationBenchmark {
+
+  @Param({"12", "60", "360", "1200"})
+  private int durationInMonth;
+
+  @Param({"5", "5.5", "5.125", "4.99999"})
+  private String nominalRate;
+
+  private LoanRequest loanRequest;
+  private BigDecimal nominalInterestRate;
+  private RateCardIndex rateCardIndex;
+
+  @Setup
+  public void setup() {
+    loanRequest =
+        LoanRequest.builder()
+            .nominalRate(new BigDecimal(nominalRate))
+            .loanAmount(new BigDecimal("250000"))
+            .durationInMonth(durationInMonth)
+            .startDate(LocalDateTime.parse("2020-05-01T00:00:01"))
+            .build();
+    nominalInterestRate =
+        loanRequest.getNominalRate().divide(new BigDecimal(100), 20, RoundingMode.HALF_DOWN);
+
+    LoanServiceProperties loanServiceProperties = new LoanServiceProperties();
+    loanServiceProperties
+        .getRateCard()
+        .setNominalRates(Collections.singletonList(loanRequest.getNominalRate()));
+    loanServiceProperties.getRateCard().setDurations(Collections.singletonList(durationInMonth));
+    rateCardIndex = new RateCardIndex(loanServiceProperties);
+  }
+
+  @Benchmark
+  public BigDecimal calculateAnnuity() {
+    return InterestCalculationUtil.calculateAnnuity(loanRequest);
+  }
+
+  @Benchmark
+  public BigDecimal calculateRateCardAnnuity() {
+    return rateCardIndex.calculateAnnuity(loanRequest);
+  }
+
+  @Benchmark
+  public BigDecimal calculateInterest() {
+    return InterestCalculationUtil.calculateInterest(
+        loanRequest.getLoanAmount(), nominalInterestRate);
+  }
+}
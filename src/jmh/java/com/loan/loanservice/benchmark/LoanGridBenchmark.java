@@ -0,0 +1,125 @@
+package com.loan.loanservice.benchmark;
+
+import com.loan.loanservice.configuration.LoanServiceProperties;
+import com.loan.loanservice.domain.CalculationBackend;
+import com.loan.loanservice.domain.LoanGridCell;
+import com.loan.loanservice.domain.LoanGridRequest;
+import com.loan.loanservice.domain.LoanPlanSummary;
+import com.loan.loanservice.domain.LoanRequest;
+import com.loan.loanservice.service.LoanGridService;
+import com.loan.loanservice.service.LoanPlanCache;
+import com.loan.loanservice.service.LoanPlanGeneratorService;
+import com.loan.loanservice.service.LoanPlanMetrics;
+import com.loan.loanservice.service.RateCardIndex;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Grid of 20 rates, 10 durations and 5 amounts. {@link #generateLoanGrid()} calculates it at once,
+ * {@link #summarizeEachCell()} summarizes every cell with a separate request.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LoanGridBenchmark {
+
+  @Param({"BIG_DECIMAL", "FIXED_POINT"})
+  private CalculationBackend calculationBackend;
+
+  private LoanGridRequest loanGridRequest;
+  private List<LoanRequest> loanRequests;
+  private ForkJoinPool batchComputationPool;
+  private LoanGridService loanGridService;
+  private LoanPlanGeneratorService planGeneratorService;
+
+  @Setup
+  public void setup() {
+    List<BigDecimal> nominalRates = new ArrayList<>();
+    for (int rate = 0; rate < 20; rate++) {
+      nominalRates.add(BigDecimal.valueOf(199 + 50 * rate, 2));
+    }
+    List<Integer> durations = new ArrayList<>();
+    for (int years = 1; years <= 10; years++) {
+      durations.add(36 * years);
+    }
+    List<BigDecimal> loanAmounts = new ArrayList<>();
+    for (int amount = 1; amount <= 5; amount++) {
+      loanAmounts.add(BigDecimal.valueOf(50_000L * amount));
+    }
+    LocalDateTime startDate = LocalDateTime.parse("2020-05-01T00:00:01");
+    loanGridRequest =
+        LoanGridRequest.builder()
+            .nominalRates(nominalRates)
+            .durationsInMonth(durations)
+            .loanAmounts(loanAmounts)
+            .startDate(startDate)
+            .build();
+    loanRequests = new ArrayList<>();
+    for (BigDecimal nominalRate : nominalRates) {
+      for (Integer duration : durations) {
+        for (BigDecimal loanAmount : loanAmounts) {
+          loanRequests.add(
+              LoanRequest.builder()
+                  .nominalRate(nominalRate)
+                  .durationInMonth(duration)
+                  .loanAmount(loanAmount)
+                  .startDate(startDate)
+                  .build());
+        }
+      }
+    }
+
+    LoanServiceProperties loanServiceProperties = new LoanServiceProperties();
+    loanServiceProperties.getPlanCache().setEnabled(false);
+    loanServiceProperties.setCalculationBackend(calculationBackend);
+    LoanPlanMetrics loanPlanMetrics = new LoanPlanMetrics(new SimpleMeterRegistry());
+    batchComputationPool = new ForkJoinPool(loanServiceProperties.getBatch().getParallelism());
+    loanGridService =
+        new LoanGridService(loanServiceProperties, loanPlanMetrics, batchComputationPool);
+    planGeneratorService =
+        new LoanPlanGeneratorService(
+            loanServiceProperties,
+            new LoanPlanCache(loanServiceProperties),
+            loanPlanMetrics,
+            new RateCardIndex(loanServiceProperties));
+  }
+
+  @TearDown
+  public void tearDown() {
+    batchComputationPool.shutdown();
+  }
+
+  @Benchmark
+  public List<LoanGridCell> generateLoanGrid() {
+    return loanGridService.generateLoanGrid(loanGridRequest);
+  }
+
+  @Benchmark
+  public List<LoanPlanSummary> summarizeEachCell() {
+    List<LoanPlanSummary> summaries = new ArrayList<>(loanRequests.size());
+    for (LoanRequest loanRequest : loanRequests) {
+      summaries.add(planGeneratorService.summarizeLoanPlan(loanRequest));
+    }
+    return summaries;
+  }
+}
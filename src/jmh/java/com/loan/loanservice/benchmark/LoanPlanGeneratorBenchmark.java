@@ -0,0 +1,91 @@
+package com.loan.loanservice.benchmark;
+
+import com.loan.loanservice.configuration.LoanServiceProperties;
+import com.loan.loanservice.domain.CalculationBackend;
+import com.loan.loanservice.domain.LoanRequest;
+import com.loan.loanservice.domain.MonthlyRepayment;
+import com.loan.loanservice.service.LoanPlanCache;
+import com.loan.loanservice.service.LoanPlanGeneratorService;
+import com.loan.loanservice.service.LoanPlanMetrics;
+import com.loan.loanservice.service.RateCardIndex;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Full loan plan generation. {@link #generateLoanPlan()} calculates every plan, {@link
+ * #generateCachedLoanPlan()} only dates a cached plan.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LoanPlanGeneratorBenchmark {
+
+  @Param({"12", "60", "360", "1200"})
+  private int durationInMonth;
+
+  @Param({"5", "5.125"})
+  private String nominalRate;
+
+  @Param({"BIG_DECIMAL", "FIXED_POINT"})
+  private CalculationBackend calculationBackend;
+
+  private LoanRequest loanRequest;
+  private LoanPlanGeneratorService planGeneratorService;
+  private LoanPlanGeneratorService cachingPlanGeneratorService;
+
+  @Setup
+  public void setup() {
+    loanRequest =
+        LoanRequest.builder()
+            .nominalRate(new BigDecimal(nominalRate))
+            .loanAmount(new BigDecimal("250000"))
+            .durationInMonth(durationInMonth)
+            .startDate(LocalDateTime.parse("2020-05-01T00:00:01"))
+            .calculationBackend(calculationBackend)
+            .build();
+
+    LoanServiceProperties loanServiceProperties = new LoanServiceProperties();
+    loanServiceProperties.getPlanCache().setEnabled(false);
+    planGeneratorService =
+        new LoanPlanGeneratorService(
+            loanServiceProperties,
+            new LoanPlanCache(loanServiceProperties),
+            new LoanPlanMetrics(new SimpleMeterRegistry()),
+            new RateCardIndex(loanServiceProperties));
+
+    LoanServiceProperties cachingLoanServiceProperties = new LoanServiceProperties();
+    cachingPlanGeneratorService =
+        new LoanPlanGeneratorService(
+            cachingLoanServiceProperties,
+            new LoanPlanCache(cachingLoanServiceProperties),
+            new LoanPlanMetrics(new SimpleMeterRegistry()),
+            new RateCardIndex(cachingLoanServiceProperties));
+  }
+
+  @Benchmark
+  public List<MonthlyRepayment> generateLoanPlan() {
+    return planGeneratorService.generateLoanPlan(loanRequest);
+  }
+
+  @Benchmark
+  public List<MonthlyRepayment> generateCachedLoanPlan() {
+    return cachingPlanGeneratorService.generateLoanPlan(loanRequest);
+  }
+}
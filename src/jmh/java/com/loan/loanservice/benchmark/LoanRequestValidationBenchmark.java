@@ -0,0 +1,71 @@
+package com.loan.loanservice.benchmark;
+
+import com.loan.loanservice.domain.LoanRequest;
+import com.loan.loanservice.service.LoanPlanMetrics;
+import com.loan.loanservice.service.LoanRequestValidator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import javax.validation.ConstraintViolation;
+import javax.validation.Validation;
+import javax.validation.Validator;
+import javax.validation.ValidatorFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Validation of a loan request by Bean Validation and by the {@link LoanRequestValidator} reading
+ * the same constraints once. An invalid request has a loan amount below the minimum.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LoanRequestValidationBenchmark {
+
+  @Param({"valid", "invalid"})
+  private String request;
+
+  private LoanRequest loanRequest;
+  private Validator validator;
+  private LoanRequestValidator loanRequestValidator;
+
+  @Setup
+  public void setup() {
+    loanRequest =
+        LoanRequest.builder()
+            .nominalRate(new BigDecimal("5"))
+            .loanAmount("valid".equals(request) ? new BigDecimal("250000") : BigDecimal.ZERO)
+            .durationInMonth(360)
+            .startDate(LocalDateTime.now().plusYears(1))
+            .build();
+    ValidatorFactory validatorFactory = Validation.buildDefaultValidatorFactory();
+    validator = validatorFactory.getValidator();
+    loanRequestValidator =
+        new LoanRequestValidator(validatorFactory, new LoanPlanMetrics(new SimpleMeterRegistry()));
+  }
+
+  @Benchmark
+  public Set<ConstraintViolation<LoanRequest>> validateReflectively() {
+    return validator.validate(loanRequest);
+  }
+
+  @Benchmark
+  public List<String> validate() {
+    return loanRequestValidator.validate(loanRequest);
+  }
+}
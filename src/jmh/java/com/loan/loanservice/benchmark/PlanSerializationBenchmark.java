@@ -0,0 +1,119 @@
+package com.loan.loanservice.benchmark;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.loan.loanservice.configuration.LoanServiceProperties;
+import com.loan.loanservice.domain.LoanRequest;
+import com.loan.loanservice.domain.MonthlyRepayment;
+import com.loan.loanservice.service.LoanPlanCache;
+import com.loan.loanservice.service.LoanPlanGeneratorService;
+import com.loan.loanservice.service.LoanPlanMetrics;
+import com.loan.loanservice.service.RateCardIndex;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/**
+ * Writing a generated plan as JSON, Smile or CBOR. {@link #serializeLoanPlan()} measures time and,
+ * with the GC profiler, allocation, {@link #encodedSize(EncodedSize)} reports the size of the
+ * response in bytes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PlanSerializationBenchmark {
+
+  public enum Format {
+    JSON,
+    SMILE,
+    CBOR
+  }
+
+  @Param({"12", "360", "1200"})
+  private int durationInMonth;
+
+  @Param({"JSON", "SMILE", "CBOR"})
+  private Format format;
+
+  private List<MonthlyRepayment> loanPlan;
+  private ObjectWriter writer;
+
+  @Setup
+  public void setup() {
+    LoanServiceProperties loanServiceProperties = new LoanServiceProperties();
+    loanPlan =
+        new LoanPlanGeneratorService(
+                loanServiceProperties,
+                new LoanPlanCache(loanServiceProperties),
+                new LoanPlanMetrics(new SimpleMeterRegistry()),
+                new RateCardIndex(loanServiceProperties))
+            .generateLoanPlan(
+                LoanRequest.builder()
+                    .nominalRate(new BigDecimal("5.125"))
+                    .loanAmount(new BigDecimal("250000"))
+                    .durationInMonth(durationInMonth)
+                    .startDate(LocalDateTime.parse("2020-05-01T00:00:01"))
+                    .build());
+    // Same configuration as the converters of the application.
+    ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().factory(factory()).build();
+    writer = objectMapper.writerFor(objectMapper.constructType(List.class));
+  }
+
+  @Benchmark
+  public byte[] serializeLoanPlan() throws IOException {
+    return writer.writeValueAsBytes(loanPlan);
+  }
+
+  /**
+   * Runs a single measured iteration, JMH sums counters over iterations so {@code bytes} is the
+   * size of one response.
+   */
+  @Benchmark
+  @Warmup(iterations = 0)
+  @Measurement(iterations = 1)
+  public byte[] encodedSize(EncodedSize encodedSize) throws IOException {
+    byte[] bytes = writer.writeValueAsBytes(loanPlan);
+    encodedSize.bytes = bytes.length;
+    return bytes;
+  }
+
+  private JsonFactory factory() {
+    switch (format) {
+      case SMILE:
+        return new SmileFactory();
+      case CBOR:
+        return new CBORFactory();
+      default:
+        return new JsonFactory();
+    }
+  }
+
+  @State(Scope.Thread)
+  @AuxCounters(AuxCounters.Type.EVENTS)
+  public static class EncodedSize {
+
+    public long bytes;
+  }
+}
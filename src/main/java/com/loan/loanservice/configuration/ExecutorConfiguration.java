@@ -0,0 +1,19 @@
+package com.loan.loanservice.configuration;
+
+import java.util.concurrent.ForkJoinPool;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class ExecutorConfiguration {
+
+  /**
+   * Pool of {@code loan.batch.parallelism} threads calculating batches, portfolios, grids and the
+   * job. Single plan requests are calculated by the {@link
+   * com.loan.loanservice.service.PlanComputationExecutor} instead.
+   */
+  @Bean(destroyMethod = "shutdown")
+  public ForkJoinPool batchComputationPool(LoanServiceProperties loanServiceProperties) {
+    return new ForkJoinPool(loanServiceProperties.getBatch().getParallelism());
+  }
+}
@@ -1,31 +1,22 @@
 package com.loan.loanservice.configuration;
 
-import com.google.common.base.Predicates;
+import com.loan.loanservice.service.LoanPlanMetrics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.MessageSource;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.validation.beanvalidation.LocalValidatorFactoryBean;
-import springfox.documentation.builders.PathSelectors;
-import springfox.documentation.spi.DocumentationType;
-import springfox.documentation.spring.web.plugins.Docket;
-import springfox.documentation.swagger2.annotations.EnableSwagger2;
 
 @Configuration
-@EnableSwagger2
+@EnableConfigurationProperties(LoanServiceProperties.class)
 public class GeneralApplicationConfiguration {
 
   @Bean
-  public LocalValidatorFactoryBean validator(MessageSource messageSource) {
-    LocalValidatorFactoryBean validatorFactoryBean = new LocalValidatorFactoryBean();
+  public LocalValidatorFactoryBean validator(
+      MessageSource messageSource, ObjectProvider<LoanPlanMetrics> loanPlanMetrics) {
+    LocalValidatorFactoryBean validatorFactoryBean = new TimedValidatorFactoryBean(loanPlanMetrics);
     validatorFactoryBean.setValidationMessageSource(messageSource);
     return validatorFactoryBean;
   }
-
-  @Bean
-  public Docket api() {
-    return new Docket(DocumentationType.SWAGGER_2)
-        .select()
-        .paths(Predicates.not(PathSelectors.regex("/error"))) // Exclude Spring error controllers
-        .build();
-  }
 }
@@ -0,0 +1,79 @@
+package com.loan.loanservice.configuration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.loan.loanservice.service.LoanPlanMetrics;
+import io.micrometer.core.instrument.Timer;
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.concurrent.TimeUnit;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+/**
+ * Replaces the default JSON, Smile and CBOR converters by ones recording the serialization time.
+ * Smile and CBOR use the same Jackson configuration as JSON.
+ */
+@Configuration
+public class HttpMessageConverterConfiguration {
+
+  @Bean
+  public MappingJackson2HttpMessageConverter mappingJackson2HttpMessageConverter(
+      ObjectMapper objectMapper, LoanPlanMetrics loanPlanMetrics) {
+    Timer serializationTimer = loanPlanMetrics.serializationTimer("json");
+    return new MappingJackson2HttpMessageConverter(objectMapper) {
+      @Override
+      protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage)
+          throws IOException {
+        record(serializationTimer, () -> super.writeInternal(object, type, outputMessage));
+      }
+    };
+  }
+
+  @Bean
+  public MappingJackson2SmileHttpMessageConverter mappingJackson2SmileHttpMessageConverter(
+      Jackson2ObjectMapperBuilder objectMapperBuilder, LoanPlanMetrics loanPlanMetrics) {
+    Timer serializationTimer = loanPlanMetrics.serializationTimer("smile");
+    return new MappingJackson2SmileHttpMessageConverter(
+        objectMapperBuilder.factory(new SmileFactory()).build()) {
+      @Override
+      protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage)
+          throws IOException {
+        record(serializationTimer, () -> super.writeInternal(object, type, outputMessage));
+      }
+    };
+  }
+
+  @Bean
+  public MappingJackson2CborHttpMessageConverter mappingJackson2CborHttpMessageConverter(
+      Jackson2ObjectMapperBuilder objectMapperBuilder, LoanPlanMetrics loanPlanMetrics) {
+    Timer serializationTimer = loanPlanMetrics.serializationTimer("cbor");
+    return new MappingJackson2CborHttpMessageConverter(
+        objectMapperBuilder.factory(new CBORFactory()).build()) {
+      @Override
+      protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage)
+          throws IOException {
+        record(serializationTimer, () -> super.writeInternal(object, type, outputMessage));
+      }
+    };
+  }
+
+  private static void record(Timer timer, Write write) throws IOException {
+    long start = System.nanoTime();
+    try {
+      write.write();
+    } finally {
+      timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+  }
+
+  private interface Write {
+    void write() throws IOException;
+  }
+}
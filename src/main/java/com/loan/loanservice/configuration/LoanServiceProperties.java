@@ -0,0 +1,151 @@
+package com.loan.loanservice.configuration;
+
+import com.loan.loanservice.domain.CalculationBackend;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "loan")
+public class LoanServiceProperties {
+
+  /** Backend used for requests which do not ask for a specific one. */
+  private CalculationBackend calculationBackend = CalculationBackend.BIG_DECIMAL;
+
+  private final PlanCache planCache = new PlanCache();
+
+  private final Coalescing coalescing = new Coalescing();
+
+  private final PlanStore planStore = new PlanStore();
+
+  private final Execution execution = new Execution();
+
+  private final Batch batch = new Batch();
+
+  private final Portfolio portfolio = new Portfolio();
+
+  private final Grid grid = new Grid();
+
+  private final Job job = new Job();
+
+  private final RateCard rateCard = new RateCard();
+
+  @Data
+  public static class PlanCache {
+
+    /** Whether generated loan plans are cached. */
+    private boolean enabled = true;
+
+    /** Maximum number of cached loan plans. */
+    private long maximumSize = 1000;
+
+    /** Time after which a cached loan plan is evicted. */
+    private Duration timeToLive = Duration.ofMinutes(10);
+  }
+
+  @Data
+  public static class PlanStore {
+
+    /** Whether generated loan plans are stored and can be looked up by their ID. */
+    private boolean enabled = false;
+
+    /** Directory the plans are written to. */
+    private Path directory = Paths.get("plan-store");
+
+    /** Time between two writes of the queued plans. */
+    private Duration flushInterval = Duration.ofSeconds(1);
+
+    /** Number of flushes trying to write a plan before it is given up. */
+    private int maximumAttempts = 3;
+
+    /** Maximum number of plans waiting to be written, further plans are not stored. */
+    private int maximumPending = 10_000;
+
+    /** Time after which a written plan is no longer found and is deleted. */
+    private Duration retention = Duration.ofDays(1);
+  }
+
+  @Data
+  public static class Coalescing {
+
+    /** Whether concurrent identical loan requests share one plan computation. */
+    private boolean enabled = true;
+
+    /** Maximum number of plan computations other requests can share. */
+    private int maximumInFlight = 1000;
+  }
+
+  @Data
+  public static class Execution {
+
+    /** Whether plans of single requests are calculated on a dedicated pool. */
+    private boolean enabled = true;
+
+    /** Number of threads calculating the plans of single requests. */
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+
+    /** Maximum number of calculations waiting for a thread, further requests are rejected. */
+    private int queueCapacity = 100;
+
+    /** Time after which a rejected request may be retried, sent as Retry-After. */
+    private Duration retryAfter = Duration.ofSeconds(1);
+
+    /** Whether requests are handled on virtual threads, requires Java 21 or newer. */
+    private boolean virtualThreads = false;
+  }
+
+  @Data
+  public static class Batch {
+
+    /** Number of threads generating the loan plans of a batch. */
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+
+    /** Maximum number of loan requests in one batch. */
+    private int maximumSize = 10_000;
+  }
+
+  @Data
+  public static class Portfolio {
+
+    /** Maximum number of loan requests in one portfolio projection. */
+    private int maximumSize = 100_000;
+  }
+
+  @Data
+  public static class Grid {
+
+    /** Maximum number of rate, duration and amount combinations in one grid. */
+    private int maximumSize = 10_000;
+  }
+
+  @Data
+  public static class Job {
+
+    /** CSV file with the loans of the job. */
+    private Path input;
+
+    /** Directory the plans, the rejected loans and the checkpoint are written to. */
+    private Path outputDirectory = Paths.get("loan-plans");
+
+    /** Number of loans generated together by one thread. */
+    private int chunkSize = 100;
+
+    /** Minimum time between two checkpoints. */
+    private Duration checkpointInterval = Duration.ofSeconds(10);
+  }
+
+  @Data
+  public static class RateCard {
+
+    /** Nominal (annual) rates of the rate card. */
+    private List<BigDecimal> nominalRates = new ArrayList<>();
+
+    /** Durations in months of the rate card, the annuity factor of every rate is precalculated. */
+    private List<Integer> durations = new ArrayList<>();
+  }
+}
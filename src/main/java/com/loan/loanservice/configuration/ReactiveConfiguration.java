@@ -0,0 +1,60 @@
+package com.loan.loanservice.configuration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.loan.loanservice.controller.LoanMediaTypes;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.codec.CodecCustomizer;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Reactive stack on Netty, active when running with {@code
+ * spring.main.web-application-type=reactive}, e.g. with the {@code reactive} profile.
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveConfiguration {
+
+  private static final MediaType APPLICATION_NDJSON =
+      MediaType.parseMediaType(LoanMediaTypes.APPLICATION_NDJSON_VALUE);
+
+  /** Spring Boot prefers Tomcat, which is on the class path for the servlet stack. */
+  @Bean
+  public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+    return new NettyReactiveWebServerFactory();
+  }
+
+  /** Plans are calculated on the batch computation pool, never on the event loop. */
+  @Bean
+  public Scheduler planComputationScheduler(ForkJoinPool batchComputationPool) {
+    return Schedulers.fromExecutorService(batchComputationPool);
+  }
+
+  /**
+   * Writes newline delimited JSON one element at a time, as requested by the client. Ordered last
+   * so that it replaces the JSON encoder configured by Spring Boot.
+   */
+  @Bean
+  @Order(Ordered.LOWEST_PRECEDENCE)
+  public CodecCustomizer ndjsonCodecCustomizer(ObjectMapper objectMapper) {
+    Jackson2JsonEncoder encoder =
+        new Jackson2JsonEncoder(
+            objectMapper,
+            MediaType.APPLICATION_JSON,
+            new MediaType("application", "*+json"),
+            MediaType.APPLICATION_STREAM_JSON,
+            APPLICATION_NDJSON);
+    encoder.setStreamingMediaTypes(
+        Arrays.asList(MediaType.APPLICATION_STREAM_JSON, APPLICATION_NDJSON));
+    return configurer -> configurer.defaultCodecs().jackson2JsonEncoder(encoder);
+  }
+}
@@ -0,0 +1,25 @@
+package com.loan.loanservice.configuration;
+
+import com.google.common.base.Predicates;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import springfox.documentation.builders.PathSelectors;
+import springfox.documentation.spi.DocumentationType;
+import springfox.documentation.spring.web.plugins.Docket;
+import springfox.documentation.swagger2.annotations.EnableSwagger2;
+
+/** Springfox only documents Spring MVC, so Swagger is not available on the reactive stack. */
+@Configuration
+@EnableSwagger2
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class SwaggerConfiguration {
+
+  @Bean
+  public Docket api() {
+    return new Docket(DocumentationType.SWAGGER_2)
+        .select()
+        .paths(Predicates.not(PathSelectors.regex("/error"))) // Exclude Spring error controllers
+        .build();
+  }
+}
@@ -0,0 +1,60 @@
+package com.loan.loanservice.configuration;
+
+import com.loan.loanservice.service.LoanPlanMetrics;
+import java.util.Set;
+import java.util.function.Supplier;
+import javax.validation.ConstraintViolation;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.validation.Errors;
+import org.springframework.validation.beanvalidation.LocalValidatorFactoryBean;
+
+/**
+ * Validator recording the validation time and the rejected objects in {@link LoanPlanMetrics}. The
+ * metrics are looked up lazily, because the validator is created before the meter registries are
+ * configured.
+ */
+class TimedValidatorFactoryBean extends LocalValidatorFactoryBean {
+
+  private final ObjectProvider<LoanPlanMetrics> loanPlanMetrics;
+
+  TimedValidatorFactoryBean(ObjectProvider<LoanPlanMetrics> loanPlanMetrics) {
+    this.loanPlanMetrics = loanPlanMetrics;
+  }
+
+  @Override
+  public void validate(Object target, Errors errors) {
+    record(errors, () -> super.validate(target, errors));
+  }
+
+  @Override
+  public void validate(Object target, Errors errors, Object... validationHints) {
+    record(errors, () -> super.validate(target, errors, validationHints));
+  }
+
+  @Override
+  public <T> Set<ConstraintViolation<T>> validate(T object, Class<?>... groups) {
+    Supplier<Set<ConstraintViolation<T>>> validation = () -> super.validate(object, groups);
+    LoanPlanMetrics metrics = loanPlanMetrics.getIfAvailable();
+    if (metrics == null) {
+      return validation.get();
+    }
+    Set<ConstraintViolation<T>> violations = metrics.getValidationTimer().record(validation);
+    if (!violations.isEmpty()) {
+      metrics.getConstraintViolationCounter().increment();
+    }
+    return violations;
+  }
+
+  private void record(Errors errors, Runnable validation) {
+    LoanPlanMetrics metrics = loanPlanMetrics.getIfAvailable();
+    if (metrics == null) {
+      validation.run();
+      return;
+    }
+    int errorCount = errors.getErrorCount();
+    metrics.getValidationTimer().record(validation);
+    if (errors.getErrorCount() > errorCount) {
+      metrics.getConstraintViolationCounter().increment();
+    }
+  }
+}
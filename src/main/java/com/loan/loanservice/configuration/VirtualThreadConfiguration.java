@@ -0,0 +1,43 @@
+package com.loan.loanservice.configuration;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Handles the requests of Tomcat on virtual threads, active with {@code
+ * loan.execution.virtual-threads=true}. The service is built for Java 8, so the executor is looked
+ * up at runtime and startup fails on JDKs without virtual threads. Plans are still calculated on the
+ * bounded plan computation pool.
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@ConditionalOnProperty(name = "loan.execution.virtual-threads", havingValue = "true")
+public class VirtualThreadConfiguration {
+
+  @Bean(destroyMethod = "shutdown")
+  public ExecutorService requestHandlingExecutor() {
+    try {
+      return (ExecutorService)
+          Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+    } catch (NoSuchMethodException e) {
+      throw new IllegalStateException(
+          "loan.execution.virtual-threads requires Java 21 or newer, running on "
+              + System.getProperty("java.version"),
+          e);
+    } catch (IllegalAccessException | InvocationTargetException e) {
+      throw new IllegalStateException("Virtual threads can not be created", e);
+    }
+  }
+
+  @Bean
+  public TomcatProtocolHandlerCustomizer<?> virtualThreadProtocolHandlerCustomizer(
+      ExecutorService requestHandlingExecutor) {
+    return protocolHandler -> protocolHandler.setExecutor(requestHandlingExecutor);
+  }
+}
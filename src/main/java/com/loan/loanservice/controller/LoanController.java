@@ -1,41 +1,360 @@
 package com.loan.loanservice.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.loan.loanservice.configuration.LoanServiceProperties;
+import com.loan.loanservice.domain.LoanGridCell;
+import com.loan.loanservice.domain.LoanGridRequest;
+import com.loan.loanservice.domain.LoanPlanResult;
+import com.loan.loanservice.domain.LoanPlanSummary;
 import com.loan.loanservice.domain.LoanRequest;
+import com.loan.loanservice.domain.LoanScenarioRequest;
 import com.loan.loanservice.domain.MonthlyRepayment;
+import com.loan.loanservice.domain.PortfolioProjection;
+import com.loan.loanservice.service.BatchLoanPlanService;
+import com.loan.loanservice.service.CoalescingLoanPlanService;
+import com.loan.loanservice.service.LoanGridService;
 import com.loan.loanservice.service.LoanPlanGeneratorService;
+import com.loan.loanservice.service.LoanPlanStore;
+import com.loan.loanservice.service.LoanRequestValidator;
+import com.loan.loanservice.service.LoanScenarioService;
+import com.loan.loanservice.service.PlanComputationExecutor;
+import com.loan.loanservice.service.PlanComputationRejectedException;
+import com.loan.loanservice.service.PortfolioService;
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
 import io.swagger.annotations.ApiResponse;
 import io.swagger.annotations.ApiResponses;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import javax.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.WebDataBinder;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.InitBinder;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @RequiredArgsConstructor
 @RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @Api(value = "Loan Controller", description = "Operation related to Loan Plan Generation API")
 public class LoanController {
 
+  private static final MediaType APPLICATION_NDJSON =
+      MediaType.parseMediaType(LoanMediaTypes.APPLICATION_NDJSON_VALUE);
+
   private final LoanPlanGeneratorService loanPlanGeneratorService;
+  private final CoalescingLoanPlanService coalescingLoanPlanService;
+  private final PlanComputationExecutor planComputationExecutor;
+  private final LoanPlanStore loanPlanStore;
+  private final LoanRequestValidator loanRequestValidator;
+  private final BatchLoanPlanService batchLoanPlanService;
+  private final PortfolioService portfolioService;
+  private final LoanGridService loanGridService;
+  private final LoanScenarioService loanScenarioService;
+  private final LoanServiceProperties loanServiceProperties;
+  private final ObjectMapper objectMapper;
+
+  /** Validates loan request bodies without Bean Validation, with the same messages. */
+  @InitBinder("loanRequest")
+  public void initLoanRequestBinder(WebDataBinder webDataBinder) {
+    webDataBinder.setValidator(loanRequestValidator);
+  }
 
   @PostMapping(
       value = "/generate-plan",
       consumes = MediaType.APPLICATION_JSON_VALUE,
-      produces = MediaType.APPLICATION_JSON_VALUE)
+      produces = {
+        MediaType.APPLICATION_JSON_VALUE,
+        LoanMediaTypes.APPLICATION_SMILE_VALUE,
+        LoanMediaTypes.APPLICATION_CBOR_VALUE
+      })
   @ResponseStatus(HttpStatus.CREATED)
   @ApiOperation(value = "Loan Plan Generator")
+  @ApiResponses(
+      value = {
+        @ApiResponse(code = 201, message = "Plan Created"),
+        @ApiResponse(code = 503, message = "Too many plans being calculated")
+      })
+  public CompletableFuture<ResponseEntity<List<MonthlyRepayment>>> generateLoanPlan(
+      @RequestBody @Valid LoanRequest loanRequest) {
+    return coalescingLoanPlanService.generateLoanPlan(loanRequest).thenApply(this::storeLoanPlan);
+  }
+
+  @GetMapping(
+      value = "/plans/{id}",
+      produces = {
+        MediaType.APPLICATION_JSON_VALUE,
+        LoanMediaTypes.APPLICATION_SMILE_VALUE,
+        LoanMediaTypes.APPLICATION_CBOR_VALUE
+      })
+  @ApiOperation(value = "Stored Loan Plan, by the ID in the Location of a generated plan")
+  @ApiResponses(
+      value = {
+        @ApiResponse(code = 200, message = "Plan Found"),
+        @ApiResponse(code = 404, message = "No plan with the ID")
+      })
+  public ResponseEntity<List<MonthlyRepayment>> getLoanPlan(@PathVariable String id) {
+    return loanPlanStore
+        .find(id)
+        .map(monthlyRepayments -> new ResponseEntity<>(monthlyRepayments, HttpStatus.OK))
+        .orElseThrow(
+            () -> new ResponseStatusException(HttpStatus.NOT_FOUND, "No plan with ID " + id));
+  }
+
+  @PostMapping(
+      value = "/generate-plan",
+      params = "offset",
+      consumes = MediaType.APPLICATION_JSON_VALUE,
+      produces = {
+        MediaType.APPLICATION_JSON_VALUE,
+        LoanMediaTypes.APPLICATION_SMILE_VALUE,
+        LoanMediaTypes.APPLICATION_CBOR_VALUE
+      })
+  @ApiOperation(value = "Paged Loan Plan Generator, repayments from offset (0 based) on")
+  @ApiResponses(
+      value = {
+        @ApiResponse(code = 201, message = "Plan Created"),
+        @ApiResponse(code = 400, message = "Invalid offset or limit"),
+        @ApiResponse(code = 503, message = "Too many plans being calculated")
+      })
+  public CompletableFuture<ResponseEntity<List<MonthlyRepayment>>> generateLoanPlanPage(
+      @RequestBody @Valid LoanRequest loanRequest,
+      @RequestParam int offset,
+      @RequestParam(required = false) Integer limit) {
+    if (offset < 0 || (limit != null && limit < 1)) {
+      throw new ResponseStatusException(
+          HttpStatus.BAD_REQUEST, "Offset must not be negative and limit must be positive");
+    }
+    return planComputationExecutor
+        .submit(
+            () ->
+                loanPlanGeneratorService.generateLoanPlan(
+                    loanRequest, offset, limit != null ? limit : Integer.MAX_VALUE))
+        .thenApply(
+            monthlyRepayments ->
+                new ResponseEntity<List<MonthlyRepayment>>(monthlyRepayments, HttpStatus.CREATED));
+  }
+
+  @PostMapping(
+      value = "/generate-plan/summary",
+      consumes = MediaType.APPLICATION_JSON_VALUE,
+      produces = {
+        MediaType.APPLICATION_JSON_VALUE,
+        LoanMediaTypes.APPLICATION_SMILE_VALUE,
+        LoanMediaTypes.APPLICATION_CBOR_VALUE
+      })
+  @ApiOperation(value = "Loan Plan Summary")
+  @ApiResponses(
+      value = {
+        @ApiResponse(code = 200, message = "Plan Summarized"),
+        @ApiResponse(code = 503, message = "Too many plans being calculated")
+      })
+  public CompletableFuture<ResponseEntity<LoanPlanSummary>> summarizeLoanPlan(
+      @RequestBody @Valid LoanRequest loanRequest) {
+    return planComputationExecutor
+        .submit(() -> loanPlanGeneratorService.summarizeLoanPlan(loanRequest))
+        .thenApply(summary -> new ResponseEntity<LoanPlanSummary>(summary, HttpStatus.OK));
+  }
+
+  @PostMapping(
+      value = "/generate-plan/scenario",
+      consumes = MediaType.APPLICATION_JSON_VALUE,
+      produces = {
+        MediaType.APPLICATION_JSON_VALUE,
+        LoanMediaTypes.APPLICATION_SMILE_VALUE,
+        LoanMediaTypes.APPLICATION_CBOR_VALUE
+      })
+  @ResponseStatus(HttpStatus.CREATED)
+  @ApiOperation(value = "Loan Plan Scenario with extra repayments and rate changes")
+  @ApiResponses(
+      value = {
+        @ApiResponse(code = 201, message = "Plan Created"),
+        @ApiResponse(code = 503, message = "Too many plans being calculated")
+      })
+  public CompletableFuture<ResponseEntity<List<MonthlyRepayment>>> generateLoanScenario(
+      @RequestBody @Valid LoanScenarioRequest loanScenarioRequest) {
+    return planComputationExecutor
+        .submit(() -> loanScenarioService.generateLoanScenario(loanScenarioRequest))
+        .thenApply(
+            monthlyRepayments ->
+                new ResponseEntity<List<MonthlyRepayment>>(monthlyRepayments, HttpStatus.CREATED));
+  }
+
+  @PostMapping(
+      value = "/generate-plan",
+      consumes = MediaType.APPLICATION_JSON_VALUE,
+      produces = LoanMediaTypes.APPLICATION_NDJSON_VALUE)
+  @ApiOperation(value = "Streaming Loan Plan Generator, one repayment per line")
   @ApiResponses(value = {@ApiResponse(code = 201, message = "Plan Created")})
-  public ResponseEntity<List<MonthlyRepayment>> generateLoanPlan(
+  public ResponseEntity<StreamingResponseBody> streamLoanPlan(
       @RequestBody @Valid LoanRequest loanRequest) {
-    List<MonthlyRepayment> monthlyRepayments =
-        loanPlanGeneratorService.generateLoanPlan(loanRequest);
+    // Invalid requests fail here, before the response is committed.
+    Iterator<MonthlyRepayment> monthlyRepayments =
+        loanPlanGeneratorService.iterateLoanPlan(loanRequest);
+    StreamingResponseBody body =
+        outputStream -> {
+          try (NdjsonWriter writer = new NdjsonWriter(objectMapper, outputStream)) {
+            while (monthlyRepayments.hasNext()) {
+              writer.write(monthlyRepayments.next());
+            }
+          }
+        };
+    return ResponseEntity.status(HttpStatus.CREATED).contentType(APPLICATION_NDJSON).body(body);
+  }
+
+  @PostMapping(
+      value = "/generate-plans",
+      consumes = MediaType.APPLICATION_JSON_VALUE,
+      produces = {
+        MediaType.APPLICATION_JSON_VALUE,
+        LoanMediaTypes.APPLICATION_SMILE_VALUE,
+        LoanMediaTypes.APPLICATION_CBOR_VALUE
+      })
+  @ApiOperation(value = "Batch Loan Plan Generator")
+  @ApiResponses(
+      value = {
+        @ApiResponse(code = 200, message = "Plans Created or loan requests rejected"),
+        @ApiResponse(code = 400, message = "Batch too large")
+      })
+  public ResponseEntity<List<LoanPlanResult>> generateLoanPlans(
+      @RequestBody List<LoanRequest> loanRequests) {
+    checkBatchSize(loanRequests);
+    return new ResponseEntity<List<LoanPlanResult>>(
+        batchLoanPlanService.generateLoanPlans(loanRequests), HttpStatus.OK);
+  }
+
+  @PostMapping(
+      value = "/generate-plans",
+      consumes = MediaType.APPLICATION_JSON_VALUE,
+      produces = LoanMediaTypes.APPLICATION_NDJSON_VALUE)
+  @ApiOperation(value = "Streaming Batch Loan Plan Generator, one repayment per line")
+  @ApiResponses(
+      value = {
+        @ApiResponse(code = 200, message = "Plans Created or loan requests rejected"),
+        @ApiResponse(code = 400, message = "Batch too large")
+      })
+  public ResponseEntity<StreamingResponseBody> streamLoanPlans(
+      @RequestBody List<LoanRequest> loanRequests) {
+    checkBatchSize(loanRequests);
+    StreamingResponseBody body =
+        outputStream -> {
+          try (NdjsonWriter writer = new NdjsonWriter(objectMapper, outputStream)) {
+            batchLoanPlanService.streamLoanPlans(
+                loanRequests,
+                line -> {
+                  try {
+                    writer.write(line);
+                  } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                  }
+                });
+          } catch (UncheckedIOException e) {
+            throw e.getCause();
+          }
+        };
+    return ResponseEntity.ok().contentType(APPLICATION_NDJSON).body(body);
+  }
+
+  @PostMapping(
+      value = "/generate-plans/portfolio",
+      consumes = MediaType.APPLICATION_JSON_VALUE,
+      produces = {
+        MediaType.APPLICATION_JSON_VALUE,
+        LoanMediaTypes.APPLICATION_SMILE_VALUE,
+        LoanMediaTypes.APPLICATION_CBOR_VALUE
+      })
+  @ApiOperation(
+      value = "Portfolio Cash Flow Projection, repayments of all loans added up per month")
+  @ApiResponses(
+      value = {
+        @ApiResponse(code = 200, message = "Projection Created or loan requests rejected"),
+        @ApiResponse(code = 400, message = "Portfolio too large")
+      })
+  public ResponseEntity<PortfolioProjection> projectPortfolio(
+      @RequestBody List<LoanRequest> loanRequests) {
+    int maximumSize = loanServiceProperties.getPortfolio().getMaximumSize();
+    if (loanRequests.size() > maximumSize) {
+      throw new ResponseStatusException(
+          HttpStatus.BAD_REQUEST,
+          "Portfolio must not contain more than " + maximumSize + " requests");
+    }
+    return new ResponseEntity<PortfolioProjection>(
+        portfolioService.projectPortfolio(loanRequests), HttpStatus.OK);
+  }
+
+  @PostMapping(
+      value = "/generate-plans/grid",
+      consumes = MediaType.APPLICATION_JSON_VALUE,
+      produces = {
+        MediaType.APPLICATION_JSON_VALUE,
+        LoanMediaTypes.APPLICATION_SMILE_VALUE,
+        LoanMediaTypes.APPLICATION_CBOR_VALUE
+      })
+  @ApiOperation(value = "Loan Grid, summaries of every combination of rates, durations and amounts")
+  @ApiResponses(
+      value = {
+        @ApiResponse(code = 200, message = "Grid Created"),
+        @ApiResponse(code = 400, message = "Invalid or too large grid")
+      })
+  public ResponseEntity<List<LoanGridCell>> generateLoanGrid(
+      @RequestBody @Valid LoanGridRequest loanGridRequest) {
+    int maximumSize = loanServiceProperties.getGrid().getMaximumSize();
+    long size =
+        (long) loanGridRequest.getNominalRates().size()
+            * loanGridRequest.getDurationsInMonth().size()
+            * loanGridRequest.getLoanAmounts().size();
+    if (size > maximumSize) {
+      throw new ResponseStatusException(
+          HttpStatus.BAD_REQUEST, "Grid must not contain more than " + maximumSize + " cells");
+    }
+    return new ResponseEntity<List<LoanGridCell>>(
+        loanGridService.generateLoanGrid(loanGridRequest), HttpStatus.OK);
+  }
+
+  /** Sheds load when the plan computation pool is full, clients may retry after a while. */
+  @ExceptionHandler(PlanComputationRejectedException.class)
+  public ResponseEntity<String> handlePlanComputationRejected(
+      PlanComputationRejectedException exception) {
+    return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+        .header(
+            HttpHeaders.RETRY_AFTER,
+            String.valueOf(Math.max(1, exception.getRetryAfter().getSeconds())))
+        .body(exception.getMessage());
+  }
+
+  /** Created plan with its location when the plan store took it. */
+  private ResponseEntity<List<MonthlyRepayment>> storeLoanPlan(
+      List<MonthlyRepayment> monthlyRepayments) {
+    // Only queued, the plan is written behind.
+    String planId = loanPlanStore.store(monthlyRepayments);
+    if (planId != null) {
+      return ResponseEntity.created(URI.create("/plans/" + planId)).body(monthlyRepayments);
+    }
     return new ResponseEntity<List<MonthlyRepayment>>(monthlyRepayments, HttpStatus.CREATED);
   }
+
+  private void checkBatchSize(List<LoanRequest> loanRequests) {
+    int maximumSize = loanServiceProperties.getBatch().getMaximumSize();
+    if (loanRequests.size() > maximumSize) {
+      throw new ResponseStatusException(
+          HttpStatus.BAD_REQUEST, "Batch must not contain more than " + maximumSize + " requests");
+    }
+  }
 }
@@ -0,0 +1,17 @@
+package com.loan.loanservice.controller;
+
+import lombok.experimental.UtilityClass;
+
+/** Media types of the loan plan API besides JSON. */
+@UtilityClass
+public class LoanMediaTypes {
+
+  /** Newline delimited JSON, one value per line. */
+  public static final String APPLICATION_NDJSON_VALUE = "application/x-ndjson";
+
+  /** Binary JSON encoding which writes repeated field names only once. */
+  public static final String APPLICATION_SMILE_VALUE = "application/x-jackson-smile";
+
+  /** Concise Binary Object Representation, RFC 7049. */
+  public static final String APPLICATION_CBOR_VALUE = "application/cbor";
+}
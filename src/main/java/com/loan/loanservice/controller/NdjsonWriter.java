@@ -0,0 +1,41 @@
+package com.loan.loanservice.controller;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Writes values as newline delimited JSON, one line per value. The first line is flushed right away
+ * so clients receive it without waiting for the output buffer to fill up.
+ */
+class NdjsonWriter implements Closeable {
+
+  private final JsonGenerator generator;
+  private boolean flushed;
+
+  NdjsonWriter(ObjectMapper objectMapper, OutputStream outputStream) throws IOException {
+    this.generator =
+        objectMapper
+            .getFactory()
+            .createGenerator(outputStream)
+            .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+    // Lines are separated by the new line written after each value only.
+    this.generator.setRootValueSeparator(null);
+  }
+
+  void write(Object value) throws IOException {
+    generator.writeObject(value);
+    generator.writeRaw('\n');
+    if (!flushed) {
+      generator.flush();
+      flushed = true;
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    generator.close();
+  }
+}
@@ -0,0 +1,102 @@
+package com.loan.loanservice.controller;
+
+import com.loan.loanservice.configuration.LoanServiceProperties;
+import com.loan.loanservice.domain.BatchLoanPlanLine;
+import com.loan.loanservice.domain.LoanPlanResult;
+import com.loan.loanservice.domain.LoanRequest;
+import com.loan.loanservice.domain.MonthlyRepayment;
+import com.loan.loanservice.service.BatchLoanPlanService;
+import com.loan.loanservice.service.LoanPlanGeneratorService;
+import java.util.List;
+import javax.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+/**
+ * Loan plan API on the reactive stack. Plans are calculated on the plan computation scheduler,
+ * never on the event loop.
+ *
+ * <p>Only newline delimited JSON is streamed: repayments are calculated when the client requests
+ * them, so a slow client does not make the server buffer its plan. A JSON array is only written
+ * once it is complete, so JSON responses are calculated up front and buffered as a whole.
+ */
+@RequiredArgsConstructor
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveLoanController {
+
+  private final LoanPlanGeneratorService loanPlanGeneratorService;
+  private final BatchLoanPlanService batchLoanPlanService;
+  private final LoanServiceProperties loanServiceProperties;
+  private final Scheduler planComputationScheduler;
+
+  @PostMapping(
+      value = "/generate-plan",
+      consumes = MediaType.APPLICATION_JSON_VALUE,
+      produces = MediaType.APPLICATION_JSON_VALUE)
+  @ResponseStatus(HttpStatus.CREATED)
+  public Mono<List<MonthlyRepayment>> generateLoanPlan(
+      @RequestBody @Valid LoanRequest loanRequest) {
+    return Mono.fromCallable(() -> loanPlanGeneratorService.generateLoanPlan(loanRequest))
+        .subscribeOn(planComputationScheduler);
+  }
+
+  @PostMapping(
+      value = "/generate-plan",
+      consumes = MediaType.APPLICATION_JSON_VALUE,
+      produces = LoanMediaTypes.APPLICATION_NDJSON_VALUE)
+  @ResponseStatus(HttpStatus.CREATED)
+  public Flux<MonthlyRepayment> streamLoanPlan(@RequestBody @Valid LoanRequest loanRequest) {
+    return Flux.fromIterable(() -> loanPlanGeneratorService.iterateLoanPlan(loanRequest))
+        .subscribeOn(planComputationScheduler);
+  }
+
+  @PostMapping(
+      value = "/generate-plans",
+      consumes = MediaType.APPLICATION_JSON_VALUE,
+      produces = MediaType.APPLICATION_JSON_VALUE)
+  public Mono<List<LoanPlanResult>> generateLoanPlans(@RequestBody List<LoanRequest> loanRequests) {
+    checkBatchSize(loanRequests);
+    return Flux.range(0, loanRequests.size())
+        .flatMapSequential(
+            index ->
+                Mono.fromCallable(
+                        () -> batchLoanPlanService.generateLoanPlan(loanRequests.get(index)))
+                    .subscribeOn(planComputationScheduler),
+            loanServiceProperties.getBatch().getParallelism())
+        .collectList();
+  }
+
+  @PostMapping(
+      value = "/generate-plans",
+      consumes = MediaType.APPLICATION_JSON_VALUE,
+      produces = LoanMediaTypes.APPLICATION_NDJSON_VALUE)
+  public Flux<BatchLoanPlanLine> streamLoanPlans(@RequestBody List<LoanRequest> loanRequests) {
+    checkBatchSize(loanRequests);
+    return Flux.range(0, loanRequests.size())
+        .concatMap(
+            index ->
+                Flux.fromIterable(
+                    () ->
+                        batchLoanPlanService.iterateLoanPlanLines(index, loanRequests.get(index))))
+        .subscribeOn(planComputationScheduler);
+  }
+
+  private void checkBatchSize(List<LoanRequest> loanRequests) {
+    int maximumSize = loanServiceProperties.getBatch().getMaximumSize();
+    if (loanRequests.size() > maximumSize) {
+      throw new ResponseStatusException(
+          HttpStatus.BAD_REQUEST, "Batch must not contain more than " + maximumSize + " requests");
+    }
+  }
+}
@@ -0,0 +1,26 @@
+package com.loan.loanservice.domain;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.annotations.ApiModelProperty;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BatchLoanPlanLine {
+
+  @ApiModelProperty(notes = "Index of the loan request in the batch", required = true)
+  private int index;
+
+  @ApiModelProperty(notes = "One repayment of the loan plan, absent when the request is invalid")
+  private MonthlyRepayment repayment;
+
+  @ApiModelProperty(notes = "Validation errors of the loan request, absent when it is valid")
+  private List<String> errors;
+}
@@ -0,0 +1,12 @@
+package com.loan.loanservice.domain;
+
+public enum CalculationBackend {
+  /** Arbitrary precision arithmetic on {@link java.math.BigDecimal} amounts. */
+  BIG_DECIMAL,
+
+  /**
+   * Arithmetic on {@code long} cents. Produces the same plan as {@link #BIG_DECIMAL} and falls back
+   * to it for amounts or rates that can not be represented exactly.
+   */
+  FIXED_POINT
+}
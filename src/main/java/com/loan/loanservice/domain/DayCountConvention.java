@@ -0,0 +1,23 @@
+package com.loan.loanservice.domain;
+
+/**
+ * How the interest of a repayment period is calculated from the annual nominal rate. A repayment
+ * period runs from the previous repayment date, one month before the start date for the first
+ * repayment, to the repayment date.
+ */
+public enum DayCountConvention {
+  /** Every period is 30 days of a 360 days year, so every month accrues the same interest. */
+  THIRTY_360,
+
+  /** Actual days of the period, of a 360 days year. */
+  ACTUAL_360,
+
+  /** Actual days of the period, of a 365 days year. */
+  ACTUAL_365,
+
+  /**
+   * Actual days of the period, the days in a leap year of a 366 days year and the other days of a
+   * 365 days year (ISDA).
+   */
+  ACTUAL_ACTUAL
+}
@@ -0,0 +1,33 @@
+package com.loan.loanservice.domain;
+
+import io.swagger.annotations.ApiModelProperty;
+import java.math.BigDecimal;
+import javax.validation.constraints.DecimalMin;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class LoanEvent {
+
+  @NotNull(message = "Event month must not null")
+  @Min(value = 1, message = "month must be greater than or equal to 1")
+  @ApiModelProperty(
+      notes = "Repayment the event applies to, 1 is the repayment on the start date",
+      required = true)
+  private Integer month;
+
+  @DecimalMin(value = "0.01", message = "extraRepayment must be greater than or equal to 0.01")
+  @ApiModelProperty(notes = "Unscheduled repayment paid together with the repayment of the month")
+  private BigDecimal extraRepayment;
+
+  @Min(value = 1, message = "nominalRate(annual) must be greater than or equal to 1")
+  @ApiModelProperty(notes = "Nominal(annual) interest rate from the repayment of the month on")
+  private BigDecimal nominalRate;
+}
@@ -0,0 +1,36 @@
+package com.loan.loanservice.domain;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.annotations.ApiModelProperty;
+import java.math.BigDecimal;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class LoanGridCell {
+
+  @ApiModelProperty(notes = "Nominal(annual) interest rate of the cell", required = true)
+  private BigDecimal nominalRate;
+
+  @ApiModelProperty(notes = "Loan duration in months of the cell", required = true)
+  private int durationInMonth;
+
+  @ApiModelProperty(notes = "Loan amount of the cell", required = true)
+  private BigDecimal loanAmount;
+
+  @ApiModelProperty(notes = "Annuity and totals of the loan plan, absent when it is invalid")
+  private LoanPlanSummary summary;
+
+  @ApiModelProperty(notes = "Loan plan, only present when plans are requested")
+  private List<MonthlyRepayment> plan;
+
+  @ApiModelProperty(notes = "Reason why no loan plan exists for the cell, absent when it is valid")
+  private List<String> errors;
+}
@@ -0,0 +1,57 @@
+package com.loan.loanservice.domain;
+
+import io.swagger.annotations.ApiModelProperty;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import javax.validation.constraints.Future;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class LoanGridRequest {
+
+  @NotEmpty(message = "Nominal rates must not be empty")
+  @ApiModelProperty(notes = "Nominal(annual) interest rates of the grid", required = true)
+  private List<
+          @NotNull(message = "NominalRate(annual) must not null")
+          @Min(value = 1, message = "nominalRate(annual) must be greater than or equal to 1")
+          BigDecimal>
+      nominalRates;
+
+  @NotEmpty(message = "Loan durations must not be empty")
+  @ApiModelProperty(notes = "Loan durations in months of the grid", required = true)
+  private List<
+          @NotNull(message = "Loan duration must not null")
+          @Min(value = 1, message = "durationInMonth must be greater than or equal to 1") Integer>
+      durationsInMonth;
+
+  @NotEmpty(message = "Loan amounts must not be empty")
+  @ApiModelProperty(notes = "Loan amounts of the grid", required = true)
+  private List<
+          @NotNull(message = "Loan amount must not null")
+          @Min(value = 1, message = "loanAmount must be greater than or equal to 1") BigDecimal>
+      loanAmounts;
+
+  @NotNull(message = "Start date must not null")
+  @Future
+  @ApiModelProperty(notes = "Start date of all loans and must be in future", required = true)
+  private LocalDateTime startDate;
+
+  @ApiModelProperty(notes = "Whether the full loan plan of every cell is returned")
+  private boolean includePlans;
+
+  @ApiModelProperty(notes = "Calculation backend, defaults to the configured backend")
+  private CalculationBackend calculationBackend;
+
+  @ApiModelProperty(notes = "Day count convention of the interest, defaults to THIRTY_360")
+  private DayCountConvention dayCountConvention;
+}
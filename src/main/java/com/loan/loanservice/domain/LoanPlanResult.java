@@ -0,0 +1,21 @@
+package com.loan.loanservice.domain;
+
+import io.swagger.annotations.ApiModelProperty;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class LoanPlanResult {
+
+  @ApiModelProperty(notes = "Loan plan, absent when the loan request is invalid")
+  private List<MonthlyRepayment> plan;
+
+  @ApiModelProperty(notes = "Validation errors of the loan request, absent when it is valid")
+  private List<String> errors;
+}
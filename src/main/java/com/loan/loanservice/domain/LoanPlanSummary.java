@@ -0,0 +1,33 @@
+package com.loan.loanservice.domain;
+
+import io.swagger.annotations.ApiModelProperty;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class LoanPlanSummary {
+
+  @ApiModelProperty(notes = "Monthly annuity", required = true)
+  private BigDecimal annuity;
+
+  @ApiModelProperty(notes = "Number of repayments of the loan plan", required = true)
+  private int numberOfRepayments;
+
+  @ApiModelProperty(notes = "Sum of the interest of all repayments", required = true)
+  private BigDecimal totalInterest;
+
+  @ApiModelProperty(
+      notes = "Sum of the borrower payment amounts of all repayments",
+      required = true)
+  private BigDecimal totalBorrowerPaymentAmount;
+
+  @ApiModelProperty(notes = "Date of the last repayment", required = true)
+  private LocalDateTime finalRepaymentDate;
+}
@@ -38,4 +38,10 @@ public class LoanRequest {
   @Future
   @ApiModelProperty(notes = "Loan start date and must be in future", required = true)
   private LocalDateTime startDate;
+
+  @ApiModelProperty(notes = "Calculation backend, defaults to the configured backend")
+  private CalculationBackend calculationBackend;
+
+  @ApiModelProperty(notes = "Day count convention of the interest, defaults to THIRTY_360")
+  private DayCountConvention dayCountConvention;
 }
@@ -0,0 +1,28 @@
+package com.loan.loanservice.domain;
+
+import io.swagger.annotations.ApiModelProperty;
+import java.util.List;
+import javax.validation.Valid;
+import javax.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class LoanScenarioRequest {
+
+  @NotNull(message = "Loan request must not null")
+  @Valid
+  @ApiModelProperty(notes = "Loan the scenario starts from", required = true)
+  private LoanRequest loanRequest;
+
+  @NotNull(message = "Events must not null")
+  @ApiModelProperty(
+      notes = "Extra repayments and rate changes, events after the end of the plan are ignored",
+      required = true)
+  private List<@NotNull(message = "Event must not null") @Valid LoanEvent> events;
+}
@@ -1,17 +1,16 @@
 package com.loan.loanservice.domain;
 
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonPOJOBuilder;
 import io.swagger.annotations.ApiModelProperty;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
-import lombok.AllArgsConstructor;
 import lombok.Builder;
-import lombok.Data;
-import lombok.NoArgsConstructor;
+import lombok.Value;
 
-@Data
-@Builder
-@AllArgsConstructor
-@NoArgsConstructor
+@Value
+@Builder(toBuilder = true)
+@JsonDeserialize(builder = MonthlyRepayment.MonthlyRepaymentBuilder.class)
 public class MonthlyRepayment {
 
   @ApiModelProperty(notes = "Borrower payment amount", required = true)
@@ -31,4 +30,7 @@ public class MonthlyRepayment {
 
   @ApiModelProperty(notes = "Remaining outstanding principal amount", required = true)
   private BigDecimal remainingOutstandingPrincipal;
+
+  @JsonPOJOBuilder(withPrefix = "")
+  public static class MonthlyRepaymentBuilder {}
 }
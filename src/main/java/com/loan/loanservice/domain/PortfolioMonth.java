@@ -0,0 +1,38 @@
+package com.loan.loanservice.domain;
+
+import io.swagger.annotations.ApiModelProperty;
+import java.math.BigDecimal;
+import java.time.YearMonth;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class PortfolioMonth {
+
+  @ApiModelProperty(notes = "Month of the repayments, e.g. 2020-05", required = true)
+  private YearMonth month;
+
+  @ApiModelProperty(notes = "Number of loans with a repayment in this month", required = true)
+  private int numberOfRepayments;
+
+  @ApiModelProperty(notes = "Sum of the interest of the repayments", required = true)
+  private BigDecimal interest;
+
+  @ApiModelProperty(notes = "Sum of the principal of the repayments", required = true)
+  private BigDecimal principal;
+
+  @ApiModelProperty(
+      notes = "Sum of the borrower payment amounts of the repayments",
+      required = true)
+  private BigDecimal borrowerPaymentAmount;
+
+  @ApiModelProperty(
+      notes = "Sum of the outstanding principal of the repaying loans after the repayments",
+      required = true)
+  private BigDecimal remainingOutstandingPrincipal;
+}
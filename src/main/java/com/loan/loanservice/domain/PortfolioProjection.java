@@ -0,0 +1,26 @@
+package com.loan.loanservice.domain;
+
+import io.swagger.annotations.ApiModelProperty;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class PortfolioProjection {
+
+  @ApiModelProperty(notes = "Number of loans added up in the months", required = true)
+  private int numberOfLoans;
+
+  @ApiModelProperty(
+      notes = "Repayments of all loans added up per month, from the first to the last repayment",
+      required = true)
+  private List<PortfolioMonth> months;
+
+  @ApiModelProperty(notes = "Index and errors of every rejected loan request", required = true)
+  private List<BatchLoanPlanLine> rejectedLoans;
+}
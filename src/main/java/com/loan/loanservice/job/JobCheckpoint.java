@@ -0,0 +1,94 @@
+package com.loan.loanservice.job;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Properties;
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * Progress of a {@link LoanPlanJob} which has been written durably. A resumed job continues with
+ * the input line at {@link #getInputPosition()} and drops whatever was written to the output files
+ * after the recorded sizes.
+ */
+@Value
+@Builder(toBuilder = true)
+class JobCheckpoint {
+
+  /** Input file the progress belongs to. */
+  private final String input;
+
+  /** Size of the input file, a changed file cannot be resumed. */
+  private final long inputSize;
+
+  /** Offset of the first input line which has not been processed. */
+  private final long inputPosition;
+
+  private final long plansSize;
+
+  private final long rejectedSize;
+
+  /** Number of loans with a generated plan. */
+  private final long loans;
+
+  private final long rejectedLoans;
+
+  private final long repayments;
+
+  /** The checkpoint stored in {@code file}, {@code null} when there is none. */
+  static JobCheckpoint load(Path file) throws IOException {
+    if (!Files.exists(file)) {
+      return null;
+    }
+    Properties properties = new Properties();
+    try (InputStream inputStream = Files.newInputStream(file)) {
+      properties.load(inputStream);
+    }
+    return JobCheckpoint.builder()
+        .input(properties.getProperty("input"))
+        .inputSize(Long.parseLong(properties.getProperty("inputSize")))
+        .inputPosition(Long.parseLong(properties.getProperty("inputPosition")))
+        .plansSize(Long.parseLong(properties.getProperty("plansSize")))
+        .rejectedSize(Long.parseLong(properties.getProperty("rejectedSize")))
+        .loans(Long.parseLong(properties.getProperty("loans")))
+        .rejectedLoans(Long.parseLong(properties.getProperty("rejectedLoans")))
+        .repayments(Long.parseLong(properties.getProperty("repayments")))
+        .build();
+  }
+
+  /**
+   * Stores the checkpoint in {@code file}. It is written next to it first and then moved, so a
+   * crash leaves either the old or the new checkpoint.
+   */
+  void save(Path file) throws IOException {
+    Properties properties = new Properties();
+    properties.setProperty("input", input);
+    properties.setProperty("inputSize", Long.toString(inputSize));
+    properties.setProperty("inputPosition", Long.toString(inputPosition));
+    properties.setProperty("plansSize", Long.toString(plansSize));
+    properties.setProperty("rejectedSize", Long.toString(rejectedSize));
+    properties.setProperty("loans", Long.toString(loans));
+    properties.setProperty("rejectedLoans", Long.toString(rejectedLoans));
+    properties.setProperty("repayments", Long.toString(repayments));
+    Path temporaryFile = file.resolveSibling(file.getFileName() + ".tmp");
+    try (FileChannel channel =
+            FileChannel.open(
+                temporaryFile,
+                StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        OutputStream outputStream = Channels.newOutputStream(channel)) {
+      properties.store(outputStream, "Loan plan job checkpoint");
+      channel.force(true);
+    }
+    Files.move(
+        temporaryFile, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+  }
+}
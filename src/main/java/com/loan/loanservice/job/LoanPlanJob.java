@@ -0,0 +1,337 @@
+package com.loan.loanservice.job;
+
+import com.loan.loanservice.configuration.LoanServiceProperties;
+import com.loan.loanservice.domain.LoanRequest;
+import com.loan.loanservice.domain.MonthlyRepayment;
+import com.loan.loanservice.service.LoanPlanGeneratorService;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import javax.validation.ValidationException;
+import javax.validation.Validator;
+import javax.validation.constraints.Future;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+/**
+ * Offline generation of the loan plans of a CSV file, started with the {@code job} profile.
+ *
+ * <p>Every input line after the header is {@code id,loanAmount,nominalRate,durationInMonth,
+ * startDate}. The repayments of all plans are written to {@value #PLANS_FILE} and the lines which
+ * could not be processed to {@value #REJECTED_FILE} in the output directory, both in the order of
+ * the input. Chunks of lines are generated in parallel, but only the chunks being generated or
+ * waiting to be written are held in memory. Progress is stored in {@value #CHECKPOINT_FILE} from
+ * time to time, a job started again after a crash continues from there.
+ */
+@Slf4j
+@Component
+@Profile("job")
+@RequiredArgsConstructor
+public class LoanPlanJob implements CommandLineRunner {
+
+  static final String PLANS_FILE = "plans.csv";
+  static final String REJECTED_FILE = "rejected.csv";
+  static final String CHECKPOINT_FILE = "checkpoint.properties";
+
+  private static final String PLANS_HEADER =
+      "id,date,borrowerPaymentAmount,interest,principal,"
+          + "initialOutstandingPrincipal,remainingOutstandingPrincipal\n";
+  private static final String REJECTED_HEADER = "id,errors\n";
+  private static final int NUMBER_OF_VALUES = 5;
+
+  private final LoanPlanGeneratorService loanPlanGeneratorService;
+  private final Validator validator;
+  private final ForkJoinPool batchComputationPool;
+  private final LoanServiceProperties loanServiceProperties;
+
+  @Override
+  public void run(String... args) throws IOException {
+    LoanServiceProperties.Job job = loanServiceProperties.getJob();
+    if (job.getInput() == null) {
+      throw new IllegalStateException("loan.job.input must be set to the loan file");
+    }
+    run(job.getInput(), job.getOutputDirectory());
+  }
+
+  /** Generates the plans of all loans of {@code input}, returns the final progress. */
+  JobCheckpoint run(Path input, Path outputDirectory) throws IOException {
+    Files.createDirectories(outputDirectory);
+    Path checkpointFile = outputDirectory.resolve(CHECKPOINT_FILE);
+    String inputName = input.toAbsolutePath().normalize().toString();
+    long inputSize = Files.size(input);
+
+    JobCheckpoint checkpoint = JobCheckpoint.load(checkpointFile);
+    boolean resumed = checkpoint != null;
+    if (resumed) {
+      if (!checkpoint.getInput().equals(inputName) || checkpoint.getInputSize() != inputSize) {
+        throw new IllegalStateException(
+            "Checkpoint " + checkpointFile + " belongs to another input than " + inputName);
+      }
+      log.info(
+          "Resuming loan plan job after {} loans",
+          checkpoint.getLoans() + checkpoint.getRejectedLoans());
+    } else {
+      checkpoint = JobCheckpoint.builder().input(inputName).inputSize(inputSize).build();
+    }
+
+    try (MappedLineReader reader = new MappedLineReader(input, checkpoint.getInputPosition());
+        FileChannel plans =
+            openOutput(outputDirectory.resolve(PLANS_FILE), checkpoint.getPlansSize());
+        FileChannel rejected =
+            openOutput(outputDirectory.resolve(REJECTED_FILE), checkpoint.getRejectedSize())) {
+      if (!resumed) {
+        reader.readLine();
+        write(plans, PLANS_HEADER.getBytes(StandardCharsets.UTF_8));
+        write(rejected, REJECTED_HEADER.getBytes(StandardCharsets.UTF_8));
+      }
+      checkpoint = process(reader, plans, rejected, checkpoint, checkpointFile);
+      plans.force(false);
+      rejected.force(false);
+    }
+    Files.deleteIfExists(checkpointFile);
+    return checkpoint;
+  }
+
+  private JobCheckpoint process(
+      MappedLineReader reader,
+      FileChannel plans,
+      FileChannel rejected,
+      JobCheckpoint checkpoint,
+      Path checkpointFile)
+      throws IOException {
+    LoanServiceProperties.Job job = loanServiceProperties.getJob();
+    int maximumChunksInFlight = 2 * batchComputationPool.getParallelism();
+    Progress progress = new Progress(checkpoint);
+    long lastCheckpointTime = progress.startTime;
+
+    Deque<CompletableFuture<Chunk>> chunks = new ArrayDeque<>(maximumChunksInFlight);
+    boolean endOfInput = false;
+    while (!endOfInput || !chunks.isEmpty()) {
+      while (!endOfInput && chunks.size() < maximumChunksInFlight) {
+        List<String> lines = readChunk(reader, job.getChunkSize());
+        long inputPosition = reader.getPosition();
+        if (lines.isEmpty()) {
+          endOfInput = true;
+        } else {
+          chunks.add(
+              CompletableFuture.supplyAsync(
+                  () -> generateChunk(lines, inputPosition), batchComputationPool));
+        }
+      }
+      if (!chunks.isEmpty()) {
+        // Chunks are written in the order of the input, whichever is generated first.
+        Chunk chunk = join(chunks.poll());
+        write(plans, chunk.plans);
+        write(rejected, chunk.rejected);
+        checkpoint =
+            checkpoint
+                .toBuilder()
+                .inputPosition(chunk.inputPosition)
+                .plansSize(plans.position())
+                .rejectedSize(rejected.position())
+                .loans(checkpoint.getLoans() + chunk.loans)
+                .rejectedLoans(checkpoint.getRejectedLoans() + chunk.rejectedLoans)
+                .repayments(checkpoint.getRepayments() + chunk.repayments)
+                .build();
+        long now = System.nanoTime();
+        if (now - lastCheckpointTime >= job.getCheckpointInterval().toNanos()) {
+          // The outputs must be on disk before a checkpoint refers to them.
+          plans.force(false);
+          rejected.force(false);
+          checkpoint.save(checkpointFile);
+          progress.report("Processed", checkpoint);
+          lastCheckpointTime = now;
+        }
+      }
+    }
+    progress.report("Finished", checkpoint);
+    return checkpoint;
+  }
+
+  private Chunk generateChunk(List<String> lines, long inputPosition) {
+    Chunk chunk = new Chunk(inputPosition);
+    StringBuilder plans = new StringBuilder(lines.size() * 256);
+    StringBuilder rejected = new StringBuilder();
+    for (String line : lines) {
+      String[] values = line.split(",", -1);
+      String id = values[0];
+      List<String> errors;
+      try {
+        LoanRequest loanRequest = parse(values);
+        errors = validate(loanRequest);
+        if (errors.isEmpty()) {
+          Iterator<MonthlyRepayment> repayments =
+              loanPlanGeneratorService.iterateLoanPlan(loanRequest);
+          while (repayments.hasNext()) {
+            appendRepayment(plans, id, repayments.next());
+            chunk.repayments++;
+          }
+          chunk.loans++;
+          continue;
+        }
+      } catch (IllegalArgumentException | ValidationException e) {
+        errors = Collections.singletonList(e.getMessage());
+      }
+      rejected.append(id).append(',');
+      appendQuoted(rejected, String.join("; ", errors)).append('\n');
+      chunk.rejectedLoans++;
+    }
+    chunk.plans = plans.toString().getBytes(StandardCharsets.UTF_8);
+    chunk.rejected = rejected.toString().getBytes(StandardCharsets.UTF_8);
+    return chunk;
+  }
+
+  private LoanRequest parse(String[] values) {
+    if (values.length != NUMBER_OF_VALUES) {
+      throw new IllegalArgumentException(
+          "Expected " + NUMBER_OF_VALUES + " values but found " + values.length);
+    }
+    return LoanRequest.builder()
+        .loanAmount(parseValue(values[1], "loanAmount", BigDecimal::new))
+        .nominalRate(parseValue(values[2], "nominalRate", BigDecimal::new))
+        .durationInMonth(parseValue(values[3], "durationInMonth", Integer::valueOf))
+        .startDate(parseValue(values[4], "startDate", LocalDateTime::parse))
+        .build();
+  }
+
+  private <T> T parseValue(String value, String name, Function<String, T> parser) {
+    String trimmed = value.trim();
+    if (trimmed.isEmpty()) {
+      return null;
+    }
+    try {
+      return parser.apply(trimmed);
+    } catch (RuntimeException e) {
+      throw new IllegalArgumentException(name + ": invalid value " + trimmed);
+    }
+  }
+
+  /**
+   * Validation errors of the request, empty when it is valid. Plans of loans which have already
+   * started are generated as well, so the start date does not have to be in the future.
+   */
+  private List<String> validate(LoanRequest loanRequest) {
+    return validator.validate(loanRequest).stream()
+        .filter(violation -> !(violation.getConstraintDescriptor().getAnnotation() instanceof Future))
+        .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+        .sorted()
+        .collect(Collectors.toList());
+  }
+
+  private static List<String> readChunk(MappedLineReader reader, int chunkSize)
+      throws IOException {
+    List<String> lines = new ArrayList<>(chunkSize);
+    String line;
+    while (lines.size() < chunkSize && (line = reader.readLine()) != null) {
+      if (!line.trim().isEmpty()) {
+        lines.add(line);
+      }
+    }
+    return lines;
+  }
+
+  private static void appendRepayment(StringBuilder plans, String id, MonthlyRepayment repayment) {
+    plans.append(id).append(',').append(repayment.getDate()).append(',');
+    appendAmount(plans, repayment.getBorrowerPaymentAmount()).append(',');
+    appendAmount(plans, repayment.getInterest()).append(',');
+    appendAmount(plans, repayment.getPrincipal()).append(',');
+    appendAmount(plans, repayment.getInitialOutstandingPrincipal()).append(',');
+    appendAmount(plans, repayment.getRemainingOutstandingPrincipal()).append('\n');
+  }
+
+  private static StringBuilder appendAmount(StringBuilder builder, BigDecimal amount) {
+    return builder.append(amount.toPlainString());
+  }
+
+  private static StringBuilder appendQuoted(StringBuilder builder, String value) {
+    return builder.append('"').append(value.replace("\"", "\"\"")).append('"');
+  }
+
+  /** Output file truncated to {@code size}, dropping what was written after the checkpoint. */
+  private static FileChannel openOutput(Path path, long size) throws IOException {
+    FileChannel channel =
+        FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+    channel.truncate(size);
+    channel.position(size);
+    return channel;
+  }
+
+  private static void write(FileChannel channel, byte[] bytes) throws IOException {
+    ByteBuffer buffer = ByteBuffer.wrap(bytes);
+    while (buffer.hasRemaining()) {
+      channel.write(buffer);
+    }
+  }
+
+  private static Chunk join(CompletableFuture<Chunk> future) {
+    try {
+      return future.join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw e;
+    }
+  }
+
+  /** Generated output of consecutive input lines, ending at {@code inputPosition}. */
+  private static final class Chunk {
+
+    private final long inputPosition;
+    private byte[] plans;
+    private byte[] rejected;
+    private int loans;
+    private int rejectedLoans;
+    private long repayments;
+
+    Chunk(long inputPosition) {
+      this.inputPosition = inputPosition;
+    }
+  }
+
+  /** Throughput since the job was started or resumed. */
+  private static final class Progress {
+
+    private final long startTime = System.nanoTime();
+    private final long initialLoans;
+    private final long initialRepayments;
+
+    Progress(JobCheckpoint checkpoint) {
+      this.initialLoans = checkpoint.getLoans() + checkpoint.getRejectedLoans();
+      this.initialRepayments = checkpoint.getRepayments();
+    }
+
+    void report(String state, JobCheckpoint checkpoint) {
+      double seconds = Math.max(System.nanoTime() - startTime, 1) / 1e9;
+      long loans = checkpoint.getLoans() + checkpoint.getRejectedLoans();
+      log.info(
+          "{} {} loans ({} rejected) with {} repayments, {} loans/s and {} repayments/s",
+          state,
+          loans,
+          checkpoint.getRejectedLoans(),
+          checkpoint.getRepayments(),
+          Math.round((loans - initialLoans) / seconds),
+          Math.round((checkpoint.getRepayments() - initialRepayments) / seconds));
+    }
+  }
+}
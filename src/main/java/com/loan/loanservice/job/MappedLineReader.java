@@ -0,0 +1,85 @@
+package com.loan.loanservice.job;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Reads the UTF-8 lines of a file through memory mapped regions, so neither the whole file is
+ * loaded into the heap nor every read is copied through a stream buffer. Lines end with {@code \n}
+ * or {@code \r\n}, the last line may have no line end.
+ */
+final class MappedLineReader implements Closeable {
+
+  private static final long DEFAULT_REGION_SIZE = 64L * 1024 * 1024;
+
+  private final FileChannel channel;
+  private final long size;
+  private final long regionSize;
+  private MappedByteBuffer region;
+  private long regionStart;
+  private long position;
+  private byte[] line = new byte[128];
+
+  /** Reader starting at {@code position}, which must be the start of a line. */
+  MappedLineReader(Path path, long position) throws IOException {
+    this(path, position, DEFAULT_REGION_SIZE);
+  }
+
+  MappedLineReader(Path path, long position, long regionSize) throws IOException {
+    this.channel = FileChannel.open(path, StandardOpenOption.READ);
+    this.size = channel.size();
+    this.regionSize = regionSize;
+    this.position = position;
+  }
+
+  /** Offset of the next line in the file. */
+  long getPosition() {
+    return position;
+  }
+
+  /** The next line without its line end, {@code null} at the end of the file. */
+  String readLine() throws IOException {
+    if (position >= size) {
+      return null;
+    }
+    int length = 0;
+    long offset = position;
+    while (offset < size) {
+      if (region == null || offset - regionStart >= region.limit()) {
+        // A line crossing the end of the region continues in the next one.
+        map(offset);
+      }
+      byte b = region.get((int) (offset - regionStart));
+      offset++;
+      if (b == '\n') {
+        break;
+      }
+      if (length == line.length) {
+        line = Arrays.copyOf(line, length * 2);
+      }
+      line[length++] = b;
+    }
+    position = offset;
+    if (length > 0 && line[length - 1] == '\r') {
+      length--;
+    }
+    return new String(line, 0, length, StandardCharsets.UTF_8);
+  }
+
+  @Override
+  public void close() throws IOException {
+    region = null;
+    channel.close();
+  }
+
+  private void map(long offset) throws IOException {
+    regionStart = offset;
+    region = channel.map(FileChannel.MapMode.READ_ONLY, offset, Math.min(regionSize, size - offset));
+  }
+}
@@ -0,0 +1,445 @@
+package com.loan.loanservice.service;
+
+import com.loan.loanservice.domain.CalculationBackend;
+import com.loan.loanservice.domain.LoanRequest;
+import com.loan.loanservice.domain.MonthlyRepayment;
+import com.loan.loanservice.utils.DayCount;
+import com.loan.loanservice.utils.DayFractions;
+import com.loan.loanservice.utils.FixedPointInterestCalculationUtil;
+import com.loan.loanservice.utils.FixedPointInterestCalculationUtil.MonthlyRate;
+import com.loan.loanservice.utils.InterestCalculationUtil;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import javax.validation.ValidationException;
+import lombok.Value;
+
+/**
+ * Calculates the repayments of a loan plan one month at a time, without their dates. Each repayment
+ * only depends on the outstanding principal of the previous one, so a plan can be consumed without
+ * holding all of its repayments in memory. The interest of every month is calculated with the
+ * {@link DayCount} of the request.
+ *
+ * <p>When the year fractions of the periods are not constant the annuity only repays the loan on
+ * average, a long period may even add to the outstanding principal. The last expected repayment
+ * then repays whatever is outstanding, so the plan never runs past its duration.
+ *
+ * <p>With {@link CalculationBackend#FIXED_POINT} the months are calculated in {@code long} cents.
+ * When the amounts can not be represented in cents the remaining months are calculated with {@link
+ * BigDecimal}, which gives the same repayments.
+ *
+ * <p>{@link #skip(int)}, {@link #sumRemaining()} and {@link #scheduleRemaining()} calculate
+ * repayments without creating them.
+ */
+public class AmortizationScheduleIterator implements Iterator<MonthlyRepayment> {
+
+  private final BigDecimal nominalRate;
+  private final BigDecimal annuity;
+  private final int durationInMonth;
+  private final DayFractions dayFractions;
+  // Period of the repayment settling the outstanding principal, -1 with constant day fractions.
+  private final int lastPeriod;
+
+  private boolean firstRepaymentPending = true;
+  // Period (0 based) of the next repayment to calculate.
+  private int period;
+  private BigDecimal remainingOutstandingPrincipal;
+
+  // Fixed point state, only used while monthlyRate is set. The rates of the periods are only set
+  // when the day fractions are not constant.
+  private MonthlyRate monthlyRate;
+  private MonthlyRate[] periodRates;
+  private long annuityInCents;
+  private long remainingOutstandingPrincipalInCents;
+
+  // Amounts of the current repayment, in cents if it was calculated with fixed point.
+  private boolean currentInCents;
+  private BigDecimal interest;
+  private BigDecimal principal;
+  private BigDecimal borrowerPaymentAmount;
+  private BigDecimal initialOutstandingPrincipal;
+  private long interestInCents;
+  private long principalInCents;
+  private long borrowerPaymentAmountInCents;
+  private long initialOutstandingPrincipalInCents;
+
+  /**
+   * @throws ValidationException when the annuity does not cover the monthly interest of constant
+   *     day fractions, so the plan would never end
+   */
+  public AmortizationScheduleIterator(
+      LoanRequest loanRequest, CalculationBackend calculationBackend) {
+    this(loanRequest, InterestCalculationUtil.calculateAnnuity(loanRequest), calculationBackend);
+  }
+
+  /**
+   * @param annuity annuity of the request as calculated by {@link
+   *     InterestCalculationUtil#calculateAnnuity(LoanRequest)}
+   * @throws ValidationException when the annuity does not cover the monthly interest of constant
+   *     day fractions, so the plan would never end
+   */
+  public AmortizationScheduleIterator(
+      LoanRequest loanRequest, BigDecimal annuity, CalculationBackend calculationBackend) {
+    this.annuity = annuity;
+    this.durationInMonth = loanRequest.getDurationInMonth();
+    this.nominalRate = toNominalRate(loanRequest.getNominalRate());
+    this.dayFractions =
+        DayCount.of(loanRequest.getDayCountConvention())
+            .dayFractions(loanRequest.getStartDate(), durationInMonth);
+    this.lastPeriod = dayFractions.isConstant() ? -1 : durationInMonth - 1;
+
+    BigDecimal loanAmount = loanRequest.getLoanAmount();
+    if (dayFractions.isConstant()) {
+      // The first repayment of 30/360 plans is never adjusted to the outstanding principal.
+      this.interest = calculateInterest(loanAmount);
+      this.principal = evaluatePrincipal(interest, loanAmount);
+      this.borrowerPaymentAmount = principal.add(interest);
+      this.initialOutstandingPrincipal = loanAmount;
+      this.remainingOutstandingPrincipal = loanAmount.subtract(principal);
+    } else {
+      // With actual days a one month plan settles in its first repayment.
+      advanceBigDecimal(loanAmount);
+    }
+    this.period = 1;
+
+    initialize(calculationBackend);
+  }
+
+  /**
+   * Continues a loan plan from an outstanding principal, for example after an extra repayment or a
+   * change of the nominal rate. Every repayment is calculated like the repayments after the first
+   * one of a plan.
+   *
+   * @param outstandingPrincipal principal outstanding before the next repayment
+   * @param nominalRate nominal (annual) rate in percent, like {@link LoanRequest#getNominalRate()}
+   * @param durationInMonth expected number of remaining repayments
+   * @param dayFractions year fractions of the periods of the whole plan
+   * @param period period (0 based) of the next repayment
+   * @throws ValidationException when the annuity does not cover the monthly interest of constant
+   *     day fractions, so the plan would never end
+   */
+  public AmortizationScheduleIterator(
+      BigDecimal outstandingPrincipal,
+      BigDecimal nominalRate,
+      BigDecimal annuity,
+      int durationInMonth,
+      DayFractions dayFractions,
+      int period,
+      CalculationBackend calculationBackend) {
+    this.annuity = annuity;
+    this.durationInMonth = durationInMonth;
+    this.nominalRate = toNominalRate(nominalRate);
+    this.dayFractions = dayFractions;
+    this.lastPeriod = dayFractions.isConstant() ? -1 : period + durationInMonth - 1;
+    this.firstRepaymentPending = false;
+    this.period = period;
+    this.remainingOutstandingPrincipal = outstandingPrincipal;
+
+    initialize(calculationBackend);
+  }
+
+  public BigDecimal getAnnuity() {
+    return annuity;
+  }
+
+  @Override
+  public boolean hasNext() {
+    if (firstRepaymentPending) {
+      return true;
+    }
+    return monthlyRate != null
+        ? remainingOutstandingPrincipalInCents > 0
+        : isOutstanding(remainingOutstandingPrincipal);
+  }
+
+  @Override
+  public MonthlyRepayment next() {
+    return next(null);
+  }
+
+  /** Like {@link #next()}, with the given date. */
+  public MonthlyRepayment next(LocalDateTime date) {
+    advance();
+    if (currentInCents) {
+      return MonthlyRepayment.builder()
+          .date(date)
+          .interest(FixedPointInterestCalculationUtil.fromCents(interestInCents))
+          .initialOutstandingPrincipal(
+              FixedPointInterestCalculationUtil.fromCents(initialOutstandingPrincipalInCents))
+          .borrowerPaymentAmount(
+              FixedPointInterestCalculationUtil.fromCents(borrowerPaymentAmountInCents))
+          .principal(FixedPointInterestCalculationUtil.fromCents(principalInCents))
+          .remainingOutstandingPrincipal(
+              remainingOutstandingPrincipalInCents == 0
+                  ? BigDecimal.ZERO
+                  : FixedPointInterestCalculationUtil.fromCents(
+                      remainingOutstandingPrincipalInCents))
+          .build();
+    }
+    return MonthlyRepayment.builder()
+        .date(date)
+        .interest(interest)
+        .initialOutstandingPrincipal(initialOutstandingPrincipal)
+        .borrowerPaymentAmount(borrowerPaymentAmount)
+        .principal(principal)
+        .remainingOutstandingPrincipal(remainingOutstandingPrincipal)
+        .build();
+  }
+
+  /**
+   * Calculates the next repayments without creating them.
+   *
+   * @return the number of skipped repayments, less than {@code count} when the plan ends before
+   */
+  public int skip(int count) {
+    int skipped = 0;
+    while (skipped < count && hasNext()) {
+      advance();
+      skipped++;
+    }
+    return skipped;
+  }
+
+  /** Calculates the remaining repayments without creating them and adds up their amounts. */
+  public RepaymentTotals sumRemaining() {
+    int numberOfRepayments = 0;
+    BigDecimal totalInterest = BigDecimal.ZERO;
+    BigDecimal totalBorrowerPaymentAmount = BigDecimal.ZERO;
+    long totalInterestInCents = 0;
+    long totalBorrowerPaymentAmountInCents = 0;
+    while (hasNext()) {
+      advance();
+      numberOfRepayments++;
+      if (currentInCents) {
+        try {
+          long nextTotalInterestInCents = Math.addExact(totalInterestInCents, interestInCents);
+          totalBorrowerPaymentAmountInCents =
+              Math.addExact(totalBorrowerPaymentAmountInCents, borrowerPaymentAmountInCents);
+          totalInterestInCents = nextTotalInterestInCents;
+          continue;
+        } catch (ArithmeticException e) {
+          // Overflow of the totals in cents, add this repayment as BigDecimal.
+          interest = FixedPointInterestCalculationUtil.fromCents(interestInCents);
+          borrowerPaymentAmount =
+              FixedPointInterestCalculationUtil.fromCents(borrowerPaymentAmountInCents);
+        }
+      }
+      totalInterest = totalInterest.add(interest);
+      totalBorrowerPaymentAmount = totalBorrowerPaymentAmount.add(borrowerPaymentAmount);
+    }
+    return new RepaymentTotals(
+        numberOfRepayments,
+        totalInterest.add(FixedPointInterestCalculationUtil.fromCents(totalInterestInCents)),
+        totalBorrowerPaymentAmount.add(
+            FixedPointInterestCalculationUtil.fromCents(totalBorrowerPaymentAmountInCents)));
+  }
+
+  /** Calculates the remaining repayments into a columnar schedule without creating them. */
+  public RepaymentSchedule scheduleRemaining() {
+    RepaymentSchedule.Builder builder = new RepaymentSchedule.Builder(durationInMonth);
+    while (hasNext()) {
+      advance();
+      if (currentInCents) {
+        builder.add(
+            interestInCents,
+            principalInCents,
+            borrowerPaymentAmountInCents,
+            initialOutstandingPrincipalInCents,
+            remainingOutstandingPrincipalInCents);
+      } else {
+        builder.add(
+            interest,
+            principal,
+            borrowerPaymentAmount,
+            initialOutstandingPrincipal,
+            remainingOutstandingPrincipal);
+      }
+    }
+    return builder.build();
+  }
+
+  private void advance() {
+    if (!hasNext()) {
+      throw new NoSuchElementException();
+    }
+    if (firstRepaymentPending) {
+      // The amounts of the first repayment were calculated by the constructor.
+      firstRepaymentPending = false;
+      return;
+    }
+    if (monthlyRate != null) {
+      try {
+        advanceFixedPoint();
+        currentInCents = true;
+        period++;
+        return;
+      } catch (ArithmeticException e) {
+        // Overflow in cents, continue the plan with BigDecimal.
+        remainingOutstandingPrincipal =
+            FixedPointInterestCalculationUtil.fromCents(remainingOutstandingPrincipalInCents);
+        monthlyRate = null;
+      }
+    }
+    advanceBigDecimal(remainingOutstandingPrincipal);
+    currentInCents = false;
+    period++;
+  }
+
+  private void initialize(CalculationBackend calculationBackend) {
+    if (isOutstanding(remainingOutstandingPrincipal)) {
+      // Fail before the first repayment is consumed rather than in the middle of the plan.
+      calculatePrincipal(
+          calculateInterest(remainingOutstandingPrincipal), remainingOutstandingPrincipal);
+    }
+    if (calculationBackend == CalculationBackend.FIXED_POINT) {
+      initializeFixedPoint();
+    }
+  }
+
+  private void initializeFixedPoint() {
+    try {
+      MonthlyRate fixedPointRate = FixedPointInterestCalculationUtil.toMonthlyRate(nominalRate);
+      if (!dayFractions.isConstant()) {
+        int periods = lastPeriod + 1;
+        periodRates = new MonthlyRate[periods];
+        for (int index = period; index < periods; index++) {
+          periodRates[index] =
+              index > period
+                      && dayFractions.getNumerator(index) == dayFractions.getNumerator(index - 1)
+                  ? periodRates[index - 1]
+                  : toPeriodRate(index);
+        }
+      }
+      annuityInCents = FixedPointInterestCalculationUtil.toCents(annuity);
+      remainingOutstandingPrincipalInCents =
+          FixedPointInterestCalculationUtil.toCents(remainingOutstandingPrincipal);
+      monthlyRate = fixedPointRate;
+    } catch (ArithmeticException e) {
+      // Not representable in long cents, calculate the plan with BigDecimal.
+      monthlyRate = null;
+    }
+  }
+
+  private void advanceBigDecimal(BigDecimal initialPrincipal) {
+    BigDecimal calculateInterest = calculateInterest(initialPrincipal);
+    BigDecimal calculatedPrincipal = calculatePrincipal(calculateInterest, initialPrincipal);
+    sanityCheckAndUpdateRepayment(calculateInterest, calculatedPrincipal, initialPrincipal);
+  }
+
+  private void advanceFixedPoint() {
+    long initialPrincipal = remainingOutstandingPrincipalInCents;
+    long calculateInterest =
+        FixedPointInterestCalculationUtil.calculateInterest(initialPrincipal, getPeriodRate());
+    long calculatedPrincipal =
+        calculateInterest > initialPrincipal
+            ? initialPrincipal
+            : Math.subtractExact(annuityInCents, calculateInterest);
+    if (calculatedPrincipal <= 0 && lastPeriod < 0) {
+      throw notAmortizing();
+    }
+    long remainingPrincipal = Math.subtractExact(initialPrincipal, calculatedPrincipal);
+    // Same as sanityCheckAndUpdateRepayment, a remainder below one principal is paid.
+    if (remainingPrincipal < calculatedPrincipal || period == lastPeriod) {
+      calculatedPrincipal = initialPrincipal;
+      remainingPrincipal = 0;
+    }
+    long paymentAmount = Math.addExact(calculateInterest, calculatedPrincipal);
+
+    interestInCents = calculateInterest;
+    principalInCents = calculatedPrincipal;
+    borrowerPaymentAmountInCents = paymentAmount;
+    initialOutstandingPrincipalInCents = initialPrincipal;
+    remainingOutstandingPrincipalInCents = remainingPrincipal;
+  }
+
+  private BigDecimal calculateInterest(BigDecimal outstandingPrincipal) {
+    if (dayFractions.isConstant()) {
+      return InterestCalculationUtil.calculateInterest(outstandingPrincipal, nominalRate);
+    }
+    return InterestCalculationUtil.calculateInterest(
+        outstandingPrincipal,
+        nominalRate,
+        dayFractions.getNumeratorDecimal(period),
+        dayFractions.getDenominatorDecimal());
+  }
+
+  private MonthlyRate getPeriodRate() {
+    if (periodRates == null) {
+      return monthlyRate;
+    }
+    return period < periodRates.length ? periodRates[period] : toPeriodRate(period);
+  }
+
+  private MonthlyRate toPeriodRate(int period) {
+    return FixedPointInterestCalculationUtil.toPeriodRate(
+        nominalRate, dayFractions.getNumerator(period), dayFractions.getDenominator());
+  }
+
+  private BigDecimal calculatePrincipal(
+      BigDecimal calculateInterest, BigDecimal initialOutstandingPrincipal) {
+    BigDecimal principal = evaluatePrincipal(calculateInterest, initialOutstandingPrincipal);
+    if (principal.compareTo(BigDecimal.ZERO) <= 0 && lastPeriod < 0) {
+      throw notAmortizing();
+    }
+    return principal;
+  }
+
+  private BigDecimal evaluatePrincipal(
+      BigDecimal calculatedInterest, BigDecimal initialOutstandingPrincipal) {
+    BigDecimal principal = annuity.subtract(calculatedInterest);
+    return calculatedInterest.compareTo(initialOutstandingPrincipal) > 0
+        ? initialOutstandingPrincipal
+        : principal;
+  }
+
+  private void sanityCheckAndUpdateRepayment(
+      BigDecimal calculateInterest, BigDecimal calculatedPrincipal, BigDecimal initialPrincipal) {
+    BigDecimal paymentAmount = calculateInterest.add(calculatedPrincipal);
+    BigDecimal remainingPrincipal = initialPrincipal.subtract(calculatedPrincipal);
+
+    if (remainingPrincipal.compareTo(BigDecimal.ZERO) <= 0 || period == lastPeriod) {
+      // The final repayment, it pays the remainder.
+      calculatedPrincipal = calculatedPrincipal.add(remainingPrincipal);
+      paymentAmount = paymentAmount.add(remainingPrincipal);
+      remainingPrincipal = BigDecimal.ZERO;
+    }
+
+    BigDecimal diffPrincipal = remainingPrincipal.subtract(calculatedPrincipal);
+
+    if (diffPrincipal.compareTo(BigDecimal.ZERO) < 0) {
+      calculatedPrincipal = calculatedPrincipal.add(remainingPrincipal);
+      paymentAmount = calculateInterest.add(calculatedPrincipal);
+      remainingPrincipal = BigDecimal.ZERO;
+    }
+
+    interest = calculateInterest;
+    principal = calculatedPrincipal;
+    borrowerPaymentAmount = paymentAmount;
+    initialOutstandingPrincipal = initialPrincipal;
+    remainingOutstandingPrincipal = remainingPrincipal;
+  }
+
+  private static BigDecimal toNominalRate(BigDecimal nominalRateInPercent) {
+    return nominalRateInPercent.divide(new BigDecimal(100), 20, RoundingMode.HALF_DOWN);
+  }
+
+  private static boolean isOutstanding(BigDecimal outstandingPrincipal) {
+    return outstandingPrincipal.compareTo(BigDecimal.ZERO) > 0;
+  }
+
+  private static ValidationException notAmortizing() {
+    // The outstanding principal would never decrease, so the plan could not terminate.
+    return new ValidationException(
+        "Invalid Loan Request. Annuity does not cover the monthly interest.");
+  }
+
+  /** Number and amounts of repayments added up by {@link #sumRemaining()}. */
+  @Value
+  public static class RepaymentTotals {
+    int numberOfRepayments;
+    BigDecimal totalInterest;
+    BigDecimal totalBorrowerPaymentAmount;
+  }
+}
@@ -0,0 +1,121 @@
+package com.loan.loanservice.service;
+
+import com.loan.loanservice.domain.BatchLoanPlanLine;
+import com.loan.loanservice.domain.LoanPlanResult;
+import com.loan.loanservice.domain.LoanRequest;
+import com.loan.loanservice.domain.MonthlyRepayment;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+import javax.validation.ValidationException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+@Service
+@RequiredArgsConstructor
+public class BatchLoanPlanService {
+
+  private final LoanPlanGeneratorService loanPlanGeneratorService;
+  private final LoanRequestValidator loanRequestValidator;
+  private final ForkJoinPool batchComputationPool;
+
+  /**
+   * Generates the loan plans of all requests in parallel. Results are in the order of the requests
+   * and invalid requests are reported in their result instead of failing the whole batch.
+   */
+  public List<LoanPlanResult> generateLoanPlans(List<LoanRequest> loanRequests) {
+    List<CompletableFuture<LoanPlanResult>> futures = new ArrayList<>(loanRequests.size());
+    for (LoanRequest loanRequest : loanRequests) {
+      futures.add(
+          CompletableFuture.supplyAsync(() -> generateLoanPlan(loanRequest), batchComputationPool));
+    }
+
+    List<LoanPlanResult> loanPlanResults = new ArrayList<>(futures.size());
+    for (CompletableFuture<LoanPlanResult> future : futures) {
+      loanPlanResults.add(join(future));
+    }
+    return loanPlanResults;
+  }
+
+  /**
+   * Generates the loan plans one after the other and passes on every repayment as soon as it is
+   * calculated, so no plan is held in memory. Invalid requests are passed on as one line with their
+   * errors.
+   */
+  public void streamLoanPlans(
+      List<LoanRequest> loanRequests, Consumer<BatchLoanPlanLine> batchLoanPlanLineConsumer) {
+    for (int index = 0; index < loanRequests.size(); index++) {
+      iterateLoanPlanLines(index, loanRequests.get(index))
+          .forEachRemaining(batchLoanPlanLineConsumer);
+    }
+  }
+
+  /**
+   * Lines of one request of a streamed batch, one per repayment calculated while iterating, or a
+   * single line with the errors of an invalid request.
+   */
+  public Iterator<BatchLoanPlanLine> iterateLoanPlanLines(int index, LoanRequest loanRequest) {
+    List<String> errors = validate(loanRequest);
+    if (errors.isEmpty()) {
+      try {
+        Iterator<MonthlyRepayment> repayments =
+            loanPlanGeneratorService.iterateValidatedLoanPlan(loanRequest);
+        return new Iterator<BatchLoanPlanLine>() {
+          @Override
+          public boolean hasNext() {
+            return repayments.hasNext();
+          }
+
+          @Override
+          public BatchLoanPlanLine next() {
+            return BatchLoanPlanLine.builder().index(index).repayment(repayments.next()).build();
+          }
+        };
+      } catch (ValidationException e) {
+        errors = Collections.singletonList(e.getMessage());
+      }
+    }
+    return Collections.singletonList(
+            BatchLoanPlanLine.builder().index(index).errors(errors).build())
+        .iterator();
+  }
+
+  /** Result of one request of a batch, with either its plan or its errors. */
+  public LoanPlanResult generateLoanPlan(LoanRequest loanRequest) {
+    List<String> errors = validate(loanRequest);
+    if (!errors.isEmpty()) {
+      return LoanPlanResult.builder().errors(errors).build();
+    }
+    try {
+      return LoanPlanResult.builder()
+          .plan(loanPlanGeneratorService.generateValidatedLoanPlan(loanRequest))
+          .build();
+    } catch (ValidationException e) {
+      return LoanPlanResult.builder().errors(Collections.singletonList(e.getMessage())).build();
+    }
+  }
+
+  /** Validation errors of the request, empty when it is valid. */
+  List<String> validate(LoanRequest loanRequest) {
+    if (loanRequest == null) {
+      return Collections.singletonList("Loan request must not null");
+    }
+    return loanRequestValidator.validate(loanRequest);
+  }
+
+  private LoanPlanResult join(CompletableFuture<LoanPlanResult> future) {
+    try {
+      return future.join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw e;
+    }
+  }
+}
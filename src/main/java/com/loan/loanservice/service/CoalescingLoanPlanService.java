@@ -0,0 +1,148 @@
+package com.loan.loanservice.service;
+
+import com.loan.loanservice.configuration.LoanServiceProperties;
+import com.loan.loanservice.domain.CalculationBackend;
+import com.loan.loanservice.domain.DayCountConvention;
+import com.loan.loanservice.domain.LoanRequest;
+import com.loan.loanservice.domain.MonthlyRepayment;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+import lombok.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Generates loan plans like {@link LoanPlanGeneratorService#generateLoanPlan(LoanRequest)} on the
+ * {@link PlanComputationExecutor}, but concurrent identical requests share one computation. Only
+ * the first request submits the computation, requests arriving while it is in flight get a future
+ * of the same computation and so the same (unmodifiable) plan or the same exception. Shared
+ * requests neither take a thread of the pool nor a place in its queue.
+ *
+ * <p>At most {@code loan.coalescing.maximum-in-flight} computations are tracked. When that many are
+ * in flight, further requests are calculated without being shared.
+ */
+@Service
+public class CoalescingLoanPlanService {
+
+  private final LoanPlanGeneratorService loanPlanGeneratorService;
+  private final PlanComputationExecutor planComputationExecutor;
+  private final InFlightLoanPlans inFlightPlans;
+  private final boolean enabled;
+  private final int maximumInFlight;
+
+  public CoalescingLoanPlanService(
+      LoanServiceProperties loanServiceProperties,
+      LoanPlanGeneratorService loanPlanGeneratorService,
+      PlanComputationExecutor planComputationExecutor,
+      InFlightLoanPlans inFlightPlans) {
+    LoanServiceProperties.Coalescing coalescing = loanServiceProperties.getCoalescing();
+    this.loanPlanGeneratorService = loanPlanGeneratorService;
+    this.planComputationExecutor = planComputationExecutor;
+    this.inFlightPlans = inFlightPlans;
+    this.enabled = coalescing.isEnabled();
+    this.maximumInFlight = coalescing.getMaximumInFlight();
+  }
+
+  /**
+   * Plan of the request, calculated on the pool or shared with an identical request in flight.
+   *
+   * @throws PlanComputationRejectedException when the computation had to be submitted, but the
+   *     pool and its queue are full
+   */
+  public CompletableFuture<List<MonthlyRepayment>> generateLoanPlan(LoanRequest loanRequest) {
+    if (!enabled) {
+      return submit(loanRequest);
+    }
+    // The request is mutable, the key is a copy of its attributes.
+    PlanRequestKey key = PlanRequestKey.of(loanRequest);
+    CompletableFuture<List<MonthlyRepayment>> inFlightPlan = inFlightPlans.get(key);
+    if (inFlightPlan == null) {
+      if (inFlightPlans.size() >= maximumInFlight) {
+        inFlightPlans.recordOverflowed();
+        return submit(loanRequest);
+      }
+      CompletableFuture<List<MonthlyRepayment>> plan = new CompletableFuture<>();
+      inFlightPlan = inFlightPlans.putIfAbsent(key, plan);
+      if (inFlightPlan == null) {
+        computeLoanPlan(loanRequest, key, plan);
+        return share(plan);
+      }
+    }
+    inFlightPlans.recordCoalesced();
+    return share(inFlightPlan);
+  }
+
+  /** Number of computations in flight. */
+  public int inFlight() {
+    return inFlightPlans.size();
+  }
+
+  long coalescedCount() {
+    return inFlightPlans.coalescedCount();
+  }
+
+  long overflowedCount() {
+    return inFlightPlans.overflowedCount();
+  }
+
+  private CompletableFuture<List<MonthlyRepayment>> submit(LoanRequest loanRequest) {
+    return planComputationExecutor.submit(
+        () -> loanPlanGeneratorService.generateLoanPlan(loanRequest));
+  }
+
+  private void computeLoanPlan(
+      LoanRequest loanRequest,
+      PlanRequestKey key,
+      CompletableFuture<List<MonthlyRepayment>> plan) {
+    inFlightPlans.recordComputed();
+    CompletableFuture<List<MonthlyRepayment>> computation;
+    try {
+      computation = submit(loanRequest);
+    } catch (RuntimeException | Error e) {
+      // Rejected, or calculated on the calling thread and failed.
+      inFlightPlans.remove(key, plan);
+      plan.completeExceptionally(e);
+      throw e;
+    }
+    computation.whenComplete(
+        (monthlyRepayments, e) -> {
+          inFlightPlans.remove(key, plan);
+          if (e != null) {
+            // Complete with what the computation threw, e.g. a ValidationException.
+            plan.completeExceptionally(e instanceof CompletionException ? e.getCause() : e);
+          } else {
+            plan.complete(monthlyRepayments);
+          }
+        });
+  }
+
+  /** Future of the shared plan which the request can not complete or cancel for the others. */
+  private static CompletableFuture<List<MonthlyRepayment>> share(
+      CompletableFuture<List<MonthlyRepayment>> plan) {
+    return plan.thenApply(Function.identity());
+  }
+
+  /** Attributes of a request, all of them immutable. */
+  @Value
+  static class PlanRequestKey {
+    BigDecimal loanAmount;
+    BigDecimal nominalRate;
+    Integer durationInMonth;
+    LocalDateTime startDate;
+    CalculationBackend calculationBackend;
+    DayCountConvention dayCountConvention;
+
+    static PlanRequestKey of(LoanRequest loanRequest) {
+      return new PlanRequestKey(
+          loanRequest.getLoanAmount(),
+          loanRequest.getNominalRate(),
+          loanRequest.getDurationInMonth(),
+          loanRequest.getStartDate(),
+          loanRequest.getCalculationBackend(),
+          loanRequest.getDayCountConvention());
+    }
+  }
+}
@@ -0,0 +1,95 @@
+package com.loan.loanservice.service;
+
+import com.loan.loanservice.domain.MonthlyRepayment;
+import com.loan.loanservice.service.CoalescingLoanPlanService.PlanRequestKey;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import org.springframework.stereotype.Component;
+
+/**
+ * Plan computations of the {@link CoalescingLoanPlanService} which identical requests can share,
+ * and the meters of the coalescing.
+ *
+ * <p>Meter binders are bound while the meter registry is created, so they must not depend on beans
+ * using the registry. The coalescing service depends on the plan generation and its meters, hence
+ * its computations and counters are kept here.
+ */
+@Component
+public class InFlightLoanPlans implements MeterBinder {
+
+  private final Map<PlanRequestKey, CompletableFuture<List<MonthlyRepayment>>> plans =
+      new ConcurrentHashMap<>();
+  private final LongAdder computed = new LongAdder();
+  private final LongAdder coalesced = new LongAdder();
+  private final LongAdder overflowed = new LongAdder();
+
+  CompletableFuture<List<MonthlyRepayment>> get(PlanRequestKey key) {
+    return plans.get(key);
+  }
+
+  /** Tracks the computation unless one is in flight for the key already, which is returned. */
+  CompletableFuture<List<MonthlyRepayment>> putIfAbsent(
+      PlanRequestKey key, CompletableFuture<List<MonthlyRepayment>> plan) {
+    return plans.putIfAbsent(key, plan);
+  }
+
+  void remove(PlanRequestKey key, CompletableFuture<List<MonthlyRepayment>> plan) {
+    plans.remove(key, plan);
+  }
+
+  /** Number of computations in flight. */
+  int size() {
+    return plans.size();
+  }
+
+  void recordComputed() {
+    computed.increment();
+  }
+
+  void recordCoalesced() {
+    coalesced.increment();
+  }
+
+  void recordOverflowed() {
+    overflowed.increment();
+  }
+
+  long coalescedCount() {
+    return coalesced.sum();
+  }
+
+  long overflowedCount() {
+    return overflowed.sum();
+  }
+
+  /**
+   * Publishes the requests as {@code loan.plan.coalescing.requests} with the tag {@code
+   * result=computed}, {@code result=coalesced} or {@code result=overflowed} and the computations in
+   * flight as {@code loan.plan.coalescing.in.flight}.
+   */
+  @Override
+  public void bindTo(MeterRegistry meterRegistry) {
+    FunctionCounter.builder("loan.plan.coalescing.requests", computed, LongAdder::doubleValue)
+        .description("Plan requests by whether they shared the computation of another one")
+        .tag("result", "computed")
+        .register(meterRegistry);
+    FunctionCounter.builder("loan.plan.coalescing.requests", coalesced, LongAdder::doubleValue)
+        .description("Plan requests by whether they shared the computation of another one")
+        .tag("result", "coalesced")
+        .register(meterRegistry);
+    FunctionCounter.builder("loan.plan.coalescing.requests", overflowed, LongAdder::doubleValue)
+        .description("Plan requests by whether they shared the computation of another one")
+        .tag("result", "overflowed")
+        .register(meterRegistry);
+    Gauge.builder("loan.plan.coalescing.in.flight", plans, Map::size)
+        .description("Plan computations other requests can share")
+        .register(meterRegistry);
+  }
+}
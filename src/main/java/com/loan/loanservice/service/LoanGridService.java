@@ -0,0 +1,163 @@
+package com.loan.loanservice.service;
+
+import com.loan.loanservice.configuration.LoanServiceProperties;
+import com.loan.loanservice.domain.CalculationBackend;
+import com.loan.loanservice.domain.LoanGridCell;
+import com.loan.loanservice.domain.LoanGridRequest;
+import com.loan.loanservice.domain.LoanRequest;
+import com.loan.loanservice.service.AmortizationScheduleIterator.RepaymentTotals;
+import com.loan.loanservice.utils.DayCount;
+import com.loan.loanservice.utils.DayFractions;
+import com.loan.loanservice.utils.InterestCalculationUtil;
+import com.loan.loanservice.utils.RatePowerUtil;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
+import javax.validation.ValidationException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+@Service
+@RequiredArgsConstructor
+public class LoanGridService {
+
+  private final LoanServiceProperties loanServiceProperties;
+  private final LoanPlanMetrics loanPlanMetrics;
+  private final ForkJoinPool batchComputationPool;
+
+  /**
+   * Summaries, and plans if requested, of every combination of the rates, durations and amounts,
+   * ordered by rate, then duration, then amount. The rates are calculated in parallel. The discount
+   * factors of one rate are derived from each other and its annuity factors are shared by all
+   * amounts. With a day count depending on the start date the present value factors of the periods
+   * are shared instead. Cells without a plan are reported with their errors.
+   */
+  public List<LoanGridCell> generateLoanGrid(LoanGridRequest gridRequest) {
+    int[] durations =
+        gridRequest.getDurationsInMonth().stream().mapToInt(Integer::intValue).sorted().toArray();
+    // The cells share the start date, so the day fractions of the longest duration cover all.
+    DayFractions dayFractions =
+        DayCount.of(gridRequest.getDayCountConvention())
+            .dayFractions(
+                gridRequest.getStartDate(),
+                durations.length > 0 ? durations[durations.length - 1] : 0);
+    List<CompletableFuture<List<LoanGridCell>>> futures =
+        new ArrayList<>(gridRequest.getNominalRates().size());
+    for (BigDecimal nominalRate : gridRequest.getNominalRates()) {
+      futures.add(
+          CompletableFuture.supplyAsync(
+              () -> generateCellsOfRate(gridRequest, nominalRate, durations, dayFractions),
+              batchComputationPool));
+    }
+
+    List<LoanGridCell> cells =
+        new ArrayList<>(
+            futures.size()
+                * gridRequest.getDurationsInMonth().size()
+                * gridRequest.getLoanAmounts().size());
+    for (CompletableFuture<List<LoanGridCell>> future : futures) {
+      cells.addAll(join(future));
+    }
+    return cells;
+  }
+
+  private List<LoanGridCell> generateCellsOfRate(
+      LoanGridRequest gridRequest,
+      BigDecimal nominalRate,
+      int[] durations,
+      DayFractions dayFractions) {
+    BigDecimal monthlyRate = InterestCalculationUtil.calculateMonthlyRate(nominalRate);
+    BigDecimal[] discountFactors = null;
+    BigDecimal[] presentValueFactors = null;
+    if (dayFractions.isConstant()) {
+      discountFactors = RatePowerUtil.calculateDiscountFactors(monthlyRate, durations);
+    } else {
+      presentValueFactors =
+          InterestCalculationUtil.calculatePresentValueFactors(
+              nominalRate, dayFractions, 0, durations);
+    }
+
+    List<LoanGridCell> cells =
+        new ArrayList<>(
+            gridRequest.getDurationsInMonth().size() * gridRequest.getLoanAmounts().size());
+    for (Integer duration : gridRequest.getDurationsInMonth()) {
+      int index = Arrays.binarySearch(durations, duration);
+      double annuityFactor =
+          discountFactors != null
+              ? InterestCalculationUtil.calculateAnnuityFactor(monthlyRate, discountFactors[index])
+              : 0;
+      for (BigDecimal loanAmount : gridRequest.getLoanAmounts()) {
+        LoanRequest loanRequest =
+            LoanRequest.builder()
+                .nominalRate(nominalRate)
+                .durationInMonth(duration)
+                .loanAmount(loanAmount)
+                .startDate(gridRequest.getStartDate())
+                .calculationBackend(gridRequest.getCalculationBackend())
+                .dayCountConvention(gridRequest.getDayCountConvention())
+                .build();
+        BigDecimal annuity =
+            discountFactors != null
+                ? InterestCalculationUtil.calculateAnnuity(
+                    loanAmount, monthlyRate, discountFactors[index], annuityFactor)
+                : InterestCalculationUtil.calculateAnnuity(
+                    loanAmount, presentValueFactors[index]);
+        cells.add(generateCell(loanRequest, annuity, gridRequest.isIncludePlans()));
+      }
+    }
+    return cells;
+  }
+
+  private LoanGridCell generateCell(
+      LoanRequest loanRequest, BigDecimal annuity, boolean includePlan) {
+    LoanGridCell.LoanGridCellBuilder cell =
+        LoanGridCell.builder()
+            .nominalRate(loanRequest.getNominalRate())
+            .durationInMonth(loanRequest.getDurationInMonth())
+            .loanAmount(loanRequest.getLoanAmount());
+    AmortizationScheduleIterator scheduleIterator;
+    try {
+      scheduleIterator =
+          new AmortizationScheduleIterator(
+              loanRequest, annuity, getCalculationBackend(loanRequest));
+    } catch (ValidationException e) {
+      loanPlanMetrics.getInvalidPlanCounter().increment();
+      return cell.errors(Collections.singletonList(e.getMessage())).build();
+    }
+
+    RepaymentTotals repaymentTotals;
+    if (includePlan) {
+      RepaymentSchedule schedule = scheduleIterator.scheduleRemaining();
+      repaymentTotals = schedule.sum();
+      cell.plan(schedule.toRepayments(loanRequest.getStartDate()));
+    } else {
+      repaymentTotals = scheduleIterator.sumRemaining();
+    }
+    return cell.summary(
+            LoanPlanGeneratorService.summarize(
+                annuity, repaymentTotals, loanRequest.getStartDate()))
+        .build();
+  }
+
+  private CalculationBackend getCalculationBackend(LoanRequest loanRequest) {
+    return loanRequest.getCalculationBackend() != null
+        ? loanRequest.getCalculationBackend()
+        : loanServiceProperties.getCalculationBackend();
+  }
+
+  private static List<LoanGridCell> join(CompletableFuture<List<LoanGridCell>> future) {
+    try {
+      return future.join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw e;
+    }
+  }
+}
@@ -0,0 +1,104 @@
+package com.loan.loanservice.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.loan.loanservice.configuration.LoanServiceProperties;
+import com.loan.loanservice.domain.LoanRequest;
+import com.loan.loanservice.utils.DayCount;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.function.Function;
+import lombok.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Size and time bounded cache of loan plan templates, keyed by the request attributes their amounts
+ * depend on. With 30/360 days requests which only differ in their start date share one template.
+ * With actual days the day count and the start date are part of the key, so every start date and
+ * convention has its own template. Templates are shared between callers and are never modified.
+ */
+@Component
+public class LoanPlanCache implements MeterBinder {
+
+  private final Cache<LoanPlanKey, LoanPlanTemplate> cache;
+
+  public LoanPlanCache(LoanServiceProperties loanServiceProperties) {
+    LoanServiceProperties.PlanCache planCache = loanServiceProperties.getPlanCache();
+    this.cache =
+        planCache.isEnabled()
+            ? Caffeine.newBuilder()
+                .maximumSize(planCache.getMaximumSize())
+                .expireAfterWrite(planCache.getTimeToLive())
+                .recordStats()
+                .build()
+            : null;
+  }
+
+  public LoanPlanTemplate get(
+      LoanRequest loanRequest, Function<LoanRequest, LoanPlanTemplate> templateGenerator) {
+    if (cache == null) {
+      return templateGenerator.apply(loanRequest);
+    }
+    return cache.get(LoanPlanKey.of(loanRequest), key -> templateGenerator.apply(loanRequest));
+  }
+
+  /** Cached template for the request, {@code null} when there is none. */
+  public LoanPlanTemplate getIfPresent(LoanRequest loanRequest) {
+    return cache != null ? cache.getIfPresent(LoanPlanKey.of(loanRequest)) : null;
+  }
+
+  public boolean isEnabled() {
+    return cache != null;
+  }
+
+  /** Hit, miss and eviction statistics, empty when the cache is disabled. */
+  public CacheStats stats() {
+    return cache != null ? cache.stats() : CacheStats.empty();
+  }
+
+  /**
+   * Publishes the cache statistics as {@code cache.*} meters with the tag {@code cache=loanPlans}.
+   */
+  @Override
+  public void bindTo(MeterRegistry meterRegistry) {
+    if (cache != null) {
+      CaffeineCacheMetrics.monitor(meterRegistry, cache, "loanPlans");
+    }
+  }
+
+  /** Performs pending evictions, which are otherwise done asynchronously. */
+  void cleanUp() {
+    if (cache != null) {
+      cache.cleanUp();
+    }
+  }
+
+  /**
+   * Request attributes the amounts of a plan depend on. The nominal rate is only used divided by
+   * 100 at a fixed scale, so its trailing zeros are irrelevant. The loan amount is returned as is
+   * in the first repayment and is therefore kept with its scale. The start date is only part of the
+   * key when the day count convention counts actual days.
+   */
+  @Value
+  static class LoanPlanKey {
+    BigDecimal loanAmount;
+    BigDecimal nominalRate;
+    int durationInMonth;
+    DayCount dayCount;
+    LocalDate startDate;
+
+    static LoanPlanKey of(LoanRequest loanRequest) {
+      DayCount dayCount = DayCount.of(loanRequest.getDayCountConvention());
+      return new LoanPlanKey(
+          loanRequest.getLoanAmount(),
+          loanRequest.getNominalRate().stripTrailingZeros(),
+          loanRequest.getDurationInMonth(),
+          dayCount,
+          dayCount.dependsOnStartDate() ? loanRequest.getStartDate().toLocalDate() : null);
+    }
+  }
+}
@@ -1,47 +1,207 @@
 package com.loan.loanservice.service;
 
+import com.loan.loanservice.configuration.LoanServiceProperties;
+import com.loan.loanservice.domain.CalculationBackend;
+import com.loan.loanservice.domain.LoanPlanSummary;
 import com.loan.loanservice.domain.LoanRequest;
 import com.loan.loanservice.domain.MonthlyRepayment;
-import com.loan.loanservice.utils.InterestCalculationUtil;
+import com.loan.loanservice.service.AmortizationScheduleIterator.RepaymentTotals;
+import com.loan.loanservice.utils.RepaymentDateUtil;
 import java.math.BigDecimal;
-import java.math.RoundingMode;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 import javax.validation.ValidationException;
+import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
 @Service
+@RequiredArgsConstructor
 public class LoanPlanGeneratorService {
 
+  private static final int REPAYMENT_CHARACTERISTICS =
+      Spliterator.ORDERED | Spliterator.NONNULL | Spliterator.IMMUTABLE;
+
+  private final LoanServiceProperties loanServiceProperties;
+  private final LoanPlanCache loanPlanCache;
+  private final LoanPlanMetrics loanPlanMetrics;
+  private final RateCardIndex rateCardIndex;
+
   public List<MonthlyRepayment> generateLoanPlan(LoanRequest loanRequest) {
     sanityCheckLoanRequest(loanRequest);
-    List<MonthlyRepayment> monthlyRepaymentList = new ArrayList<>();
-
-    BigDecimal annuity = InterestCalculationUtil.calculateAnnuity(loanRequest);
-    BigDecimal loanAmount = loanRequest.getLoanAmount();
-    BigDecimal nominalInterestRate = getNominalRate(loanRequest);
-    BigDecimal calculatedInterest =
-        InterestCalculationUtil.calculateInterest(loanAmount, nominalInterestRate);
-    BigDecimal principal = evaluatePrincipal(annuity, calculatedInterest, loanAmount);
-
-    MonthlyRepayment firstMonthlyRepayment =
-        MonthlyRepayment.builder()
-            .borrowerPaymentAmount(principal.add(calculatedInterest))
-            .date(loanRequest.getStartDate())
-            .initialOutstandingPrincipal(loanAmount)
-            .interest(calculatedInterest)
-            .principal(principal)
-            .remainingOutstandingPrincipal(loanAmount.subtract(principal))
-            .build();
-
-    monthlyRepaymentList.add(firstMonthlyRepayment);
-
-    generateMonthlyRepayments(
-        monthlyRepaymentList, firstMonthlyRepayment, nominalInterestRate, annuity);
+    return generateValidatedLoanPlan(loanRequest);
+  }
+
+  /**
+   * Like {@link #generateLoanPlan(LoanRequest)} for requests which passed the {@link
+   * LoanRequestValidator}, without checking the mandatory attributes again.
+   */
+  public List<MonthlyRepayment> generateValidatedLoanPlan(LoanRequest loanRequest) {
+    List<MonthlyRepayment> monthlyRepayments =
+        loanPlanCache
+            .get(loanRequest, this::calculateLoanPlanTemplate)
+            .project(loanRequest.getStartDate());
+    loanPlanMetrics.getPlanLengthSummary().record(monthlyRepayments.size());
+    return monthlyRepayments;
+  }
+
+  /** Template of the loan plan, the cached one if present, otherwise calculated and cached. */
+  public LoanPlanTemplate getLoanPlanTemplate(LoanRequest loanRequest) {
+    sanityCheckLoanRequest(loanRequest);
+    return loanPlanCache.get(loanRequest, this::calculateLoanPlanTemplate);
+  }
+
+  /**
+   * Iterates the loan plan, calculating one repayment at a time unless the plan is cached. Plans
+   * calculated this way are not added to the cache. Requests whose plan can not be generated fail
+   * here rather than while iterating.
+   */
+  public Iterator<MonthlyRepayment> iterateLoanPlan(LoanRequest loanRequest) {
+    sanityCheckLoanRequest(loanRequest);
+    return iterateValidatedLoanPlan(loanRequest);
+  }
+
+  /**
+   * Like {@link #iterateLoanPlan(LoanRequest)} for requests which passed the {@link
+   * LoanRequestValidator}, without checking the mandatory attributes again.
+   */
+  public Iterator<MonthlyRepayment> iterateValidatedLoanPlan(LoanRequest loanRequest) {
+    LoanPlanTemplate loanPlanTemplate = loanPlanCache.getIfPresent(loanRequest);
+    return loanPlanTemplate != null
+        ? loanPlanTemplate.iterator(0, loanRequest.getStartDate())
+        : new DatedRepaymentIterator(
+            createScheduleIterator(loanRequest), loanRequest.getStartDate());
+  }
+
+  /**
+   * Streams the loan plan, calculating each repayment when the stream pulls it unless the plan is
+   * cached. The plan is never held as a whole, short-circuiting operations like {@code
+   * filter(...).findFirst()} stop calculating at the first match. The stream is sequential, every
+   * repayment depends on the previous one. Plans calculated this way are not added to the cache.
+   * Requests whose plan can not be generated fail here rather than while streaming.
+   */
+  public Stream<MonthlyRepayment> streamLoanPlan(LoanRequest loanRequest) {
+    sanityCheckLoanRequest(loanRequest);
+    LoanPlanTemplate loanPlanTemplate = loanPlanCache.getIfPresent(loanRequest);
+    Spliterator<MonthlyRepayment> repayments =
+        loanPlanTemplate != null
+            ? Spliterators.spliterator(
+                loanPlanTemplate.iterator(0, loanRequest.getStartDate()),
+                loanPlanTemplate.size(),
+                REPAYMENT_CHARACTERISTICS)
+            : new RepaymentSpliterator(
+                new DatedRepaymentIterator(
+                    createScheduleIterator(loanRequest), loanRequest.getStartDate()),
+                loanRequest.getDurationInMonth());
+    return StreamSupport.stream(repayments, false);
+  }
 
+  /**
+   * Repayments {@code offset} (0 based) to {@code offset + limit - 1} of the loan plan, fewer or
+   * none when the plan ends before. Unless the plan is cached the earlier repayments are calculated
+   * without creating them, and the plan is not added to the cache.
+   */
+  public List<MonthlyRepayment> generateLoanPlan(LoanRequest loanRequest, int offset, int limit) {
+    sanityCheckLoanRequest(loanRequest);
+    LoanPlanTemplate loanPlanTemplate = loanPlanCache.getIfPresent(loanRequest);
+    Iterator<MonthlyRepayment> datedRepayments;
+    if (loanPlanTemplate != null) {
+      if (offset >= loanPlanTemplate.size()) {
+        return Collections.emptyList();
+      }
+      datedRepayments =
+          loanPlanTemplate.iterator(
+              offset, RepaymentDateUtil.repaymentDate(loanRequest.getStartDate(), offset));
+    } else {
+      AmortizationScheduleIterator scheduleIterator = createScheduleIterator(loanRequest);
+      if (scheduleIterator.skip(offset) < offset || !scheduleIterator.hasNext()) {
+        return Collections.emptyList();
+      }
+      datedRepayments =
+          new DatedRepaymentIterator(
+              scheduleIterator,
+              RepaymentDateUtil.repaymentDate(loanRequest.getStartDate(), offset));
+    }
+    List<MonthlyRepayment> monthlyRepaymentList =
+        new ArrayList<>(Math.min(limit, Math.max(1, loanRequest.getDurationInMonth())));
+    while (monthlyRepaymentList.size() < limit && datedRepayments.hasNext()) {
+      monthlyRepaymentList.add(datedRepayments.next());
+    }
     return monthlyRepaymentList;
   }
 
+  /**
+   * Repayment schedule of the loan plan, the cached one if present. Plans calculated this way are
+   * not added to the cache.
+   */
+  public RepaymentSchedule scheduleLoanPlan(LoanRequest loanRequest) {
+    sanityCheckLoanRequest(loanRequest);
+    LoanPlanTemplate loanPlanTemplate = loanPlanCache.getIfPresent(loanRequest);
+    if (loanPlanTemplate != null) {
+      return loanPlanTemplate.getSchedule();
+    }
+    AmortizationScheduleIterator scheduleIterator = createScheduleIterator(loanRequest);
+    return loanPlanMetrics.getScheduleTimer().record(scheduleIterator::scheduleRemaining);
+  }
+
+  /**
+   * Summary of the loan plan. Unless the plan is cached the repayments are calculated without
+   * creating them, and the plan is not added to the cache.
+   */
+  public LoanPlanSummary summarizeLoanPlan(LoanRequest loanRequest) {
+    sanityCheckLoanRequest(loanRequest);
+    LoanPlanTemplate loanPlanTemplate = loanPlanCache.getIfPresent(loanRequest);
+    BigDecimal annuity;
+    RepaymentTotals repaymentTotals;
+    if (loanPlanTemplate != null) {
+      annuity = rateCardIndex.calculateAnnuity(loanRequest);
+      repaymentTotals = loanPlanTemplate.getSchedule().sum();
+    } else {
+      AmortizationScheduleIterator scheduleIterator = createScheduleIterator(loanRequest);
+      annuity = scheduleIterator.getAnnuity();
+      repaymentTotals = scheduleIterator.sumRemaining();
+    }
+
+    return summarize(annuity, repaymentTotals, loanRequest.getStartDate());
+  }
+
+  static LoanPlanSummary summarize(
+      BigDecimal annuity, RepaymentTotals repaymentTotals, LocalDateTime startDate) {
+    return LoanPlanSummary.builder()
+        .annuity(annuity)
+        .numberOfRepayments(repaymentTotals.getNumberOfRepayments())
+        .totalInterest(repaymentTotals.getTotalInterest())
+        .totalBorrowerPaymentAmount(repaymentTotals.getTotalBorrowerPaymentAmount())
+        .finalRepaymentDate(
+            RepaymentDateUtil.repaymentDate(startDate, repaymentTotals.getNumberOfRepayments() - 1))
+        .build();
+  }
+
+  private LoanPlanTemplate calculateLoanPlanTemplate(LoanRequest loanRequest) {
+    AmortizationScheduleIterator scheduleIterator = createScheduleIterator(loanRequest);
+    return new LoanPlanTemplate(
+        loanPlanMetrics.getScheduleTimer().record(scheduleIterator::scheduleRemaining));
+  }
+
+  private AmortizationScheduleIterator createScheduleIterator(LoanRequest loanRequest) {
+    BigDecimal annuity =
+        loanPlanMetrics.getAnnuityTimer().record(() -> rateCardIndex.calculateAnnuity(loanRequest));
+    try {
+      return new AmortizationScheduleIterator(
+          loanRequest, annuity, getCalculationBackend(loanRequest));
+    } catch (ValidationException e) {
+      loanPlanMetrics.getInvalidPlanCounter().increment();
+      throw e;
+    }
+  }
+
   private void sanityCheckLoanRequest(LoanRequest loanRequest) {
     if (loanRequest.getNominalRate() != null
         && loanRequest.getDurationInMonth() != null
@@ -49,75 +209,72 @@ public class LoanPlanGeneratorService {
         && loanRequest.getStartDate() != null) {
       return;
     }
+    loanPlanMetrics.getConstraintViolationCounter().increment();
     throw new ValidationException(
         "Invalid Loan Request. One or more mandatory parameters are null.");
   }
 
-  private BigDecimal getNominalRate(LoanRequest loanRequest) {
-    return loanRequest.getNominalRate().divide(new BigDecimal(100), 20, RoundingMode.HALF_DOWN);
+  private CalculationBackend getCalculationBackend(LoanRequest loanRequest) {
+    return loanRequest.getCalculationBackend() != null
+        ? loanRequest.getCalculationBackend()
+        : loanServiceProperties.getCalculationBackend();
   }
 
-  private void generateMonthlyRepayments(
-      List<MonthlyRepayment> monthlyRepaymentList,
-      MonthlyRepayment payment,
-      BigDecimal nominalRate,
-      BigDecimal annuity) {
-    if (payment.getRemainingOutstandingPrincipal().compareTo(BigDecimal.ZERO) > 0) {
-      BigDecimal initialOutstandingPrincipal = payment.getRemainingOutstandingPrincipal();
-      BigDecimal calculateInterest =
-          InterestCalculationUtil.calculateInterest(initialOutstandingPrincipal, nominalRate);
-      BigDecimal principal =
-          evaluatePrincipal(annuity, calculateInterest, initialOutstandingPrincipal);
-      BigDecimal borrowerPaymentAmount = calculateInterest.add(principal);
+  /** Dates calculated repayments like {@link LoanPlanTemplate#iterator(int, LocalDateTime)}. */
+  private static class DatedRepaymentIterator implements Iterator<MonthlyRepayment> {
 
-      MonthlyRepayment newMonthlyPayment =
-          MonthlyRepayment.builder()
-              .date(payment.getDate().plusMonths(1))
-              .interest(calculateInterest)
-              .initialOutstandingPrincipal(initialOutstandingPrincipal)
-              .borrowerPaymentAmount(borrowerPaymentAmount)
-              .remainingOutstandingPrincipal(initialOutstandingPrincipal.subtract(principal))
-              .build();
+    private final AmortizationScheduleIterator repayments;
+    private LocalDateTime date;
 
-      sanityCheckAndUpdatePrincipal(calculateInterest, principal, newMonthlyPayment);
+    DatedRepaymentIterator(AmortizationScheduleIterator repayments, LocalDateTime startDate) {
+      this.repayments = repayments;
+      this.date = startDate;
+    }
 
-      monthlyRepaymentList.add(newMonthlyPayment);
+    @Override
+    public boolean hasNext() {
+      return repayments.hasNext();
+    }
 
-      generateMonthlyRepayments(monthlyRepaymentList, newMonthlyPayment, nominalRate, annuity);
+    @Override
+    public MonthlyRepayment next() {
+      MonthlyRepayment repayment = repayments.next(date);
+      date = date.plusMonths(1);
+      return repayment;
     }
   }
 
-  private BigDecimal evaluatePrincipal(
-      BigDecimal annuity, BigDecimal calculatedInterest, BigDecimal initialOutstandingPrincipal) {
-    BigDecimal principal = annuity.subtract(calculatedInterest);
-    return calculatedInterest.compareTo(initialOutstandingPrincipal) > 0
-        ? initialOutstandingPrincipal
-        : principal;
-  }
+  /**
+   * Repayments calculated one at a time, the duration of the request is only an estimate of their
+   * number. Never splits, a repayment can not be calculated before the previous one.
+   */
+  private static class RepaymentSpliterator
+      extends Spliterators.AbstractSpliterator<MonthlyRepayment> {
 
-  private void sanityCheckAndUpdatePrincipal(
-      BigDecimal calculateInterest, BigDecimal principal, MonthlyRepayment newMonthlyPayment) {
-    BigDecimal remainingOutstandingPrincipal =
-        newMonthlyPayment.getInitialOutstandingPrincipal().subtract(principal);
+    private final Iterator<MonthlyRepayment> repayments;
 
-    if (remainingOutstandingPrincipal.compareTo(BigDecimal.ZERO) <= 0) {
-      principal = principal.add(newMonthlyPayment.getRemainingOutstandingPrincipal());
-      newMonthlyPayment.setBorrowerPaymentAmount(
-          newMonthlyPayment
-              .getBorrowerPaymentAmount()
-              .add(newMonthlyPayment.getRemainingOutstandingPrincipal()));
-      newMonthlyPayment.setRemainingOutstandingPrincipal(BigDecimal.ZERO);
+    RepaymentSpliterator(Iterator<MonthlyRepayment> repayments, long estimatedSize) {
+      super(estimatedSize, REPAYMENT_CHARACTERISTICS);
+      this.repayments = repayments;
     }
 
-    BigDecimal diffPrincipal =
-        newMonthlyPayment.getRemainingOutstandingPrincipal().subtract(principal);
+    @Override
+    public boolean tryAdvance(Consumer<? super MonthlyRepayment> action) {
+      if (!repayments.hasNext()) {
+        return false;
+      }
+      action.accept(repayments.next());
+      return true;
+    }
 
-    if (diffPrincipal.compareTo(BigDecimal.ZERO) < 0) {
-      principal = principal.add(newMonthlyPayment.getRemainingOutstandingPrincipal());
-      newMonthlyPayment.setBorrowerPaymentAmount(calculateInterest.add(principal));
-      newMonthlyPayment.setRemainingOutstandingPrincipal(BigDecimal.ZERO);
+    @Override
+    public void forEachRemaining(Consumer<? super MonthlyRepayment> action) {
+      repayments.forEachRemaining(action);
     }
 
-    newMonthlyPayment.setPrincipal(principal);
+    @Override
+    public Spliterator<MonthlyRepayment> trySplit() {
+      return null;
+    }
   }
 }
@@ -0,0 +1,74 @@
+package com.loan.loanservice.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.AccessLevel;
+import lombok.Getter;
+import org.springframework.stereotype.Component;
+
+/**
+ * Meters of the loan plan generation. Timers publish percentile histograms so that latency
+ * percentiles can be aggregated by the monitoring system.
+ */
+@Getter
+@Component
+public class LoanPlanMetrics {
+
+  /** Bean Validation of requests. */
+  private final Timer validationTimer;
+
+  /** Calculation of the annuity. */
+  private final Timer annuityTimer;
+
+  /** Calculation of the repayments, excluding the annuity. */
+  private final Timer scheduleTimer;
+
+  /** Requests rejected by Bean Validation. */
+  private final Counter constraintViolationCounter;
+
+  /** Requests rejected because no plan can be generated for them. */
+  private final Counter invalidPlanCounter;
+
+  /** Number of repayments of generated plans. */
+  private final DistributionSummary planLengthSummary;
+
+  @Getter(AccessLevel.NONE)
+  private final MeterRegistry meterRegistry;
+
+  public LoanPlanMetrics(MeterRegistry meterRegistry) {
+    this.meterRegistry = meterRegistry;
+    this.validationTimer = timer("loan.plan.validation", meterRegistry);
+    this.annuityTimer = timer("loan.plan.annuity", meterRegistry);
+    this.scheduleTimer = timer("loan.plan.schedule", meterRegistry);
+    this.constraintViolationCounter =
+        Counter.builder("loan.plan.validation.failures")
+            .description("Rejected loan requests")
+            .tag("reason", "constraint-violation")
+            .register(meterRegistry);
+    this.invalidPlanCounter =
+        Counter.builder("loan.plan.validation.failures")
+            .description("Rejected loan requests")
+            .tag("reason", "invalid-plan")
+            .register(meterRegistry);
+    this.planLengthSummary =
+        DistributionSummary.builder("loan.plan.length")
+            .description("Number of repayments of generated loan plans")
+            .baseUnit("repayments")
+            .publishPercentileHistogram()
+            .register(meterRegistry);
+  }
+
+  /** Serialization of responses in the given format, e.g. {@code json}. */
+  public Timer serializationTimer(String format) {
+    return Timer.builder("loan.plan.serialization")
+        .tag("format", format)
+        .publishPercentileHistogram()
+        .register(meterRegistry);
+  }
+
+  private static Timer timer(String name, MeterRegistry meterRegistry) {
+    return Timer.builder(name).publishPercentileHistogram().register(meterRegistry);
+  }
+}
@@ -0,0 +1,276 @@
+package com.loan.loanservice.service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.loan.loanservice.configuration.LoanServiceProperties;
+import com.loan.loanservice.domain.MonthlyRepayment;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import javax.annotation.PreDestroy;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+/**
+ * Optional store of generated loan plans, enabled with {@code loan.plan-store.enabled}. Every
+ * stored plan gets a random ID and is written as {@code <id>.json} to {@code
+ * loan.plan-store.directory}.
+ *
+ * <p>Plans are written behind: {@link #store(List)} only queues the plan, a single writer thread
+ * writes the queued plans every {@code loan.plan-store.flush-interval}, each to its own file. Queued
+ * plans are found by {@link #find(String)} until they are written. When {@code
+ * loan.plan-store.maximum-pending} plans are queued further plans are dropped instead of slowing
+ * down the caller. A plan which could not be written stays pending and is written again with the
+ * next flush, it is only given up after {@code loan.plan-store.maximum-attempts} attempts.
+ *
+ * <p>Written plans are kept for {@code loan.plan-store.retention} after they were written. Older
+ * plans are no longer found and are deleted by the writer thread every {@link #CLEANUP_INTERVAL}.
+ */
+@Slf4j
+@Component
+public class LoanPlanStore implements MeterBinder {
+
+  private static final String FILE_SUFFIX = ".json";
+  static final Duration CLEANUP_INTERVAL = Duration.ofMinutes(1);
+  private static final TypeReference<List<MonthlyRepayment>> PLAN_TYPE =
+      new TypeReference<List<MonthlyRepayment>>() {};
+
+  private final ObjectMapper objectMapper;
+  private final Path directory;
+  private final int maximumAttempts;
+  private final Duration retention;
+  private final BlockingQueue<StoredPlan> queue;
+  private final Map<String, List<MonthlyRepayment>> pendingPlans = new ConcurrentHashMap<>();
+  // Plans to be written again, only used while flushing.
+  private final List<StoredPlan> retries = new ArrayList<>();
+  private final ScheduledExecutorService writer;
+  private final LongAdder written = new LongAdder();
+  private final LongAdder dropped = new LongAdder();
+  private final LongAdder failed = new LongAdder();
+  private final LongAdder expired = new LongAdder();
+
+  public LoanPlanStore(LoanServiceProperties loanServiceProperties, ObjectMapper objectMapper)
+      throws IOException {
+    LoanServiceProperties.PlanStore planStore = loanServiceProperties.getPlanStore();
+    this.objectMapper = objectMapper;
+    this.directory = planStore.getDirectory();
+    this.maximumAttempts = planStore.getMaximumAttempts();
+    this.retention = planStore.getRetention();
+    if (!planStore.isEnabled()) {
+      this.queue = null;
+      this.writer = null;
+      return;
+    }
+    Files.createDirectories(directory);
+    this.queue = new ArrayBlockingQueue<>(planStore.getMaximumPending());
+    this.writer =
+        Executors.newSingleThreadScheduledExecutor(
+            runnable -> {
+              Thread thread = new Thread(runnable, "plan-store-writer");
+              thread.setDaemon(true);
+              return thread;
+            });
+    long flushInterval = planStore.getFlushInterval().toMillis();
+    writer.scheduleWithFixedDelay(this::flush, flushInterval, flushInterval, TimeUnit.MILLISECONDS);
+    long cleanupInterval = CLEANUP_INTERVAL.toMillis();
+    writer.scheduleWithFixedDelay(
+        this::deleteExpiredPlans, cleanupInterval, cleanupInterval, TimeUnit.MILLISECONDS);
+  }
+
+  public boolean isEnabled() {
+    return queue != null;
+  }
+
+  /**
+   * Queues the plan to be written, never waits.
+   *
+   * @return ID of the plan, {@code null} when the store is disabled or the plan was dropped
+   */
+  public String store(List<MonthlyRepayment> monthlyRepayments) {
+    if (queue == null) {
+      return null;
+    }
+    String id = UUID.randomUUID().toString();
+    pendingPlans.put(id, monthlyRepayments);
+    if (!queue.offer(new StoredPlan(id, monthlyRepayments, 0))) {
+      pendingPlans.remove(id);
+      dropped.increment();
+      return null;
+    }
+    return id;
+  }
+
+  /** Plan with the ID, empty when there is none or it is older than the retention. */
+  public Optional<List<MonthlyRepayment>> find(String id) {
+    if (queue == null || !isPlanId(id)) {
+      return Optional.empty();
+    }
+    List<MonthlyRepayment> pendingPlan = pendingPlans.get(id);
+    if (pendingPlan != null) {
+      return Optional.of(pendingPlan);
+    }
+    Path file = directory.resolve(id + FILE_SUFFIX);
+    try {
+      if (isExpired(file, Instant.now())) {
+        return Optional.empty();
+      }
+      return Optional.of(
+          Collections.unmodifiableList(objectMapper.readValue(file.toFile(), PLAN_TYPE)));
+    } catch (FileNotFoundException | NoSuchFileException e) {
+      // Never stored, or still being written after the lookup of the pending plans.
+      return Optional.ofNullable(pendingPlans.get(id));
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /** Writes all queued plans and again the plans which could not be written before. */
+  public synchronized void flush() {
+    if (queue == null) {
+      return;
+    }
+    List<StoredPlan> plans = new ArrayList<>(retries);
+    retries.clear();
+    queue.drainTo(plans);
+    for (StoredPlan storedPlan : plans) {
+      write(storedPlan);
+    }
+  }
+
+  /** Deletes the written plans older than the retention. */
+  public void deleteExpiredPlans() {
+    if (queue == null) {
+      return;
+    }
+    Instant now = Instant.now();
+    try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + FILE_SUFFIX)) {
+      for (Path file : files) {
+        if (isPlanId(planId(file)) && isExpired(file, now)) {
+          Files.deleteIfExists(file);
+          expired.increment();
+        }
+      }
+    } catch (IOException e) {
+      log.warn("Expired plans could not be deleted from {}", directory, e);
+    }
+  }
+
+  /**
+   * Publishes the plans as {@code loan.plan.store.plans} with the tag {@code result=written},
+   * {@code result=dropped}, {@code result=failed} or {@code result=expired} and the plans not
+   * written yet as {@code loan.plan.store.pending}.
+   */
+  @Override
+  public void bindTo(MeterRegistry meterRegistry) {
+    if (queue == null) {
+      return;
+    }
+    FunctionCounter.builder("loan.plan.store.plans", written, LongAdder::doubleValue)
+        .description("Plans handed to the plan store")
+        .tag("result", "written")
+        .register(meterRegistry);
+    FunctionCounter.builder("loan.plan.store.plans", dropped, LongAdder::doubleValue)
+        .description("Plans handed to the plan store")
+        .tag("result", "dropped")
+        .register(meterRegistry);
+    FunctionCounter.builder("loan.plan.store.plans", failed, LongAdder::doubleValue)
+        .description("Plans handed to the plan store")
+        .tag("result", "failed")
+        .register(meterRegistry);
+    FunctionCounter.builder("loan.plan.store.plans", expired, LongAdder::doubleValue)
+        .description("Plans handed to the plan store")
+        .tag("result", "expired")
+        .register(meterRegistry);
+    Gauge.builder("loan.plan.store.pending", pendingPlans, Map::size)
+        .description("Plans waiting to be written")
+        .register(meterRegistry);
+  }
+
+  /** Writes the plans still queued. */
+  @PreDestroy
+  public void shutdown() throws InterruptedException {
+    if (writer != null) {
+      writer.shutdown();
+      writer.awaitTermination(10, TimeUnit.SECONDS);
+      flush();
+    }
+  }
+
+  private void write(StoredPlan storedPlan) {
+    Path file = directory.resolve(storedPlan.getId() + FILE_SUFFIX);
+    Path temporaryFile = directory.resolve(storedPlan.getId() + FILE_SUFFIX + ".tmp");
+    try {
+      objectMapper.writeValue(temporaryFile.toFile(), storedPlan.getMonthlyRepayments());
+      // Readers never see a partially written plan.
+      Files.move(temporaryFile, file, StandardCopyOption.ATOMIC_MOVE);
+      pendingPlans.remove(storedPlan.getId());
+      written.increment();
+    } catch (IOException e) {
+      int attempts = storedPlan.getAttempts() + 1;
+      if (attempts < maximumAttempts) {
+        retries.add(
+            new StoredPlan(storedPlan.getId(), storedPlan.getMonthlyRepayments(), attempts));
+        log.warn("Plan {} could not be written to {}, retrying", storedPlan.getId(), file, e);
+      } else {
+        pendingPlans.remove(storedPlan.getId());
+        failed.increment();
+        log.warn(
+            "Plan {} could not be written to {} in {} attempts",
+            storedPlan.getId(),
+            file,
+            attempts,
+            e);
+      }
+    }
+  }
+
+  private boolean isExpired(Path file, Instant now) throws IOException {
+    return Files.getLastModifiedTime(file).toInstant().plus(retention).isBefore(now);
+  }
+
+  private static String planId(Path file) {
+    String fileName = file.getFileName().toString();
+    return fileName.substring(0, fileName.length() - FILE_SUFFIX.length());
+  }
+
+  /** IDs are UUIDs, anything else could point outside of the directory. */
+  private static boolean isPlanId(String id) {
+    try {
+      return UUID.fromString(id).toString().equals(id);
+    } catch (IllegalArgumentException e) {
+      return false;
+    }
+  }
+
+  @Value
+  private static class StoredPlan {
+    String id;
+    List<MonthlyRepayment> monthlyRepayments;
+    int attempts;
+  }
+}
@@ -0,0 +1,60 @@
+package com.loan.loanservice.service;
+
+import com.loan.loanservice.domain.MonthlyRepayment;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Amounts of a loan plan without payment dates. With 30/360 days the amounts only depend on loan
+ * amount, nominal rate and duration, so one template serves loan plans for any start date. With
+ * actual days the interest, and hence every amount, depends on the repayment dates, so a template
+ * only serves its own start date.
+ *
+ * <p>The amounts are kept as the {@link RepaymentSchedule} the engine filled. A projected plan is a
+ * view of it, its repayments are only created when the plan is read, e.g. serialized.
+ */
+public class LoanPlanTemplate {
+
+  private final RepaymentSchedule schedule;
+
+  public LoanPlanTemplate(RepaymentSchedule schedule) {
+    this.schedule = schedule;
+  }
+
+  /** @param repayments repayments without {@link MonthlyRepayment#getDate() date} */
+  public LoanPlanTemplate(List<MonthlyRepayment> repayments) {
+    this(RepaymentSchedule.of(repayments));
+  }
+
+  public int size() {
+    return schedule.size();
+  }
+
+  public RepaymentSchedule getSchedule() {
+    return schedule;
+  }
+
+  /** Undated repayments of this template, created on access. */
+  public List<MonthlyRepayment> getRepayments() {
+    return schedule.toRepayments();
+  }
+
+  /**
+   * Loan plan with the first repayment on the start date and one repayment every month. The
+   * repayments are created on access.
+   */
+  public List<MonthlyRepayment> project(LocalDateTime startDate) {
+    return schedule.toRepayments(startDate);
+  }
+
+  /**
+   * Repayments {@code offset} (0 based) to the end of the plan, one every month from the given date
+   * on.
+   *
+   * @param date date of repayment {@code offset}
+   */
+  public Iterator<MonthlyRepayment> iterator(int offset, LocalDateTime date) {
+    return schedule.iterator(offset, date);
+  }
+}
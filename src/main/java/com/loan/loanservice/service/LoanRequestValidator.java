@@ -0,0 +1,216 @@
+package com.loan.loanservice.service;
+
+import com.loan.loanservice.domain.LoanRequest;
+import java.lang.annotation.Annotation;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import javax.validation.MessageInterpolator;
+import javax.validation.ValidationException;
+import javax.validation.ValidatorFactory;
+import javax.validation.constraints.Future;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+import javax.validation.metadata.ConstraintDescriptor;
+import javax.validation.metadata.PropertyDescriptor;
+import lombok.Value;
+import org.springframework.context.support.DefaultMessageSourceResolvable;
+import org.springframework.stereotype.Component;
+import org.springframework.validation.Errors;
+import org.springframework.validation.Validator;
+
+/**
+ * Validates {@link LoanRequest}s like Bean Validation does, without reflection per request. The
+ * constraints of the request and their interpolated messages are read from Bean Validation once,
+ * valid requests are validated without building constraint violations or messages. Only {@link
+ * NotNull}, {@link Min} and {@link Future} are supported, other constraints fail at startup.
+ * {@link Future} reads the current time of every request, which allocates a {@link LocalDateTime}.
+ *
+ * <p>Requests which passed this validator have all mandatory attributes, so they can be generated
+ * without repeating the null checks, e.g. by {@link
+ * LoanPlanGeneratorService#generateValidatedLoanPlan(LoanRequest)}.
+ */
+@Component
+public class LoanRequestValidator implements Validator {
+
+  private static final Set<String> INTERNAL_ANNOTATION_ATTRIBUTES =
+      new HashSet<>(Arrays.asList("message", "groups", "payload"));
+
+  private final List<LoanRequestConstraint> constraints;
+  private final LoanPlanMetrics loanPlanMetrics;
+
+  public LoanRequestValidator(ValidatorFactory validatorFactory, LoanPlanMetrics loanPlanMetrics) {
+    this.loanPlanMetrics = loanPlanMetrics;
+    List<LoanRequestConstraint> constraints = new ArrayList<>();
+    MessageInterpolator messageInterpolator = validatorFactory.getMessageInterpolator();
+    for (PropertyDescriptor property :
+        validatorFactory
+            .getValidator()
+            .getConstraintsForClass(LoanRequest.class)
+            .getConstrainedProperties()) {
+      for (ConstraintDescriptor<?> constraint : property.getConstraintDescriptors()) {
+        constraints.add(
+            new LoanRequestConstraint(
+                property.getPropertyName(),
+                constraint.getAnnotation().annotationType().getSimpleName(),
+                interpolate(messageInterpolator, constraint),
+                attributeArguments(constraint),
+                getter(property.getPropertyName()),
+                validation(constraint.getAnnotation())));
+      }
+    }
+    this.constraints = Collections.unmodifiableList(constraints);
+  }
+
+  /** Validation errors of the request as sorted {@code property: message}, empty when valid. */
+  public List<String> validate(LoanRequest loanRequest) {
+    long start = System.nanoTime();
+    List<String> errors = null;
+    for (LoanRequestConstraint constraint : constraints) {
+      if (!constraint.isValid(loanRequest)) {
+        if (errors == null) {
+          errors = new ArrayList<>();
+        }
+        errors.add(constraint.getProperty() + ": " + constraint.getMessage());
+      }
+    }
+    record(start, errors != null);
+    if (errors == null) {
+      return Collections.emptyList();
+    }
+    Collections.sort(errors);
+    return errors;
+  }
+
+  @Override
+  public boolean supports(Class<?> clazz) {
+    return LoanRequest.class.isAssignableFrom(clazz);
+  }
+
+  /**
+   * Rejects the invalid properties with the constraint name as code and the arguments of Spring's
+   * adapter: the property as resolvable followed by the constraint attributes sorted by name.
+   */
+  @Override
+  public void validate(Object target, Errors errors) {
+    long start = System.nanoTime();
+    LoanRequest loanRequest = (LoanRequest) target;
+    boolean invalid = false;
+    for (LoanRequestConstraint constraint : constraints) {
+      if (!constraint.isValid(loanRequest)) {
+        errors.rejectValue(
+            constraint.getProperty(),
+            constraint.getCode(),
+            constraint.arguments(errors.getObjectName()),
+            constraint.getMessage());
+        invalid = true;
+      }
+    }
+    record(start, invalid);
+  }
+
+  private void record(long start, boolean invalid) {
+    loanPlanMetrics.getValidationTimer().record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    if (invalid) {
+      loanPlanMetrics.getConstraintViolationCounter().increment();
+    }
+  }
+
+  private static String interpolate(
+      MessageInterpolator messageInterpolator, ConstraintDescriptor<?> constraint) {
+    MessageInterpolator.Context context =
+        new MessageInterpolator.Context() {
+          @Override
+          public ConstraintDescriptor<?> getConstraintDescriptor() {
+            return constraint;
+          }
+
+          @Override
+          public Object getValidatedValue() {
+            return null;
+          }
+
+          @Override
+          public <T> T unwrap(Class<T> type) {
+            throw new ValidationException("Type " + type + " not supported");
+          }
+        };
+    return messageInterpolator.interpolate(constraint.getMessageTemplate(), context);
+  }
+
+  /** Attributes of the constraint but message, groups and payload, sorted by name. */
+  private static Object[] attributeArguments(ConstraintDescriptor<?> constraint) {
+    Map<String, Object> attributes = new TreeMap<>(constraint.getAttributes());
+    attributes.keySet().removeAll(INTERNAL_ANNOTATION_ATTRIBUTES);
+    return attributes.values().toArray();
+  }
+
+  private static Function<LoanRequest, Object> getter(String property) {
+    switch (property) {
+      case "durationInMonth":
+        return LoanRequest::getDurationInMonth;
+      case "nominalRate":
+        return LoanRequest::getNominalRate;
+      case "loanAmount":
+        return LoanRequest::getLoanAmount;
+      case "startDate":
+        return LoanRequest::getStartDate;
+      default:
+        throw new IllegalStateException("Constrained property not supported: " + property);
+    }
+  }
+
+  /** Whether a value satisfies the constraint, {@code null} satisfies all but {@link NotNull}. */
+  private static Predicate<Object> validation(Annotation annotation) {
+    if (annotation instanceof NotNull) {
+      return value -> value != null;
+    }
+    if (annotation instanceof Min) {
+      long minimum = ((Min) annotation).value();
+      BigDecimal decimalMinimum = BigDecimal.valueOf(minimum);
+      return value ->
+          value == null
+              || (value instanceof BigDecimal
+                  ? ((BigDecimal) value).compareTo(decimalMinimum) >= 0
+                  : ((Number) value).longValue() >= minimum);
+    }
+    if (annotation instanceof Future) {
+      return value -> value == null || ((LocalDateTime) value).isAfter(LocalDateTime.now());
+    }
+    throw new IllegalStateException("Constraint not supported: " + annotation);
+  }
+
+  @Value
+  private static class LoanRequestConstraint {
+    String property;
+    String code;
+    String message;
+    Object[] attributeArguments;
+    Function<LoanRequest, Object> getter;
+    Predicate<Object> validation;
+
+    boolean isValid(LoanRequest loanRequest) {
+      return validation.test(getter.apply(loanRequest));
+    }
+
+    Object[] arguments(String objectName) {
+      Object[] arguments = new Object[attributeArguments.length + 1];
+      arguments[0] =
+          new DefaultMessageSourceResolvable(
+              new String[] {objectName + Errors.NESTED_PATH_SEPARATOR + property, property},
+              property);
+      System.arraycopy(attributeArguments, 0, arguments, 1, attributeArguments.length);
+      return arguments;
+    }
+  }
+}
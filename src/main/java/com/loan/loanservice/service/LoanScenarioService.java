@@ -0,0 +1,182 @@
+package com.loan.loanservice.service;
+
+import com.loan.loanservice.configuration.LoanServiceProperties;
+import com.loan.loanservice.domain.CalculationBackend;
+import com.loan.loanservice.domain.LoanEvent;
+import com.loan.loanservice.domain.LoanRequest;
+import com.loan.loanservice.domain.LoanScenarioRequest;
+import com.loan.loanservice.domain.MonthlyRepayment;
+import com.loan.loanservice.utils.DayCount;
+import com.loan.loanservice.utils.DayFractions;
+import com.loan.loanservice.utils.InterestCalculationUtil;
+import com.loan.loanservice.utils.RepaymentDateUtil;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+/**
+ * Loan plans with extra repayments and rate changes at given months. The repayments before the
+ * first event are taken from the plan of the loan without events, which is cached, so only the
+ * repayments from the first event on are calculated.
+ *
+ * <p>An extra repayment is paid together with the repayment of its month and keeps the annuity, so
+ * the plan ends earlier. A rate change applies to the interest of its month, and the annuity is
+ * recalculated to repay the outstanding principal within the original duration, from the year
+ * fractions of the remaining periods.
+ */
+@Service
+@RequiredArgsConstructor
+public class LoanScenarioService {
+
+  private final LoanServiceProperties loanServiceProperties;
+  private final LoanPlanGeneratorService loanPlanGeneratorService;
+  private final RateCardIndex rateCardIndex;
+
+  public List<MonthlyRepayment> generateLoanScenario(LoanScenarioRequest scenarioRequest) {
+    LoanRequest loanRequest = scenarioRequest.getLoanRequest();
+    LoanPlanTemplate template = loanPlanGeneratorService.getLoanPlanTemplate(loanRequest);
+    NavigableMap<Integer, LoanEvent> events = mergeEvents(scenarioRequest.getEvents());
+    LocalDateTime startDate = loanRequest.getStartDate();
+    DayFractions dayFractions =
+        DayCount.of(loanRequest.getDayCountConvention())
+            .dayFractions(startDate, loanRequest.getDurationInMonth());
+
+    int prefixSize = events.isEmpty() ? template.size() : events.firstKey() - 1;
+    List<MonthlyRepayment> monthlyRepayments = new ArrayList<>(template.size());
+    Iterator<MonthlyRepayment> prefix = template.iterator(0, startDate);
+    while (monthlyRepayments.size() < prefixSize && prefix.hasNext()) {
+      monthlyRepayments.add(prefix.next());
+    }
+    if (monthlyRepayments.size() < prefixSize || !prefix.hasNext()) {
+      // The plan ends before the first event.
+      return monthlyRepayments;
+    }
+
+    BigDecimal nominalRate = loanRequest.getNominalRate();
+    BigDecimal annuity = rateCardIndex.calculateAnnuity(loanRequest);
+    BigDecimal outstandingPrincipal =
+        prefixSize == 0
+            ? loanRequest.getLoanAmount()
+            : template.getRepayments().get(prefixSize - 1).getRemainingOutstandingPrincipal();
+    AmortizationScheduleIterator scheduleIterator = null;
+    for (int month = prefixSize + 1; isOutstanding(outstandingPrincipal); month++) {
+      LoanEvent event = events.get(month);
+      int remainingDurationInMonth = Math.max(1, loanRequest.getDurationInMonth() - month + 1);
+      if (event != null && event.getNominalRate() != null) {
+        nominalRate = event.getNominalRate();
+        annuity =
+            dayFractions.isConstant()
+                ? rateCardIndex.calculateAnnuity(
+                    LoanRequest.builder()
+                        .loanAmount(outstandingPrincipal)
+                        .nominalRate(nominalRate)
+                        .durationInMonth(remainingDurationInMonth)
+                        .build())
+                : InterestCalculationUtil.calculateAnnuity(
+                    outstandingPrincipal,
+                    InterestCalculationUtil.calculatePresentValueFactor(
+                        nominalRate, dayFractions, month - 1, remainingDurationInMonth));
+        scheduleIterator = null;
+      }
+      if (scheduleIterator == null) {
+        scheduleIterator =
+            month == 1
+                ? new AmortizationScheduleIterator(
+                    LoanRequest.builder()
+                        .loanAmount(outstandingPrincipal)
+                        .nominalRate(nominalRate)
+                        .durationInMonth(loanRequest.getDurationInMonth())
+                        .startDate(startDate)
+                        .dayCountConvention(loanRequest.getDayCountConvention())
+                        .build(),
+                    annuity,
+                    getCalculationBackend(loanRequest))
+                : new AmortizationScheduleIterator(
+                    outstandingPrincipal,
+                    nominalRate,
+                    annuity,
+                    remainingDurationInMonth,
+                    dayFractions,
+                    month - 1,
+                    getCalculationBackend(loanRequest));
+      }
+
+      MonthlyRepayment monthlyRepayment = scheduleIterator.next();
+      if (event != null
+          && event.getExtraRepayment() != null
+          && isOutstanding(monthlyRepayment.getRemainingOutstandingPrincipal())) {
+        monthlyRepayment = repayExtra(monthlyRepayment, event.getExtraRepayment());
+        // The plan continues from the reduced outstanding principal.
+        scheduleIterator = null;
+      }
+      outstandingPrincipal = monthlyRepayment.getRemainingOutstandingPrincipal();
+      monthlyRepayments.add(
+          monthlyRepayment
+              .toBuilder()
+              .date(RepaymentDateUtil.repaymentDate(startDate, month - 1))
+              .build());
+    }
+    return monthlyRepayments;
+  }
+
+  /** Adds the extra repayment, at most the remaining outstanding principal, to the repayment. */
+  private static MonthlyRepayment repayExtra(
+      MonthlyRepayment monthlyRepayment, BigDecimal extraRepayment) {
+    BigDecimal remainingOutstandingPrincipal = monthlyRepayment.getRemainingOutstandingPrincipal();
+    BigDecimal repaid = extraRepayment.min(remainingOutstandingPrincipal);
+    BigDecimal remaining = remainingOutstandingPrincipal.subtract(repaid);
+    return monthlyRepayment
+        .toBuilder()
+        .principal(monthlyRepayment.getPrincipal().add(repaid))
+        .borrowerPaymentAmount(monthlyRepayment.getBorrowerPaymentAmount().add(repaid))
+        .remainingOutstandingPrincipal(isOutstanding(remaining) ? remaining : BigDecimal.ZERO)
+        .build();
+  }
+
+  /**
+   * Events by month. Extra repayments of the same month are added up, of several rate changes in
+   * the same month the last one applies.
+   */
+  private static NavigableMap<Integer, LoanEvent> mergeEvents(List<LoanEvent> events) {
+    NavigableMap<Integer, LoanEvent> eventsByMonth = new TreeMap<>();
+    for (LoanEvent event : events) {
+      if (event.getExtraRepayment() == null && event.getNominalRate() == null) {
+        continue;
+      }
+      eventsByMonth.merge(
+          event.getMonth(),
+          event,
+          (merged, next) ->
+              LoanEvent.builder()
+                  .month(merged.getMonth())
+                  .extraRepayment(
+                      merged.getExtraRepayment() == null
+                          ? next.getExtraRepayment()
+                          : next.getExtraRepayment() == null
+                              ? merged.getExtraRepayment()
+                              : merged.getExtraRepayment().add(next.getExtraRepayment()))
+                  .nominalRate(
+                      next.getNominalRate() != null
+                          ? next.getNominalRate()
+                          : merged.getNominalRate())
+                  .build());
+    }
+    return eventsByMonth;
+  }
+
+  private static boolean isOutstanding(BigDecimal outstandingPrincipal) {
+    return outstandingPrincipal.compareTo(BigDecimal.ZERO) > 0;
+  }
+
+  private CalculationBackend getCalculationBackend(LoanRequest loanRequest) {
+    return loanRequest.getCalculationBackend() != null
+        ? loanRequest.getCalculationBackend()
+        : loanServiceProperties.getCalculationBackend();
+  }
+}
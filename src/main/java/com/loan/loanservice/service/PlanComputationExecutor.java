@@ -0,0 +1,117 @@
+package com.loan.loanservice.service;
+
+import com.loan.loanservice.configuration.LoanServiceProperties;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import javax.annotation.PreDestroy;
+import org.springframework.stereotype.Component;
+
+/**
+ * Calculates the plans of single requests on a bounded pool of {@code loan.execution.parallelism}
+ * threads, separate from the threads handling requests. At most {@code
+ * loan.execution.queue-capacity} calculations wait for a thread, further ones are rejected with a
+ * {@link PlanComputationRejectedException}. A spike of long plans therefore uses at most the pool
+ * and is shed beyond its queue, while other endpoints like the health check keep being served.
+ * Callers get a future, so the threads handling requests do not wait for the calculation either.
+ *
+ * <p>When disabled the plans are calculated on the calling thread.
+ */
+@Component
+public class PlanComputationExecutor implements MeterBinder {
+
+  private final ThreadPoolExecutor executor;
+  private final Duration retryAfter;
+  private final LongAdder rejected = new LongAdder();
+
+  public PlanComputationExecutor(LoanServiceProperties loanServiceProperties) {
+    LoanServiceProperties.Execution execution = loanServiceProperties.getExecution();
+    this.retryAfter = execution.getRetryAfter();
+    this.executor =
+        execution.isEnabled()
+            ? new ThreadPoolExecutor(
+                execution.getParallelism(),
+                execution.getParallelism(),
+                0,
+                TimeUnit.MILLISECONDS,
+                execution.getQueueCapacity() > 0
+                    ? new ArrayBlockingQueue<>(execution.getQueueCapacity())
+                    : new SynchronousQueue<>(),
+                new PlanComputationThreadFactory())
+            : null;
+  }
+
+  /**
+   * Calculates on the pool without waiting for the result. The future completes with the result or
+   * with the exception of the calculation.
+   *
+   * @throws PlanComputationRejectedException when the pool and its queue are full
+   */
+  public <T> CompletableFuture<T> submit(Supplier<T> computation) {
+    if (executor == null) {
+      return CompletableFuture.completedFuture(computation.get());
+    }
+    try {
+      return CompletableFuture.supplyAsync(computation, executor);
+    } catch (RejectedExecutionException e) {
+      rejected.increment();
+      throw new PlanComputationRejectedException(
+          "Too many loan plans are being calculated, retry later", retryAfter);
+    }
+  }
+
+  /** Calculations waiting for a thread. */
+  public int queueSize() {
+    return executor != null ? executor.getQueue().size() : 0;
+  }
+
+  /**
+   * Publishes the pool as {@code executor.*} meters with the tag {@code name=planComputation} and
+   * the rejected calculations as {@code loan.plan.execution.rejected}.
+   */
+  @Override
+  public void bindTo(MeterRegistry meterRegistry) {
+    if (executor != null) {
+      new ExecutorServiceMetrics(executor, "planComputation", Tags.empty()).bindTo(meterRegistry);
+    }
+    FunctionCounter.builder("loan.plan.execution.rejected", rejected, LongAdder::doubleValue)
+        .description("Plan calculations rejected because the pool and its queue were full")
+        .register(meterRegistry);
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    if (executor != null) {
+      executor.shutdownNow();
+    }
+  }
+
+  long rejectedCount() {
+    return rejected.sum();
+  }
+
+  private static class PlanComputationThreadFactory implements ThreadFactory {
+
+    private final AtomicInteger threadNumber = new AtomicInteger();
+
+    @Override
+    public Thread newThread(Runnable runnable) {
+      Thread thread = new Thread(runnable, "plan-computation-" + threadNumber.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    }
+  }
+}
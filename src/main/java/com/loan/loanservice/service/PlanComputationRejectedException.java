@@ -0,0 +1,21 @@
+package com.loan.loanservice.service;
+
+import java.time.Duration;
+
+/**
+ * Thrown when the plan computation pool and its queue are full. The request can be retried after
+ * {@link #getRetryAfter()}.
+ */
+public class PlanComputationRejectedException extends RuntimeException {
+
+  private final Duration retryAfter;
+
+  public PlanComputationRejectedException(String message, Duration retryAfter) {
+    super(message);
+    this.retryAfter = retryAfter;
+  }
+
+  public Duration getRetryAfter() {
+    return retryAfter;
+  }
+}
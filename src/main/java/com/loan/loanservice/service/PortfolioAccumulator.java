@@ -0,0 +1,163 @@
+package com.loan.loanservice.service;
+
+import com.loan.loanservice.domain.BatchLoanPlanLine;
+import com.loan.loanservice.domain.MonthlyRepayment;
+import com.loan.loanservice.domain.PortfolioMonth;
+import com.loan.loanservice.utils.FixedPointInterestCalculationUtil;
+import java.math.BigDecimal;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Repayment schedules of many loans added up per month. Only the totals are kept, so the memory
+ * depends on the number of months but not on the number of loans. Accumulators of disjoint sets of
+ * loans can be {@link #merge(PortfolioAccumulator) merged}.
+ */
+final class PortfolioAccumulator {
+
+  private final YearMonth firstMonth;
+  private int numberOfLoans;
+  private int numberOfMonths;
+  private int[] numberOfRepayments = new int[0];
+  private final Column interest = new Column();
+  private final Column principal = new Column();
+  private final Column borrowerPaymentAmount = new Column();
+  private final Column remainingOutstandingPrincipal = new Column();
+  private final List<BatchLoanPlanLine> rejectedLoans = new ArrayList<>();
+
+  /** @param firstMonth month {@code 0}, the earliest month a repayment can be added to */
+  PortfolioAccumulator(YearMonth firstMonth) {
+    this.firstMonth = firstMonth;
+  }
+
+  /** Adds the repayments of one loan, the first one in {@code month} (0 based). */
+  void add(int month, RepaymentSchedule schedule) {
+    ensureCapacity(month + schedule.size());
+    for (int index = 0; index < schedule.size(); index++) {
+      int repaymentMonth = month + index;
+      numberOfRepayments[repaymentMonth]++;
+      MonthlyRepayment irregularRepayment = schedule.getIrregularRepayment(index);
+      if (irregularRepayment != null) {
+        interest.add(repaymentMonth, irregularRepayment.getInterest());
+        principal.add(repaymentMonth, irregularRepayment.getPrincipal());
+        borrowerPaymentAmount.add(repaymentMonth, irregularRepayment.getBorrowerPaymentAmount());
+        remainingOutstandingPrincipal.add(
+            repaymentMonth, irregularRepayment.getRemainingOutstandingPrincipal());
+      } else {
+        interest.add(repaymentMonth, schedule.getInterestInCents(index));
+        principal.add(repaymentMonth, schedule.getPrincipalInCents(index));
+        borrowerPaymentAmount.add(repaymentMonth, schedule.getBorrowerPaymentAmountInCents(index));
+        remainingOutstandingPrincipal.add(
+            repaymentMonth, schedule.getRemainingOutstandingPrincipalInCents(index));
+      }
+    }
+    numberOfMonths = Math.max(numberOfMonths, month + schedule.size());
+    numberOfLoans++;
+  }
+
+  /** Records a loan request which could not be added. */
+  void reject(int index, List<String> errors) {
+    rejectedLoans.add(BatchLoanPlanLine.builder().index(index).errors(errors).build());
+  }
+
+  /** Adds the totals of the other accumulator to this one. */
+  PortfolioAccumulator merge(PortfolioAccumulator other) {
+    ensureCapacity(other.numberOfMonths);
+    for (int month = 0; month < other.numberOfMonths; month++) {
+      numberOfRepayments[month] += other.numberOfRepayments[month];
+    }
+    interest.merge(other.interest, other.numberOfMonths);
+    principal.merge(other.principal, other.numberOfMonths);
+    borrowerPaymentAmount.merge(other.borrowerPaymentAmount, other.numberOfMonths);
+    remainingOutstandingPrincipal.merge(other.remainingOutstandingPrincipal, other.numberOfMonths);
+    numberOfMonths = Math.max(numberOfMonths, other.numberOfMonths);
+    numberOfLoans += other.numberOfLoans;
+    rejectedLoans.addAll(other.rejectedLoans);
+    return this;
+  }
+
+  int getNumberOfLoans() {
+    return numberOfLoans;
+  }
+
+  /** Totals of every month from month {@code 0} to the last month with a repayment. */
+  List<PortfolioMonth> getMonths() {
+    List<PortfolioMonth> months = new ArrayList<>(numberOfMonths);
+    for (int month = 0; month < numberOfMonths; month++) {
+      months.add(
+          PortfolioMonth.builder()
+              .month(firstMonth.plusMonths(month))
+              .numberOfRepayments(numberOfRepayments[month])
+              .interest(interest.get(month))
+              .principal(principal.get(month))
+              .borrowerPaymentAmount(borrowerPaymentAmount.get(month))
+              .remainingOutstandingPrincipal(remainingOutstandingPrincipal.get(month))
+              .build());
+    }
+    return months;
+  }
+
+  /** Loan requests which could not be added, in no particular order. */
+  List<BatchLoanPlanLine> getRejectedLoans() {
+    return rejectedLoans;
+  }
+
+  private void ensureCapacity(int months) {
+    if (months > numberOfRepayments.length) {
+      int capacity = Math.max(months, numberOfRepayments.length + (numberOfRepayments.length >> 1));
+      numberOfRepayments = Arrays.copyOf(numberOfRepayments, capacity);
+      interest.ensureCapacity(capacity);
+      principal.ensureCapacity(capacity);
+      borrowerPaymentAmount.ensureCapacity(capacity);
+      remainingOutstandingPrincipal.ensureCapacity(capacity);
+    }
+  }
+
+  /**
+   * Monthly totals of one amount in cents. Amounts which are not whole cents and totals which would
+   * overflow are added up as {@link BigDecimal} instead.
+   */
+  private static final class Column {
+
+    private long[] totalsInCents = new long[0];
+    private BigDecimal[] totals;
+
+    void ensureCapacity(int capacity) {
+      totalsInCents = Arrays.copyOf(totalsInCents, capacity);
+      if (totals != null) {
+        totals = Arrays.copyOf(totals, capacity);
+      }
+    }
+
+    void add(int month, long amountInCents) {
+      try {
+        totalsInCents[month] = Math.addExact(totalsInCents[month], amountInCents);
+      } catch (ArithmeticException e) {
+        add(month, FixedPointInterestCalculationUtil.fromCents(amountInCents));
+      }
+    }
+
+    void add(int month, BigDecimal amount) {
+      if (totals == null) {
+        totals = new BigDecimal[totalsInCents.length];
+      }
+      totals[month] = totals[month] != null ? totals[month].add(amount) : amount;
+    }
+
+    void merge(Column other, int months) {
+      for (int month = 0; month < months; month++) {
+        add(month, other.totalsInCents[month]);
+        if (other.totals != null && other.totals[month] != null) {
+          add(month, other.totals[month]);
+        }
+      }
+    }
+
+    BigDecimal get(int month) {
+      BigDecimal total = FixedPointInterestCalculationUtil.fromCents(totalsInCents[month]);
+      return totals != null && totals[month] != null ? total.add(totals[month]) : total;
+    }
+  }
+}
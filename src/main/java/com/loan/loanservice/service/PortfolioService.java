@@ -0,0 +1,92 @@
+package com.loan.loanservice.service;
+
+import com.loan.loanservice.domain.BatchLoanPlanLine;
+import com.loan.loanservice.domain.LoanRequest;
+import com.loan.loanservice.domain.PortfolioProjection;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import javax.validation.ValidationException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+@Service
+@RequiredArgsConstructor
+public class PortfolioService {
+
+  private final LoanPlanGeneratorService loanPlanGeneratorService;
+  private final BatchLoanPlanService batchLoanPlanService;
+  private final ForkJoinPool batchComputationPool;
+
+  /**
+   * Adds up the repayments of all loans per month. The loans are scheduled in parallel and added to
+   * monthly totals one by one, so no loan plan is created and memory only depends on the number of
+   * months. Invalid requests are reported instead of failing the whole portfolio.
+   */
+  public PortfolioProjection projectPortfolio(List<LoanRequest> loanRequests) {
+    List<BatchLoanPlanLine> rejectedLoans = new ArrayList<>();
+    List<Integer> validIndexes = new ArrayList<>(loanRequests.size());
+    YearMonth firstMonth = null;
+    for (int index = 0; index < loanRequests.size(); index++) {
+      List<String> errors = batchLoanPlanService.validate(loanRequests.get(index));
+      if (!errors.isEmpty()) {
+        rejectedLoans.add(BatchLoanPlanLine.builder().index(index).errors(errors).build());
+        continue;
+      }
+      validIndexes.add(index);
+      YearMonth startMonth = YearMonth.from(loanRequests.get(index).getStartDate());
+      if (firstMonth == null || startMonth.isBefore(firstMonth)) {
+        firstMonth = startMonth;
+      }
+    }
+
+    if (firstMonth == null) {
+      return PortfolioProjection.builder()
+          .numberOfLoans(0)
+          .months(Collections.emptyList())
+          .rejectedLoans(rejectedLoans)
+          .build();
+    }
+
+    PortfolioAccumulator portfolio = accumulate(loanRequests, validIndexes, firstMonth);
+    rejectedLoans.addAll(portfolio.getRejectedLoans());
+    rejectedLoans.sort(Comparator.comparingInt(BatchLoanPlanLine::getIndex));
+    return PortfolioProjection.builder()
+        .numberOfLoans(portfolio.getNumberOfLoans())
+        .months(portfolio.getMonths())
+        .rejectedLoans(rejectedLoans)
+        .build();
+  }
+
+  private PortfolioAccumulator accumulate(
+      List<LoanRequest> loanRequests, List<Integer> validIndexes, YearMonth firstMonth) {
+    // Parallel streams started from within the pool use the pool's threads.
+    return batchComputationPool
+        .submit(
+            () ->
+                validIndexes
+                    .parallelStream()
+                    .collect(
+                        () -> new PortfolioAccumulator(firstMonth),
+                        (portfolio, index) ->
+                            addLoan(portfolio, index, loanRequests.get(index), firstMonth),
+                        PortfolioAccumulator::merge))
+        .join();
+  }
+
+  private void addLoan(
+      PortfolioAccumulator portfolio, int index, LoanRequest loanRequest, YearMonth firstMonth) {
+    try {
+      RepaymentSchedule schedule = loanPlanGeneratorService.scheduleLoanPlan(loanRequest);
+      int month =
+          (int) firstMonth.until(YearMonth.from(loanRequest.getStartDate()), ChronoUnit.MONTHS);
+      portfolio.add(month, schedule);
+    } catch (ValidationException e) {
+      portfolio.reject(index, Collections.singletonList(e.getMessage()));
+    }
+  }
+}
@@ -0,0 +1,130 @@
+package com.loan.loanservice.service;
+
+import com.loan.loanservice.configuration.LoanServiceProperties;
+import com.loan.loanservice.domain.LoanRequest;
+import com.loan.loanservice.utils.DayCount;
+import com.loan.loanservice.utils.InterestCalculationUtil;
+import com.loan.loanservice.utils.RatePowerUtil;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import lombok.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Annuity factors of every combination of the configured rate card rates and durations, calculated
+ * at startup. The annuity of a request on the card is its loan amount times the factor, other
+ * requests fall back to {@link InterestCalculationUtil#calculateAnnuity(LoanRequest)}. Both give
+ * the same annuity. The card is calculated with {@link DayCount#THIRTY_360 30/360}, requests with a
+ * day count depending on the start date are never on it.
+ */
+@Component
+public class RateCardIndex implements MeterBinder {
+
+  private final Map<RateCardKey, RateCardEntry> entries;
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+
+  public RateCardIndex(LoanServiceProperties loanServiceProperties) {
+    LoanServiceProperties.RateCard rateCard = loanServiceProperties.getRateCard();
+    Map<RateCardKey, RateCardEntry> entries = new HashMap<>();
+    int[] durations =
+        rateCard.getDurations().stream().mapToInt(Integer::intValue).sorted().toArray();
+    if (durations.length > 0 && durations[0] < 1) {
+      throw new IllegalArgumentException("Rate card durations must be positive: " + durations[0]);
+    }
+    for (BigDecimal nominalRate : rateCard.getNominalRates()) {
+      if (nominalRate.signum() <= 0) {
+        throw new IllegalArgumentException("Rate card rates must be positive: " + nominalRate);
+      }
+      BigDecimal monthlyRate = InterestCalculationUtil.calculateMonthlyRate(nominalRate);
+      BigDecimal[] discountFactors = RatePowerUtil.calculateDiscountFactors(monthlyRate, durations);
+      for (int index = 0; index < durations.length; index++) {
+        entries.put(
+            RateCardKey.of(nominalRate, durations[index]),
+            new RateCardEntry(
+                monthlyRate,
+                discountFactors[index],
+                InterestCalculationUtil.calculateAnnuityFactor(
+                    monthlyRate, discountFactors[index])));
+      }
+    }
+    this.entries = Collections.unmodifiableMap(entries);
+  }
+
+  /** Annuity of the request, looked up on the rate card if it is on it. */
+  public BigDecimal calculateAnnuity(LoanRequest loanRequest) {
+    RateCardEntry entry =
+        entries.isEmpty()
+                || DayCount.of(loanRequest.getDayCountConvention()).dependsOnStartDate()
+            ? null
+            : entries.get(
+                RateCardKey.of(loanRequest.getNominalRate(), loanRequest.getDurationInMonth()));
+    if (entry == null) {
+      misses.increment();
+      return InterestCalculationUtil.calculateAnnuity(loanRequest);
+    }
+    hits.increment();
+    return InterestCalculationUtil.calculateAnnuity(
+        loanRequest.getLoanAmount(),
+        entry.getMonthlyRate(),
+        entry.getDiscountFactor(),
+        entry.getAnnuityFactor());
+  }
+
+  /** Number of rate and duration combinations on the card. */
+  public int size() {
+    return entries.size();
+  }
+
+  /**
+   * Publishes the lookups as {@code loan.plan.rate.card.lookups} with the tag {@code result=hit} or
+   * {@code result=miss} and their ratio as {@code loan.plan.rate.card.hit.ratio}.
+   */
+  @Override
+  public void bindTo(MeterRegistry meterRegistry) {
+    FunctionCounter.builder("loan.plan.rate.card.lookups", hits, LongAdder::doubleValue)
+        .description("Annuity calculations looked up on the rate card")
+        .tag("result", "hit")
+        .register(meterRegistry);
+    FunctionCounter.builder("loan.plan.rate.card.lookups", misses, LongAdder::doubleValue)
+        .description("Annuity calculations looked up on the rate card")
+        .tag("result", "miss")
+        .register(meterRegistry);
+    Gauge.builder("loan.plan.rate.card.hit.ratio", this, RateCardIndex::hitRatio)
+        .description("Share of annuity calculations found on the rate card")
+        .register(meterRegistry);
+  }
+
+  private double hitRatio() {
+    double hitCount = hits.doubleValue();
+    double lookupCount = hitCount + misses.doubleValue();
+    return lookupCount > 0 ? hitCount / lookupCount : 0;
+  }
+
+  /**
+   * The nominal rate is only used divided at a fixed scale, so its trailing zeros are irrelevant.
+   */
+  @Value
+  private static class RateCardKey {
+    BigDecimal nominalRate;
+    int durationInMonth;
+
+    static RateCardKey of(BigDecimal nominalRate, int durationInMonth) {
+      return new RateCardKey(nominalRate.stripTrailingZeros(), durationInMonth);
+    }
+  }
+
+  @Value
+  private static class RateCardEntry {
+    BigDecimal monthlyRate;
+    BigDecimal discountFactor;
+    double annuityFactor;
+  }
+}
@@ -0,0 +1,417 @@
+package com.loan.loanservice.service;
+
+import com.loan.loanservice.domain.MonthlyRepayment;
+import com.loan.loanservice.service.AmortizationScheduleIterator.RepaymentTotals;
+import com.loan.loanservice.utils.FixedPointInterestCalculationUtil;
+import com.loan.loanservice.utils.RepaymentDateUtil;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * Undated repayments of a loan plan stored column by column in {@code long} cents, one array per
+ * amount instead of one {@link MonthlyRepayment} with five {@link BigDecimal}s per month. The engine
+ * fills the columns while it calculates. Beans are only created when a plan is returned, by the
+ * views of {@link #toRepayments(LocalDateTime)} while the plan is serialized, one repayment at a
+ * time.
+ *
+ * <p>The initial outstanding principal of a repayment is the remaining outstanding principal of the
+ * previous one and is not stored. A remaining outstanding principal of zero is {@link
+ * BigDecimal#ZERO}, all other amounts have two decimal places. Repayments which do not fit this
+ * representation, e.g. with an amount of fractional cents, are kept as they are, so a schedule
+ * always returns exactly the repayments it was built from.
+ */
+public final class RepaymentSchedule {
+
+  private static final int CENTS_SCALE = 2;
+  // Any number with up to 18 digits fits into a long.
+  private static final int MAX_PRECISION = 18;
+
+  private final int size;
+  private final BigDecimal initialOutstandingPrincipal;
+  private final long[] interestInCents;
+  private final long[] principalInCents;
+  private final long[] borrowerPaymentAmountInCents;
+  private final long[] remainingOutstandingPrincipalInCents;
+  private final Map<Integer, MonthlyRepayment> irregularRepayments;
+
+  private RepaymentSchedule(Builder builder) {
+    this.size = builder.size;
+    this.initialOutstandingPrincipal = builder.initialOutstandingPrincipal;
+    this.interestInCents = trim(builder.interestInCents, size);
+    this.principalInCents = trim(builder.principalInCents, size);
+    this.borrowerPaymentAmountInCents = trim(builder.borrowerPaymentAmountInCents, size);
+    this.remainingOutstandingPrincipalInCents =
+        trim(builder.remainingOutstandingPrincipalInCents, size);
+    this.irregularRepayments =
+        builder.irregularRepayments.isEmpty()
+            ? Collections.emptyMap()
+            : new HashMap<>(builder.irregularRepayments);
+  }
+
+  /** Schedule of the given undated repayments. */
+  public static RepaymentSchedule of(List<MonthlyRepayment> repayments) {
+    Builder builder = new Builder(repayments.size());
+    for (MonthlyRepayment repayment : repayments) {
+      builder.add(
+          repayment.getInterest(),
+          repayment.getPrincipal(),
+          repayment.getBorrowerPaymentAmount(),
+          repayment.getInitialOutstandingPrincipal(),
+          repayment.getRemainingOutstandingPrincipal());
+    }
+    return builder.build();
+  }
+
+  public int size() {
+    return size;
+  }
+
+  /** Undated repayment {@code index} (0 based). */
+  public MonthlyRepayment getRepayment(int index) {
+    return getRepayment(index, null);
+  }
+
+  /** Repayment {@code index} (0 based) on the given date. */
+  public MonthlyRepayment getRepayment(int index, LocalDateTime date) {
+    MonthlyRepayment irregularRepayment = getIrregularRepayment(index);
+    if (irregularRepayment != null) {
+      return date != null ? irregularRepayment.toBuilder().date(date).build() : irregularRepayment;
+    }
+    return MonthlyRepayment.builder()
+        .date(date)
+        .interest(fromCents(interestInCents[index]))
+        .principal(fromCents(principalInCents[index]))
+        .borrowerPaymentAmount(fromCents(borrowerPaymentAmountInCents[index]))
+        .initialOutstandingPrincipal(getInitialOutstandingPrincipal(index))
+        .remainingOutstandingPrincipal(getRemainingOutstandingPrincipal(index))
+        .build();
+  }
+
+  /**
+   * Repayments {@code offset} (0 based) to the end of the schedule, one every month from the given
+   * date on.
+   *
+   * @param date date of repayment {@code offset}, {@code null} for undated repayments
+   */
+  public Iterator<MonthlyRepayment> iterator(int offset, LocalDateTime date) {
+    return new Iterator<MonthlyRepayment>() {
+      private int index = offset;
+      private LocalDateTime nextDate = date;
+      private BigDecimal initialOutstandingPrincipal =
+          offset < size ? getInitialOutstandingPrincipal(offset) : null;
+
+      @Override
+      public boolean hasNext() {
+        return index < size;
+      }
+
+      @Override
+      public MonthlyRepayment next() {
+        if (!hasNext()) {
+          throw new NoSuchElementException();
+        }
+        MonthlyRepayment repayment = getIrregularRepayment(index);
+        if (repayment != null) {
+          repayment = repayment.toBuilder().date(nextDate).build();
+        } else {
+          repayment =
+              MonthlyRepayment.builder()
+                  .date(nextDate)
+                  .interest(fromCents(interestInCents[index]))
+                  .principal(fromCents(principalInCents[index]))
+                  .borrowerPaymentAmount(fromCents(borrowerPaymentAmountInCents[index]))
+                  .initialOutstandingPrincipal(initialOutstandingPrincipal)
+                  .remainingOutstandingPrincipal(getRemainingOutstandingPrincipal(index))
+                  .build();
+        }
+        initialOutstandingPrincipal = repayment.getRemainingOutstandingPrincipal();
+        index++;
+        nextDate = nextDate != null ? nextDate.plusMonths(1) : null;
+        return repayment;
+      }
+    };
+  }
+
+  /** Undated repayments, created on access. */
+  public List<MonthlyRepayment> toRepayments() {
+    return toRepayments(null);
+  }
+
+  /**
+   * Repayments one every month from the start date on, created on access. The view is not
+   * modifiable, iterating it creates each repayment once.
+   *
+   * @param startDate date of the first repayment, {@code null} for undated repayments
+   */
+  public List<MonthlyRepayment> toRepayments(LocalDateTime startDate) {
+    return new AbstractList<MonthlyRepayment>() {
+      @Override
+      public MonthlyRepayment get(int index) {
+        if (index < 0 || index >= size) {
+          throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        return getRepayment(
+            index, startDate != null ? RepaymentDateUtil.repaymentDate(startDate, index) : null);
+      }
+
+      @Override
+      public Iterator<MonthlyRepayment> iterator() {
+        return RepaymentSchedule.this.iterator(0, startDate);
+      }
+
+      @Override
+      public int size() {
+        return size;
+      }
+    };
+  }
+
+  /**
+   * Adds up the amounts of all repayments, like {@link
+   * AmortizationScheduleIterator#sumRemaining()}.
+   */
+  public RepaymentTotals sum() {
+    BigDecimal totalInterest = BigDecimal.ZERO;
+    BigDecimal totalBorrowerPaymentAmount = BigDecimal.ZERO;
+    long totalInterestInCents = 0;
+    long totalBorrowerPaymentAmountInCents = 0;
+    for (int index = 0; index < size; index++) {
+      MonthlyRepayment irregularRepayment = getIrregularRepayment(index);
+      if (irregularRepayment == null) {
+        try {
+          long nextTotalInterestInCents =
+              Math.addExact(totalInterestInCents, interestInCents[index]);
+          totalBorrowerPaymentAmountInCents =
+              Math.addExact(totalBorrowerPaymentAmountInCents, borrowerPaymentAmountInCents[index]);
+          totalInterestInCents = nextTotalInterestInCents;
+          continue;
+        } catch (ArithmeticException e) {
+          // Overflow of the totals in cents, add this repayment as BigDecimal.
+          irregularRepayment = getRepayment(index);
+        }
+      }
+      totalInterest = totalInterest.add(irregularRepayment.getInterest());
+      totalBorrowerPaymentAmount =
+          totalBorrowerPaymentAmount.add(irregularRepayment.getBorrowerPaymentAmount());
+    }
+    return new RepaymentTotals(
+        size,
+        totalInterest.add(fromCents(totalInterestInCents)),
+        totalBorrowerPaymentAmount.add(fromCents(totalBorrowerPaymentAmountInCents)));
+  }
+
+  private BigDecimal getInitialOutstandingPrincipal(int index) {
+    return index == 0 ? initialOutstandingPrincipal : getRemainingOutstandingPrincipal(index - 1);
+  }
+
+  private BigDecimal getRemainingOutstandingPrincipal(int index) {
+    MonthlyRepayment irregularRepayment = getIrregularRepayment(index);
+    if (irregularRepayment != null) {
+      return irregularRepayment.getRemainingOutstandingPrincipal();
+    }
+    long remainingInCents = remainingOutstandingPrincipalInCents[index];
+    return remainingInCents == 0 ? BigDecimal.ZERO : fromCents(remainingInCents);
+  }
+
+  long getInterestInCents(int index) {
+    return interestInCents[index];
+  }
+
+  long getPrincipalInCents(int index) {
+    return principalInCents[index];
+  }
+
+  long getBorrowerPaymentAmountInCents(int index) {
+    return borrowerPaymentAmountInCents[index];
+  }
+
+  long getRemainingOutstandingPrincipalInCents(int index) {
+    return remainingOutstandingPrincipalInCents[index];
+  }
+
+  /**
+   * Repayment {@code index} if it is not stored in cents, {@code null} otherwise. The amounts in
+   * cents of such a repayment are zero.
+   */
+  MonthlyRepayment getIrregularRepayment(int index) {
+    return irregularRepayments.isEmpty() ? null : irregularRepayments.get(index);
+  }
+
+  private static long[] trim(long[] column, int size) {
+    return column.length == size ? column : Arrays.copyOf(column, size);
+  }
+
+  private static BigDecimal fromCents(long cents) {
+    return FixedPointInterestCalculationUtil.fromCents(cents);
+  }
+
+  /** Whether the amount has two decimal places and fits into a {@code long} in cents. */
+  private static boolean isCents(BigDecimal amount) {
+    return amount != null && amount.scale() == CENTS_SCALE && amount.precision() <= MAX_PRECISION;
+  }
+
+  private static long toCents(BigDecimal amount) {
+    return amount.scaleByPowerOfTen(CENTS_SCALE).longValueExact();
+  }
+
+  /** Collects the repayments of a schedule in calculation order. */
+  static final class Builder {
+
+    private int size;
+    private BigDecimal initialOutstandingPrincipal;
+    private BigDecimal previousRemainingOutstandingPrincipal;
+    private long[] interestInCents;
+    private long[] principalInCents;
+    private long[] borrowerPaymentAmountInCents;
+    private long[] remainingOutstandingPrincipalInCents;
+    private final Map<Integer, MonthlyRepayment> irregularRepayments = new HashMap<>();
+
+    /** @param expectedSize expected number of repayments, the schedule grows beyond if needed */
+    Builder(int expectedSize) {
+      int capacity = Math.max(1, expectedSize);
+      interestInCents = new long[capacity];
+      principalInCents = new long[capacity];
+      borrowerPaymentAmountInCents = new long[capacity];
+      remainingOutstandingPrincipalInCents = new long[capacity];
+    }
+
+    /** Adds a repayment calculated in cents. */
+    void add(
+        long interest,
+        long principal,
+        long borrowerPaymentAmount,
+        long initialOutstandingPrincipal,
+        long remainingOutstandingPrincipal) {
+      if (size == 0) {
+        this.initialOutstandingPrincipal = fromCents(initialOutstandingPrincipal);
+      } else if (!isPreviousRemainingOutstandingPrincipal(initialOutstandingPrincipal)) {
+        addIrregular(
+            fromCents(interest),
+            fromCents(principal),
+            fromCents(borrowerPaymentAmount),
+            fromCents(initialOutstandingPrincipal),
+            remainingOutstandingPrincipal == 0
+                ? BigDecimal.ZERO
+                : fromCents(remainingOutstandingPrincipal));
+        return;
+      }
+      previousRemainingOutstandingPrincipal = null;
+      append(interest, principal, borrowerPaymentAmount, remainingOutstandingPrincipal);
+    }
+
+    /** Adds a repayment, in cents if its amounts allow to restore it exactly. */
+    void add(
+        BigDecimal interest,
+        BigDecimal principal,
+        BigDecimal borrowerPaymentAmount,
+        BigDecimal initialOutstandingPrincipal,
+        BigDecimal remainingOutstandingPrincipal) {
+      boolean regular =
+          isCents(interest)
+              && isCents(principal)
+              && isCents(borrowerPaymentAmount)
+              && (BigDecimal.ZERO.equals(remainingOutstandingPrincipal)
+                  || (isCents(remainingOutstandingPrincipal)
+                      && remainingOutstandingPrincipal.signum() != 0))
+              && (size == 0
+                  ? initialOutstandingPrincipal != null
+                  : initialOutstandingPrincipal == previousRemainingOutstandingPrincipal
+                      || isPreviousRemainingOutstandingPrincipal(initialOutstandingPrincipal));
+      if (!regular) {
+        addIrregular(
+            interest,
+            principal,
+            borrowerPaymentAmount,
+            initialOutstandingPrincipal,
+            remainingOutstandingPrincipal);
+        return;
+      }
+      if (size == 0) {
+        this.initialOutstandingPrincipal = initialOutstandingPrincipal;
+      }
+      append(
+          toCents(interest),
+          toCents(principal),
+          toCents(borrowerPaymentAmount),
+          remainingOutstandingPrincipal.signum() == 0 ? 0 : toCents(remainingOutstandingPrincipal));
+      // The engine passes the remaining principal on as the next initial principal.
+      previousRemainingOutstandingPrincipal = remainingOutstandingPrincipal;
+    }
+
+    RepaymentSchedule build() {
+      return new RepaymentSchedule(this);
+    }
+
+    private boolean isPreviousRemainingOutstandingPrincipal(long amountInCents) {
+      MonthlyRepayment previousRepayment = irregularRepayments.get(size - 1);
+      if (previousRepayment != null) {
+        return fromCents(amountInCents)
+            .equals(previousRepayment.getRemainingOutstandingPrincipal());
+      }
+      long previousRemainingInCents = remainingOutstandingPrincipalInCents[size - 1];
+      return previousRemainingInCents != 0 && previousRemainingInCents == amountInCents;
+    }
+
+    private boolean isPreviousRemainingOutstandingPrincipal(BigDecimal amount) {
+      MonthlyRepayment previousRepayment = irregularRepayments.get(size - 1);
+      if (previousRepayment != null) {
+        return amount != null
+            && amount.equals(previousRepayment.getRemainingOutstandingPrincipal());
+      }
+      long previousRemainingInCents = remainingOutstandingPrincipalInCents[size - 1];
+      return previousRemainingInCents == 0
+          ? BigDecimal.ZERO.equals(amount)
+          : isCents(amount) && toCents(amount) == previousRemainingInCents;
+    }
+
+    private void addIrregular(
+        BigDecimal interest,
+        BigDecimal principal,
+        BigDecimal borrowerPaymentAmount,
+        BigDecimal initialOutstandingPrincipal,
+        BigDecimal remainingOutstandingPrincipal) {
+      if (size == 0) {
+        this.initialOutstandingPrincipal = initialOutstandingPrincipal;
+      }
+      previousRemainingOutstandingPrincipal = remainingOutstandingPrincipal;
+      irregularRepayments.put(
+          size,
+          MonthlyRepayment.builder()
+              .interest(interest)
+              .principal(principal)
+              .borrowerPaymentAmount(borrowerPaymentAmount)
+              .initialOutstandingPrincipal(initialOutstandingPrincipal)
+              .remainingOutstandingPrincipal(remainingOutstandingPrincipal)
+              .build());
+      append(0, 0, 0, 0);
+    }
+
+    private void append(
+        long interest,
+        long principal,
+        long borrowerPaymentAmount,
+        long remainingOutstandingPrincipal) {
+      if (size == interestInCents.length) {
+        int capacity = size + (size >> 1) + 1;
+        interestInCents = Arrays.copyOf(interestInCents, capacity);
+        principalInCents = Arrays.copyOf(principalInCents, capacity);
+        borrowerPaymentAmountInCents = Arrays.copyOf(borrowerPaymentAmountInCents, capacity);
+        remainingOutstandingPrincipalInCents =
+            Arrays.copyOf(remainingOutstandingPrincipalInCents, capacity);
+      }
+      interestInCents[size] = interest;
+      principalInCents[size] = principal;
+      borrowerPaymentAmountInCents[size] = borrowerPaymentAmount;
+      remainingOutstandingPrincipalInCents[size] = remainingOutstandingPrincipal;
+      size++;
+    }
+  }
+}
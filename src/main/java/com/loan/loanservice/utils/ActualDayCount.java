@@ -0,0 +1,51 @@
+package com.loan.loanservice.utils;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * ACT/360, ACT/365 and ACT/ACT, the actual days between the repayment dates. For ACT/ACT the days
+ * in leap years count {@code 365} and the other days {@code 366} parts of {@code 365 * 366}.
+ */
+final class ActualDayCount implements DayCount {
+
+  private final long denominator;
+  private final boolean actualDaysInYear;
+
+  ActualDayCount(long denominator, boolean actualDaysInYear) {
+    this.denominator = denominator;
+    this.actualDaysInYear = actualDaysInYear;
+  }
+
+  @Override
+  public boolean dependsOnStartDate() {
+    return true;
+  }
+
+  @Override
+  public DayFractions dayFractions(LocalDateTime startDate, int durationInMonth) {
+    return DayFractions.of(denominator, durationInMonth, period -> numerator(startDate, period));
+  }
+
+  private long numerator(LocalDateTime startDate, int period) {
+    LocalDate from =
+        period == 0
+            ? startDate.toLocalDate().minusMonths(1)
+            : RepaymentDateUtil.repaymentDate(startDate, period - 1).toLocalDate();
+    LocalDate to = RepaymentDateUtil.repaymentDate(startDate, period).toLocalDate();
+    if (!actualDaysInYear) {
+      return ChronoUnit.DAYS.between(from, to);
+    }
+    long numerator = 0;
+    while (from.isBefore(to)) {
+      LocalDate endOfPart = from.withDayOfYear(1).plusYears(1);
+      if (endOfPart.isAfter(to)) {
+        endOfPart = to;
+      }
+      numerator += ChronoUnit.DAYS.between(from, endOfPart) * (from.isLeapYear() ? 365 : 366);
+      from = endOfPart;
+    }
+    return numerator;
+  }
+}
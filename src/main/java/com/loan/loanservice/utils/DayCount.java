@@ -0,0 +1,44 @@
+package com.loan.loanservice.utils;
+
+import com.loan.loanservice.domain.DayCountConvention;
+import java.time.LocalDateTime;
+
+/**
+ * Strategy of a {@link DayCountConvention}. Year fractions are exact ratios of whole numbers, so
+ * interest calculated from them rounds the same with {@link java.math.BigDecimal} and with {@code
+ * long} cents.
+ */
+public interface DayCount {
+
+  DayCount THIRTY_360 = new ThirtyDayCount();
+  DayCount ACTUAL_360 = new ActualDayCount(360, false);
+  DayCount ACTUAL_365 = new ActualDayCount(365, false);
+  DayCount ACTUAL_ACTUAL = new ActualDayCount(365 * 366, true);
+
+  /** Strategy of the convention, {@link #THIRTY_360} for {@code null}. */
+  static DayCount of(DayCountConvention dayCountConvention) {
+    if (dayCountConvention == null) {
+      return THIRTY_360;
+    }
+    switch (dayCountConvention) {
+      case ACTUAL_360:
+        return ACTUAL_360;
+      case ACTUAL_365:
+        return ACTUAL_365;
+      case ACTUAL_ACTUAL:
+        return ACTUAL_ACTUAL;
+      default:
+        return THIRTY_360;
+    }
+  }
+
+  /** Whether the year fractions depend on the start date, otherwise it may be {@code null}. */
+  boolean dependsOnStartDate();
+
+  /**
+   * Year fractions of the repayment periods of a plan with its first repayment on the start date.
+   *
+   * @param durationInMonth number of periods whose fractions are calculated up front
+   */
+  DayFractions dayFractions(LocalDateTime startDate, int durationInMonth);
+}
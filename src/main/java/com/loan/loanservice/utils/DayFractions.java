@@ -0,0 +1,89 @@
+package com.loan.loanservice.utils;
+
+import java.math.BigDecimal;
+import java.util.function.IntToLongFunction;
+
+/**
+ * Year fractions of the repayment periods of one plan, as numerators over a common denominator. The
+ * numerators of the expected periods are calculated once per plan, those of later periods on
+ * access.
+ */
+public final class DayFractions {
+
+  private final long denominator;
+  private final BigDecimal denominatorDecimal;
+  // Numerator of every period when numeratorOfPeriod is null.
+  private final BigDecimal constantNumerator;
+  private final IntToLongFunction numeratorOfPeriod;
+  private final long[] numerators;
+  private final BigDecimal[] numeratorDecimals;
+
+  private DayFractions(BigDecimal constantNumerator, BigDecimal denominator) {
+    this.denominator = denominator.longValueExact();
+    this.denominatorDecimal = denominator;
+    this.constantNumerator = constantNumerator;
+    this.numeratorOfPeriod = null;
+    this.numerators = null;
+    this.numeratorDecimals = null;
+  }
+
+  private DayFractions(long denominator, int periods, IntToLongFunction numeratorOfPeriod) {
+    this.denominator = denominator;
+    this.denominatorDecimal = BigDecimal.valueOf(denominator);
+    this.constantNumerator = null;
+    this.numeratorOfPeriod = numeratorOfPeriod;
+    this.numerators = new long[periods];
+    this.numeratorDecimals = new BigDecimal[periods];
+    for (int period = 0; period < periods; period++) {
+      numerators[period] = numeratorOfPeriod.applyAsLong(period);
+      // Most periods have the same length as their predecessor, share their numerator.
+      numeratorDecimals[period] =
+          period > 0 && numerators[period] == numerators[period - 1]
+              ? numeratorDecimals[period - 1]
+              : BigDecimal.valueOf(numerators[period]);
+    }
+  }
+
+  /** The same fraction for every period. */
+  static DayFractions constant(BigDecimal numerator, BigDecimal denominator) {
+    return new DayFractions(numerator, denominator);
+  }
+
+  /**
+   * @param periods number of periods whose numerators are calculated up front
+   * @param numeratorOfPeriod numerator of a period (0 based)
+   */
+  static DayFractions of(long denominator, int periods, IntToLongFunction numeratorOfPeriod) {
+    return new DayFractions(denominator, Math.max(periods, 0), numeratorOfPeriod);
+  }
+
+  /** Whether every period has the same fraction. */
+  public boolean isConstant() {
+    return numeratorOfPeriod == null;
+  }
+
+  public long getDenominator() {
+    return denominator;
+  }
+
+  public BigDecimal getDenominatorDecimal() {
+    return denominatorDecimal;
+  }
+
+  /** Numerator of the period (0 based), the period of the first repayment is {@code 0}. */
+  public long getNumerator(int period) {
+    if (numeratorOfPeriod == null) {
+      return constantNumerator.longValueExact();
+    }
+    return period < numerators.length ? numerators[period] : numeratorOfPeriod.applyAsLong(period);
+  }
+
+  public BigDecimal getNumeratorDecimal(int period) {
+    if (numeratorOfPeriod == null) {
+      return constantNumerator;
+    }
+    return period < numeratorDecimals.length
+        ? numeratorDecimals[period]
+        : BigDecimal.valueOf(numeratorOfPeriod.applyAsLong(period));
+  }
+}
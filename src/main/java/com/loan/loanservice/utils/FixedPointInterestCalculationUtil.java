@@ -0,0 +1,90 @@
+package com.loan.loanservice.utils;
+
+import java.math.BigDecimal;
+import lombok.Value;
+import lombok.experimental.UtilityClass;
+
+/**
+ * Counterpart of {@link InterestCalculationUtil} working on amounts in {@code long} cents. All
+ * operations round exactly like the {@link BigDecimal} calculations, i.e. HALF_DOWN to whole cents.
+ * Arithmetic overflow is reported as {@link ArithmeticException}.
+ */
+@UtilityClass
+public class FixedPointInterestCalculationUtil {
+
+  private static final int CENTS_SCALE = 2;
+  private static final int MAX_RATE_SCALE = 17;
+  private static final long MONTHS_IN_YEAR = 12;
+
+  public long toCents(BigDecimal amount) {
+    if (amount.scale() > CENTS_SCALE) {
+      throw new ArithmeticException("Amount " + amount + " is not a whole number of cents");
+    }
+    return amount.movePointRight(CENTS_SCALE).longValueExact();
+  }
+
+  public BigDecimal fromCents(long cents) {
+    return BigDecimal.valueOf(cents, CENTS_SCALE);
+  }
+
+  /**
+   * Converts the (annual) nominal rate as used by {@link
+   * InterestCalculationUtil#calculateInterest(BigDecimal, BigDecimal)} into a monthly fraction.
+   */
+  public MonthlyRate toMonthlyRate(BigDecimal nominalRate) {
+    BigDecimal strippedRate = nominalRate.stripTrailingZeros();
+    if (strippedRate.scale() > MAX_RATE_SCALE) {
+      throw new ArithmeticException("Nominal rate " + nominalRate + " has too many decimals");
+    }
+    int scale = Math.max(strippedRate.scale(), 0);
+    long numerator = strippedRate.movePointRight(scale).longValueExact();
+    long denominator = MONTHS_IN_YEAR * BigDecimal.ONE.movePointRight(scale).longValueExact();
+    return new MonthlyRate(numerator, denominator);
+  }
+
+  /**
+   * Converts the (annual) nominal rate as used by {@link
+   * InterestCalculationUtil#calculateInterest(BigDecimal, BigDecimal, BigDecimal, BigDecimal)} into
+   * the fraction of one period, {@code days / daysInYear} of a year.
+   */
+  public MonthlyRate toPeriodRate(BigDecimal nominalRate, long days, long daysInYear) {
+    MonthlyRate annualRate = toMonthlyRate(nominalRate);
+    long numerator = Math.multiplyExact(annualRate.getNumerator(), days);
+    long denominator = Math.multiplyExact(annualRate.getDenominator() / MONTHS_IN_YEAR, daysInYear);
+    long divisor = gcd(numerator, denominator);
+    return new MonthlyRate(numerator / divisor, denominator / divisor);
+  }
+
+  public long calculateInterest(long currentValueInCents, MonthlyRate monthlyRate) {
+    // interest = (nominal rate * days in months * amount) / days in an year, with 30/360 days.
+    return divideHalfDown(
+        Math.multiplyExact(monthlyRate.getNumerator(), currentValueInCents),
+        monthlyRate.getDenominator());
+  }
+
+  /** Divides by a positive denominator, rounding to the nearest value and ties towards zero. */
+  public long divideHalfDown(long numerator, long denominator) {
+    long quotient = numerator / denominator;
+    long remainder = Math.abs(numerator % denominator);
+    if (remainder > denominator - remainder) {
+      return numerator < 0 ? quotient - 1 : quotient + 1;
+    }
+    return quotient;
+  }
+
+  private long gcd(long a, long b) {
+    while (b != 0) {
+      long remainder = a % b;
+      a = b;
+      b = remainder;
+    }
+    return Math.abs(a);
+  }
+
+  /** Monthly interest rate as the fraction {@code numerator / denominator}. */
+  @Value
+  public static class MonthlyRate {
+    long numerator;
+    long denominator;
+  }
+}
@@ -2,21 +2,54 @@ package com.loan.loanservice.utils;
 
 import com.loan.loanservice.domain.LoanRequest;
 import java.math.BigDecimal;
+import java.math.MathContext;
 import java.math.RoundingMode;
 import lombok.experimental.UtilityClass;
 
 @UtilityClass
 public class InterestCalculationUtil {
 
+  // Loan amounts below 10^13 are exact as double in cents, and so is the rounded annuity.
+  private static final int MAX_INTEGER_DIGITS = 13;
+  // Relative error of the annuity factor and product in double is about 2 * 10^-16.
+  private static final double RELATIVE_ERROR = 1e-15;
+  private static final BigDecimal HUNDRED = BigDecimal.valueOf(100);
+
+  /** Interest of one month with {@link DayCount#THIRTY_360 30/360}. */
   public BigDecimal calculateInterest(BigDecimal currentValue, BigDecimal nominalRate) {
-    // interest = (nominal rate * days in months * amount) / days in an year.
-    BigDecimal top = nominalRate.multiply(new BigDecimal(30)).multiply(currentValue);
-    return top.divide(new BigDecimal(360), 2, RoundingMode.HALF_DOWN);
+    return calculateInterest(
+        currentValue, nominalRate, ThirtyDayCount.DAYS_IN_MONTH, ThirtyDayCount.DAYS_IN_YEAR);
+  }
+
+  /**
+   * Interest of one period of the {@link DayFractions}.
+   *
+   * @param days days of the period, weighted like the days in a year
+   */
+  public BigDecimal calculateInterest(
+      BigDecimal currentValue, BigDecimal nominalRate, BigDecimal days, BigDecimal daysInYear) {
+    // interest = (nominal rate * days in period * amount) / days in an year.
+    BigDecimal top = nominalRate.multiply(days).multiply(currentValue);
+    return top.divide(daysInYear, 2, RoundingMode.HALF_DOWN);
   }
 
+  /**
+   * Annuity repaying the loan amount within its duration. With a {@link DayCount} depending on the
+   * start date it is calculated from the year fractions of the periods, like their interest.
+   */
   public BigDecimal calculateAnnuity(LoanRequest loanRequest) {
-    BigDecimal nominalMonthlyRate =
-        loanRequest.getNominalRate().divide(new BigDecimal(100 * 12), 20, RoundingMode.HALF_DOWN);
+    DayCount dayCount = DayCount.of(loanRequest.getDayCountConvention());
+    if (dayCount.dependsOnStartDate()) {
+      int duration = loanRequest.getDurationInMonth();
+      return calculateAnnuity(
+          loanRequest.getLoanAmount(),
+          calculatePresentValueFactor(
+              loanRequest.getNominalRate(),
+              dayCount.dayFractions(loanRequest.getStartDate(), duration),
+              0,
+              duration));
+    }
+    BigDecimal nominalMonthlyRate = calculateMonthlyRate(loanRequest.getNominalRate());
     Integer duration = loanRequest.getDurationInMonth();
 
     BigDecimal top = nominalMonthlyRate.multiply(loanRequest.getLoanAmount());
@@ -24,9 +57,92 @@ public class InterestCalculationUtil {
     return top.divide(bottom, 2, RoundingMode.HALF_DOWN);
   }
 
+  /**
+   * Present value of a repayment of one in each of the periods, discounted by the rates of the
+   * periods of the day fractions. The annuity of a loan amount is the amount divided by it.
+   *
+   * @param nominalRate nominal (annual) rate in percent
+   * @param period period (0 based) of the first repayment
+   * @param periods number of repayments
+   */
+  public BigDecimal calculatePresentValueFactor(
+      BigDecimal nominalRate, DayFractions dayFractions, int period, int periods) {
+    return calculatePresentValueFactors(nominalRate, dayFractions, period, new int[] {periods})[0];
+  }
+
+  /**
+   * Present value factors of ascending numbers of periods, each the same as {@link
+   * #calculatePresentValueFactor(BigDecimal, DayFractions, int, int)}. Every factor continues the
+   * sum of the previous one.
+   */
+  public BigDecimal[] calculatePresentValueFactors(
+      BigDecimal nominalRate, DayFractions dayFractions, int period, int[] periods) {
+    // 1 / (1 + rate of period) = 100 * denominator / (100 * denominator + rate * numerator).
+    BigDecimal hundredTimesDenominator = HUNDRED.multiply(dayFractions.getDenominatorDecimal());
+    BigDecimal[] presentValueFactors = new BigDecimal[periods.length];
+    BigDecimal discountFactor = BigDecimal.ONE;
+    BigDecimal presentValueFactor = BigDecimal.ZERO;
+    int index = period;
+    for (int factor = 0; factor < periods.length; factor++) {
+      for (; index < period + periods[factor]; index++) {
+        discountFactor =
+            discountFactor
+                .multiply(hundredTimesDenominator)
+                .divide(
+                    hundredTimesDenominator.add(
+                        nominalRate.multiply(dayFractions.getNumeratorDecimal(index))),
+                    MathContext.DECIMAL128);
+        presentValueFactor = presentValueFactor.add(discountFactor, MathContext.DECIMAL128);
+      }
+      presentValueFactors[factor] = presentValueFactor;
+    }
+    return presentValueFactors;
+  }
+
+  /** Annuity of the loan amount from the present value factor of its periods. */
+  public BigDecimal calculateAnnuity(BigDecimal loanAmount, BigDecimal presentValueFactor) {
+    return loanAmount.divide(presentValueFactor, 2, RoundingMode.HALF_DOWN);
+  }
+
+  /** Monthly rate of the annuity for a nominal (annual) rate in percent. */
+  public BigDecimal calculateMonthlyRate(BigDecimal nominalRate) {
+    return nominalRate.divide(new BigDecimal(100 * 12), 20, RoundingMode.HALF_DOWN);
+  }
+
+  /** Annuity per unit of loan amount, {@code monthly rate / (1 - discount factor)}. */
+  public double calculateAnnuityFactor(BigDecimal monthlyRate, BigDecimal discountFactor) {
+    return monthlyRate
+        .divide(BigDecimal.ONE.subtract(discountFactor), MathContext.DECIMAL128)
+        .doubleValue();
+  }
+
+  /**
+   * Same annuity as {@link #calculateAnnuity(LoanRequest)}, but from the precalculated factors of
+   * the rate and duration. A loan amount in whole cents is only multiplied by the annuity factor,
+   * unless the product is too close to half a cent to decide the rounding. Other amounts are
+   * divided as usual.
+   */
+  public BigDecimal calculateAnnuity(
+      BigDecimal loanAmount,
+      BigDecimal monthlyRate,
+      BigDecimal discountFactor,
+      double annuityFactor) {
+    if (loanAmount.signum() > 0
+        && loanAmount.scale() <= 2
+        && loanAmount.precision() - loanAmount.scale() <= MAX_INTEGER_DIGITS) {
+      double annuityInCents = FixedPointInterestCalculationUtil.toCents(loanAmount) * annuityFactor;
+      // HALF_DOWN only depends on the distance to the nearest half cent.
+      double belowHalfCent = annuityInCents - 0.5;
+      if (Math.abs(belowHalfCent - Math.rint(belowHalfCent)) > annuityInCents * RELATIVE_ERROR) {
+        return FixedPointInterestCalculationUtil.fromCents((long) Math.ceil(belowHalfCent));
+      }
+    }
+    return monthlyRate
+        .multiply(loanAmount)
+        .divide(BigDecimal.ONE.subtract(discountFactor), 2, RoundingMode.HALF_DOWN);
+  }
+
   private BigDecimal calculateRatePower(BigDecimal monthlyInterestRate, int duration) {
-    BigDecimal onePlusMonthlyInterestRate = BigDecimal.ONE.add(monthlyInterestRate);
-    return BigDecimal.ONE.divide(
-        onePlusMonthlyInterestRate.pow(duration), 20, RoundingMode.HALF_DOWN);
+    return RatePowerUtil.calculateDiscountFactor(monthlyInterestRate, duration);
   }
 }
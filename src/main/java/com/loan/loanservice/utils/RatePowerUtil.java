@@ -0,0 +1,112 @@
+package com.loan.loanservice.utils;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import lombok.Value;
+import lombok.experimental.UtilityClass;
+
+/**
+ * Calculates the discount factor {@code 1 / (1 + monthly rate)^duration} rounded HALF_DOWN to
+ * {@link #SCALE} decimals.
+ *
+ * <p>The power is evaluated with a bounded {@link MathContext} instead of at full precision. When
+ * the bounded result is too close to a rounding boundary to decide the last decimal, the exact
+ * power is used, so the result is always the same as with the exact calculation. Results are kept
+ * in a bounded cache keyed by rate and duration.
+ */
+@UtilityClass
+public class RatePowerUtil {
+
+  public static final int SCALE = 20;
+
+  private static final int MAX_CACHE_SIZE = 1024;
+  private static final MathContext POWER_CONTEXT = new MathContext(48, RoundingMode.HALF_EVEN);
+  // Relative error of the bounded power and division is far below 10^-40.
+  private static final BigDecimal RELATIVE_ERROR = BigDecimal.ONE.movePointLeft(40);
+
+  private static final Cache<RatePowerKey, BigDecimal> RATE_POWER_CACHE =
+      Caffeine.newBuilder().maximumSize(MAX_CACHE_SIZE).recordStats().build();
+
+  public BigDecimal calculateDiscountFactor(BigDecimal monthlyInterestRate, int duration) {
+    return RATE_POWER_CACHE.get(
+        new RatePowerKey(monthlyInterestRate, duration),
+        key -> computeDiscountFactor(key.getMonthlyInterestRate(), key.getDuration()));
+  }
+
+  public CacheStats cacheStats() {
+    return RATE_POWER_CACHE.stats();
+  }
+
+  /**
+   * Discount factors of ascending durations, each the same as {@link
+   * #calculateDiscountFactor(BigDecimal, int)}. Uncached powers are derived from the power of the
+   * previous duration, {@code (1 + r)^n = (1 + r)^m * (1 + r)^(n - m)}, and added to the cache.
+   */
+  public BigDecimal[] calculateDiscountFactors(BigDecimal monthlyInterestRate, int[] durations) {
+    BigDecimal onePlusMonthlyInterestRate = BigDecimal.ONE.add(monthlyInterestRate);
+    BigDecimal[] discountFactors = new BigDecimal[durations.length];
+    BigDecimal power = BigDecimal.ONE;
+    int powerDuration = 0;
+    for (int index = 0; index < durations.length; index++) {
+      int duration = durations[index];
+      if (duration <= powerDuration || onePlusMonthlyInterestRate.signum() <= 0) {
+        discountFactors[index] = calculateDiscountFactor(monthlyInterestRate, duration);
+        continue;
+      }
+      RatePowerKey key = new RatePowerKey(monthlyInterestRate, duration);
+      BigDecimal discountFactor = RATE_POWER_CACHE.getIfPresent(key);
+      if (discountFactor == null) {
+        // Every step adds an error of a few units in the 48th digit, far below the bound.
+        power =
+            power.multiply(
+                onePlusMonthlyInterestRate.pow(duration - powerDuration, POWER_CONTEXT),
+                POWER_CONTEXT);
+        powerDuration = duration;
+        discountFactor = roundDiscountFactor(onePlusMonthlyInterestRate, power, duration);
+        RATE_POWER_CACHE.put(key, discountFactor);
+      }
+      discountFactors[index] = discountFactor;
+    }
+    return discountFactors;
+  }
+
+  BigDecimal computeDiscountFactor(BigDecimal monthlyInterestRate, int duration) {
+    BigDecimal onePlusMonthlyInterestRate = BigDecimal.ONE.add(monthlyInterestRate);
+    if (duration > 0 && onePlusMonthlyInterestRate.signum() > 0) {
+      return roundDiscountFactor(
+          onePlusMonthlyInterestRate,
+          onePlusMonthlyInterestRate.pow(duration, POWER_CONTEXT),
+          duration);
+    }
+    return computeExactDiscountFactor(onePlusMonthlyInterestRate, duration);
+  }
+
+  /** Rounds the inverse of the bounded power, using the exact power when it is ambiguous. */
+  private BigDecimal roundDiscountFactor(
+      BigDecimal onePlusMonthlyInterestRate, BigDecimal power, int duration) {
+    BigDecimal discountFactor = BigDecimal.ONE.divide(power, POWER_CONTEXT);
+    BigDecimal error = discountFactor.multiply(RELATIVE_ERROR);
+    BigDecimal lowerBound = discountFactor.subtract(error).setScale(SCALE, RoundingMode.HALF_DOWN);
+    BigDecimal upperBound = discountFactor.add(error).setScale(SCALE, RoundingMode.HALF_DOWN);
+    if (lowerBound.equals(upperBound)) {
+      return lowerBound;
+    }
+    return computeExactDiscountFactor(onePlusMonthlyInterestRate, duration);
+  }
+
+  private BigDecimal computeExactDiscountFactor(
+      BigDecimal onePlusMonthlyInterestRate, int duration) {
+    return BigDecimal.ONE.divide(
+        onePlusMonthlyInterestRate.pow(duration), SCALE, RoundingMode.HALF_DOWN);
+  }
+
+  @Value
+  private static class RatePowerKey {
+    BigDecimal monthlyInterestRate;
+    int duration;
+  }
+}
@@ -0,0 +1,27 @@
+package com.loan.loanservice.utils;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import lombok.experimental.UtilityClass;
+
+@UtilityClass
+public class RepaymentDateUtil {
+
+  private static final int SHORTEST_MONTH_LENGTH = 28;
+
+  /**
+   * Date of the repayment {@code month} months after the start date, the same as adding one month
+   * {@code month} times. Adding months one by one keeps the shortest day of month passed on the
+   * way, e.g. January 31st, February 29th, March 29th.
+   */
+  public LocalDateTime repaymentDate(LocalDateTime startDate, int month) {
+    int dayOfMonth = startDate.getDayOfMonth();
+    YearMonth yearMonth = YearMonth.from(startDate);
+    // Stops at the latest after a February, every month has at least as many days.
+    for (int i = 1; i <= month && dayOfMonth > SHORTEST_MONTH_LENGTH; i++) {
+      yearMonth = yearMonth.plusMonths(1);
+      dayOfMonth = Math.min(dayOfMonth, yearMonth.lengthOfMonth());
+    }
+    return startDate.plusMonths(month).withDayOfMonth(dayOfMonth);
+  }
+}
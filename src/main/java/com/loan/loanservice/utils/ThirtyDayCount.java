@@ -0,0 +1,24 @@
+package com.loan.loanservice.utils;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/** 30/360, every period is a twelfth of a year. */
+final class ThirtyDayCount implements DayCount {
+
+  static final BigDecimal DAYS_IN_MONTH = BigDecimal.valueOf(30);
+  static final BigDecimal DAYS_IN_YEAR = BigDecimal.valueOf(360);
+
+  private static final DayFractions DAY_FRACTIONS =
+      DayFractions.constant(DAYS_IN_MONTH, DAYS_IN_YEAR);
+
+  @Override
+  public boolean dependsOnStartDate() {
+    return false;
+  }
+
+  @Override
+  public DayFractions dayFractions(LocalDateTime startDate, int durationInMonth) {
+    return DAY_FRACTIONS;
+  }
+}
@@ -1,7 +1,9 @@
 package com.loan.loanservice;
 
 import com.loan.loanservice.controller.LoanController;
+import com.loan.loanservice.service.CoalescingLoanPlanService;
 import com.loan.loanservice.service.LoanPlanGeneratorService;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.assertj.core.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -14,9 +16,26 @@ class LoanServiceApplicationTest {
 
   @Autowired private LoanPlanGeneratorService generatorService;
 
+  @Autowired private CoalescingLoanPlanService coalescingLoanPlanService;
+
+  @Autowired private MeterRegistry meterRegistry;
+
   @Test
   public void shouldLoadContext() {
     Assertions.assertThat(loanController).isNotNull();
     Assertions.assertThat(generatorService).isNotNull();
   }
+
+  @Test
+  public void shouldBindCoalescingMetersWithoutCircularReference() {
+    Assertions.assertThat(coalescingLoanPlanService.inFlight()).isZero();
+    Assertions.assertThat(meterRegistry.get("loan.plan.coalescing.in.flight").gauge().value())
+        .isZero();
+    Assertions.assertThat(
+            meterRegistry
+                .get("loan.plan.coalescing.requests")
+                .tag("result", "computed")
+                .functionCounter())
+        .isNotNull();
+  }
 }
@@ -1,10 +1,19 @@
 package com.loan.loanservice.controller;
 
+import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.loan.loanservice.domain.LoanEvent;
+import com.loan.loanservice.domain.LoanGridRequest;
 import com.loan.loanservice.domain.LoanRequest;
+import com.loan.loanservice.domain.LoanScenarioRequest;
+import com.loan.loanservice.domain.MonthlyRepayment;
 import com.loan.loanservice.service.LoanPlanGeneratorService;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
 import org.assertj.core.api.Assertions;
 import org.hamcrest.Matchers;
 import org.junit.jupiter.api.Test;
@@ -14,6 +23,8 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.ResultActions;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
 import org.springframework.web.bind.MethodArgumentNotValidException;
@@ -34,7 +45,7 @@ public class LoanControllerIT {
     String valueAsString =
         objectMapper.writer().withDefaultPrettyPrinter().writeValueAsString(request);
 
-    mvc.perform(
+    performAsync(
             MockMvcRequestBuilders.post(URI)
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(valueAsString))
@@ -48,7 +59,7 @@ public class LoanControllerIT {
         .andExpect(MockMvcResultMatchers.jsonPath("$[0].interest", Matchers.is(20.83)))
         .andExpect(
             MockMvcResultMatchers.jsonPath("$[0].remainingOutstandingPrincipal", Matchers.is(0.0)))
-        .andExpect(MockMvcResultMatchers.jsonPath("$[0].date", Matchers.is("2020-05-01T00:00:01")));
+        .andExpect(MockMvcResultMatchers.jsonPath("$[0].date", Matchers.is("2099-05-01T00:00:01")));
   }
 
   @Test
@@ -192,12 +203,219 @@ public class LoanControllerIT {
         .contains("[durationInMonth must be greater than or equal to 1]");
   }
 
+  @Test
+  public void shouldReturnLoanPlansAndErrorsForBatch() throws Exception {
+    LoanRequest request = getLoanRequest();
+    request.setStartDate(LocalDateTime.now().plusDays(1));
+    LoanRequest invalidRequest = getLoanRequest();
+    invalidRequest.setStartDate(LocalDateTime.now().plusDays(1));
+    invalidRequest.setLoanAmount(BigDecimal.ZERO);
+    String valueAsString =
+        objectMapper.writer().writeValueAsString(Arrays.asList(request, invalidRequest));
+
+    mvc.perform(
+            MockMvcRequestBuilders.post("/generate-plans")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(valueAsString))
+        .andExpect(MockMvcResultMatchers.status().isOk())
+        .andExpect(MockMvcResultMatchers.jsonPath("$", Matchers.hasSize(2)))
+        .andExpect(MockMvcResultMatchers.jsonPath("$[0].plan", Matchers.hasSize(1)))
+        .andExpect(
+            MockMvcResultMatchers.jsonPath(
+                "$[0].plan[0].borrowerPaymentAmount", Matchers.is(5020.83)))
+        .andExpect(
+            MockMvcResultMatchers.jsonPath(
+                "$[1].errors[0]",
+                Matchers.is("loanAmount: loanAmount must be greater than or equal to 1")));
+  }
+
+  @Test
+  public void shouldReturnLoanGrid() throws Exception {
+    LoanGridRequest request =
+        LoanGridRequest.builder()
+            .nominalRates(Arrays.asList(new BigDecimal(5), new BigDecimal(6)))
+            .durationsInMonth(Arrays.asList(24, 12))
+            .loanAmounts(Arrays.asList(new BigDecimal(5000)))
+            .startDate(LocalDateTime.now().plusDays(1))
+            .build();
+
+    mvc.perform(
+            MockMvcRequestBuilders.post("/generate-plans/grid")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writer().writeValueAsString(request)))
+        .andExpect(MockMvcResultMatchers.status().isOk())
+        .andExpect(MockMvcResultMatchers.jsonPath("$", Matchers.hasSize(4)))
+        .andExpect(MockMvcResultMatchers.jsonPath("$[0].durationInMonth", Matchers.is(24)))
+        .andExpect(MockMvcResultMatchers.jsonPath("$[0].summary.annuity", Matchers.is(219.36)))
+        .andExpect(MockMvcResultMatchers.jsonPath("$[0].plan").doesNotExist());
+  }
+
+  @Test
+  public void shouldThrowValidationExceptionWhenGridRateIsZero() throws Exception {
+    LoanGridRequest request =
+        LoanGridRequest.builder()
+            .nominalRates(Arrays.asList(new BigDecimal(5), BigDecimal.ZERO))
+            .durationsInMonth(Arrays.asList(24))
+            .loanAmounts(Arrays.asList(new BigDecimal(5000)))
+            .startDate(LocalDateTime.now().plusDays(1))
+            .build();
+
+    MvcResult mvcResult =
+        mvc.perform(
+                MockMvcRequestBuilders.post("/generate-plans/grid")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writer().writeValueAsString(request)))
+            .andExpect(MockMvcResultMatchers.status().isBadRequest())
+            .andReturn();
+    Assertions.assertThat(mvcResult.getResolvedException().getMessage())
+        .contains("nominalRate(annual) must be greater than or equal to 1");
+  }
+
+  @Test
+  public void shouldReturnLoanScenario() throws Exception {
+    LoanRequest loanRequest = getLoanRequest();
+    loanRequest.setStartDate(LocalDateTime.parse("2030-01-31T00:00:01"));
+    loanRequest.setDurationInMonth(24);
+    LoanScenarioRequest request =
+        new LoanScenarioRequest(
+            loanRequest,
+            Arrays.asList(
+                LoanEvent.builder().month(12).extraRepayment(new BigDecimal(2000)).build()));
+
+    performAsync(
+            MockMvcRequestBuilders.post("/generate-plan/scenario")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writer().writeValueAsString(request)))
+        .andExpect(MockMvcResultMatchers.status().isCreated())
+        .andExpect(MockMvcResultMatchers.jsonPath("$", Matchers.hasSize(14)))
+        .andExpect(MockMvcResultMatchers.jsonPath("$[11].principal", Matchers.is(2207.82)))
+        .andExpect(MockMvcResultMatchers.jsonPath("$[13].remainingOutstandingPrincipal").value(0));
+  }
+
+  @Test
+  public void shouldThrowValidationExceptionWhenEventMonthIsZero() throws Exception {
+    LoanRequest loanRequest = getLoanRequest();
+    loanRequest.setStartDate(LocalDateTime.parse("2030-01-31T00:00:01"));
+    LoanScenarioRequest request =
+        new LoanScenarioRequest(
+            loanRequest,
+            Arrays.asList(LoanEvent.builder().month(0).nominalRate(new BigDecimal(4)).build()));
+
+    MvcResult mvcResult =
+        mvc.perform(
+                MockMvcRequestBuilders.post("/generate-plan/scenario")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writer().writeValueAsString(request)))
+            .andExpect(MockMvcResultMatchers.status().isBadRequest())
+            .andReturn();
+    Assertions.assertThat(mvcResult.getResolvedException().getMessage())
+        .contains("month must be greater than or equal to 1");
+  }
+
+  @Test
+  public void shouldStreamLoanPlanAsNdjson() throws Exception {
+    LoanRequest request = getLoanRequest();
+    request.setStartDate(LocalDateTime.parse("2030-01-31T00:00:01"));
+    request.setDurationInMonth(3);
+    String valueAsString = objectMapper.writer().writeValueAsString(request);
+
+    MvcResult mvcResult =
+        mvc.perform(
+                MockMvcRequestBuilders.post(URI)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .accept("application/x-ndjson")
+                    .content(valueAsString))
+            .andExpect(MockMvcResultMatchers.request().asyncStarted())
+            .andReturn();
+    String content =
+        mvc.perform(MockMvcRequestBuilders.asyncDispatch(mvcResult))
+            .andExpect(MockMvcResultMatchers.status().isCreated())
+            .andExpect(MockMvcResultMatchers.content().contentType("application/x-ndjson"))
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+
+    String[] lines = content.split("\n");
+    Assertions.assertThat(lines).hasSize(3);
+    Assertions.assertThat(lines[1]).contains("\"date\":\"2030-02-28T00:00:01\"");
+    Assertions.assertThat(lines[2]).contains("\"remainingOutstandingPrincipal\":0");
+  }
+
+  @Test
+  public void shouldReturnLoanPlanAsSmile() throws Exception {
+    assertBinaryLoanPlan(
+        LoanMediaTypes.APPLICATION_SMILE_VALUE,
+        new ObjectMapper(new SmileFactory()).findAndRegisterModules());
+  }
+
+  @Test
+  public void shouldReturnLoanPlanAsCbor() throws Exception {
+    assertBinaryLoanPlan(
+        LoanMediaTypes.APPLICATION_CBOR_VALUE,
+        new ObjectMapper(new CBORFactory()).findAndRegisterModules());
+  }
+
+  @Test
+  public void shouldExposeLoanPlanMetrics() throws Exception {
+    LoanRequest request = getLoanRequest();
+    request.setStartDate(LocalDateTime.now().plusDays(1));
+    performAsync(
+            MockMvcRequestBuilders.post(URI)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writer().writeValueAsString(request)))
+        .andExpect(MockMvcResultMatchers.status().isCreated());
+
+    mvc.perform(MockMvcRequestBuilders.get("/actuator/prometheus"))
+        .andExpect(MockMvcResultMatchers.status().isOk())
+        .andExpect(
+            MockMvcResultMatchers.content()
+                .string(
+                    Matchers.allOf(
+                        Matchers.containsString("loan_plan_validation_seconds_count"),
+                        Matchers.containsString("loan_plan_serialization_seconds_count"),
+                        Matchers.containsString("loan_plan_length_repayments_bucket"),
+                        Matchers.containsString("cache_gets_total{cache=\"loanPlans\""))));
+  }
+
+  private void assertBinaryLoanPlan(String mediaType, ObjectMapper binaryObjectMapper)
+      throws Exception {
+    LoanRequest request = getLoanRequest();
+    request.setStartDate(LocalDateTime.parse("2030-01-31T00:00:01"));
+    request.setDurationInMonth(3);
+    String valueAsString = objectMapper.writer().writeValueAsString(request);
+
+    byte[] content =
+        performAsync(
+                MockMvcRequestBuilders.post(URI)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .accept(mediaType)
+                    .content(valueAsString))
+            .andExpect(MockMvcResultMatchers.status().isCreated())
+            .andExpect(MockMvcResultMatchers.content().contentType(mediaType))
+            .andReturn()
+            .getResponse()
+            .getContentAsByteArray();
+
+    List<MonthlyRepayment> plan =
+        binaryObjectMapper.readValue(content, new TypeReference<List<MonthlyRepayment>>() {});
+    Assertions.assertThat(plan).isEqualTo(generatorService.generateLoanPlan(request));
+  }
+
+  /** Performs a request answered with a future and dispatches the completed response. */
+  private ResultActions performAsync(RequestBuilder request) throws Exception {
+    MvcResult mvcResult =
+        mvc.perform(request)
+            .andExpect(MockMvcResultMatchers.request().asyncStarted())
+            .andReturn();
+    return mvc.perform(MockMvcRequestBuilders.asyncDispatch(mvcResult));
+  }
+
   private LoanRequest getLoanRequest() {
     return LoanRequest.builder()
         .nominalRate(new BigDecimal(5))
         .loanAmount(new BigDecimal(5000))
         .durationInMonth(1)
-        .startDate(LocalDateTime.parse("2020-05-01T00:00:01"))
+        .startDate(LocalDateTime.parse("2099-05-01T00:00:01"))
         .build();
   }
 }
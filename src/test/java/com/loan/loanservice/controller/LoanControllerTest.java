@@ -1,43 +1,103 @@
 package com.loan.loanservice.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.loan.loanservice.configuration.LoanServiceProperties;
+import com.loan.loanservice.domain.BatchLoanPlanLine;
+import com.loan.loanservice.domain.LoanEvent;
+import com.loan.loanservice.domain.LoanGridCell;
+import com.loan.loanservice.domain.LoanGridRequest;
+import com.loan.loanservice.domain.LoanPlanResult;
+import com.loan.loanservice.domain.LoanPlanSummary;
 import com.loan.loanservice.domain.LoanRequest;
+import com.loan.loanservice.domain.LoanScenarioRequest;
 import com.loan.loanservice.domain.MonthlyRepayment;
+import com.loan.loanservice.domain.PortfolioProjection;
+import com.loan.loanservice.service.BatchLoanPlanService;
+import com.loan.loanservice.service.CoalescingLoanPlanService;
+import com.loan.loanservice.service.InFlightLoanPlans;
+import com.loan.loanservice.service.LoanGridService;
 import com.loan.loanservice.service.LoanPlanGeneratorService;
+import com.loan.loanservice.service.LoanPlanStore;
+import com.loan.loanservice.service.LoanRequestValidator;
+import com.loan.loanservice.service.LoanScenarioService;
+import com.loan.loanservice.service.PlanComputationExecutor;
+import com.loan.loanservice.service.PlanComputationRejectedException;
+import com.loan.loanservice.service.PortfolioService;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
 import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentMatchers;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.MockitoAnnotations;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 public class LoanControllerTest {
 
   @Mock private LoanPlanGeneratorService service;
+  @Mock private BatchLoanPlanService batchService;
+  @Mock private PortfolioService portfolioService;
+  @Mock private LoanGridService gridService;
+  @Mock private LoanScenarioService scenarioService;
+  @Mock private LoanPlanStore loanPlanStore;
+  @Mock private LoanRequestValidator loanRequestValidator;
 
+  private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+  private PlanComputationExecutor planComputationExecutor;
   private LoanController loanController;
 
   @BeforeEach
   public void setup() {
     MockitoAnnotations.initMocks(this);
-    loanController = new LoanController(service);
+    planComputationExecutor = new PlanComputationExecutor(new LoanServiceProperties());
+    loanController =
+        new LoanController(
+            service,
+            new CoalescingLoanPlanService(
+                new LoanServiceProperties(),
+                service,
+                planComputationExecutor,
+                new InFlightLoanPlans()),
+            planComputationExecutor,
+            loanPlanStore,
+            loanRequestValidator,
+            batchService,
+            portfolioService,
+            gridService,
+            scenarioService,
+            new LoanServiceProperties(),
+            objectMapper);
 
     Mockito.when(service.generateLoanPlan(ArgumentMatchers.any()))
         .thenReturn(createLoanPlanResponse());
   }
 
+  @AfterEach
+  public void tearDown() {
+    planComputationExecutor.shutdown();
+  }
+
   @Test
   public void shouldGenerateLoanPlan() {
     LoanRequest loanRequest = getLoanRequest();
 
     ResponseEntity<List<MonthlyRepayment>> responseEntity =
-        loanController.generateLoanPlan(loanRequest);
+        loanController.generateLoanPlan(loanRequest).join();
 
     Assertions.assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatus.CREATED);
     Assertions.assertThat(responseEntity.getBody()).isNotNull();
@@ -56,6 +116,303 @@ public class LoanControllerTest {
         .isEqualTo(LocalDateTime.parse("2020-05-01T00:00:01"));
   }
 
+  @Test
+  public void shouldReturnLocationOfStoredLoanPlan() {
+    Mockito.when(loanPlanStore.store(ArgumentMatchers.any())).thenReturn("plan-id");
+
+    ResponseEntity<List<MonthlyRepayment>> responseEntity =
+        loanController.generateLoanPlan(getLoanRequest()).join();
+
+    Assertions.assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+    Assertions.assertThat(responseEntity.getHeaders().getLocation()).hasPath("/plans/plan-id");
+  }
+
+  @Test
+  public void shouldGetStoredLoanPlan() {
+    List<MonthlyRepayment> plan = createLoanPlanResponse();
+    Mockito.when(loanPlanStore.find("plan-id")).thenReturn(Optional.of(plan));
+
+    ResponseEntity<List<MonthlyRepayment>> responseEntity = loanController.getLoanPlan("plan-id");
+
+    Assertions.assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatus.OK);
+    Assertions.assertThat(responseEntity.getBody()).isSameAs(plan);
+  }
+
+  @Test
+  public void shouldRejectUnknownLoanPlanId() {
+    ResponseStatusException exception =
+        org.junit.jupiter.api.Assertions.assertThrows(
+            ResponseStatusException.class, () -> loanController.getLoanPlan("unknown"));
+
+    Assertions.assertThat(exception.getStatus()).isEqualTo(HttpStatus.NOT_FOUND);
+  }
+
+  @Test
+  public void shouldRespondServiceUnavailableWithRetryAfterWhenPlanComputationIsRejected() {
+    ResponseEntity<String> responseEntity =
+        loanController.handlePlanComputationRejected(
+            new PlanComputationRejectedException("Too many plans", Duration.ofSeconds(3)));
+
+    Assertions.assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+    Assertions.assertThat(responseEntity.getHeaders().getFirst(HttpHeaders.RETRY_AFTER))
+        .isEqualTo("3");
+  }
+
+  @Test
+  public void shouldGenerateLoanPlanPage() {
+    LoanRequest loanRequest = getLoanRequest();
+    Mockito.when(service.generateLoanPlan(loanRequest, 120, Integer.MAX_VALUE))
+        .thenReturn(createLoanPlanResponse());
+
+    ResponseEntity<List<MonthlyRepayment>> responseEntity =
+        loanController.generateLoanPlanPage(loanRequest, 120, null).join();
+
+    Assertions.assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+    Assertions.assertThat(responseEntity.getBody()).isEqualTo(createLoanPlanResponse());
+  }
+
+  @Test
+  public void shouldRejectNegativeOffset() {
+    ResponseStatusException exception =
+        org.junit.jupiter.api.Assertions.assertThrows(
+            ResponseStatusException.class,
+            () -> loanController.generateLoanPlanPage(getLoanRequest(), -1, 60));
+    Assertions.assertThat(exception.getStatus()).isEqualTo(HttpStatus.BAD_REQUEST);
+  }
+
+  @Test
+  public void shouldSummarizeLoanPlan() {
+    LoanRequest loanRequest = getLoanRequest();
+    LoanPlanSummary summary =
+        LoanPlanSummary.builder()
+            .annuity(new BigDecimal("5020.83"))
+            .numberOfRepayments(1)
+            .totalInterest(new BigDecimal("20.83"))
+            .totalBorrowerPaymentAmount(new BigDecimal("5020.83"))
+            .finalRepaymentDate(LocalDateTime.parse("2020-05-01T00:00:01"))
+            .build();
+    Mockito.when(service.summarizeLoanPlan(loanRequest)).thenReturn(summary);
+
+    ResponseEntity<LoanPlanSummary> responseEntity =
+        loanController.summarizeLoanPlan(loanRequest).join();
+
+    Assertions.assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatus.OK);
+    Assertions.assertThat(responseEntity.getBody()).isEqualTo(summary);
+  }
+
+  @Test
+  public void shouldStreamLoanPlan() throws IOException {
+    LoanRequest loanRequest = getLoanRequest();
+    Mockito.when(service.iterateLoanPlan(loanRequest))
+        .thenReturn(createLoanPlanResponse().iterator());
+
+    ResponseEntity<StreamingResponseBody> responseEntity =
+        loanController.streamLoanPlan(loanRequest);
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    responseEntity.getBody().writeTo(outputStream);
+
+    Assertions.assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+    Assertions.assertThat(responseEntity.getHeaders().getContentType())
+        .hasToString("application/x-ndjson");
+    String[] lines = outputStream.toString("UTF-8").split("\n");
+    Assertions.assertThat(lines).hasSize(1);
+    Assertions.assertThat(objectMapper.readValue(lines[0], MonthlyRepayment.class))
+        .isEqualTo(createLoanPlanResponse().get(0));
+  }
+
+  @Test
+  public void shouldStreamLoanPlans() throws IOException {
+    List<LoanRequest> loanRequests = Arrays.asList(getLoanRequest(), getLoanRequest());
+    Mockito.doAnswer(
+            invocation -> {
+              Consumer<BatchLoanPlanLine> consumer = invocation.getArgument(1);
+              consumer.accept(
+                  BatchLoanPlanLine.builder()
+                      .index(0)
+                      .repayment(createLoanPlanResponse().get(0))
+                      .build());
+              consumer.accept(
+                  BatchLoanPlanLine.builder()
+                      .index(1)
+                      .errors(Collections.singletonList("error"))
+                      .build());
+              return null;
+            })
+        .when(batchService)
+        .streamLoanPlans(ArgumentMatchers.eq(loanRequests), ArgumentMatchers.any());
+
+    ResponseEntity<StreamingResponseBody> responseEntity =
+        loanController.streamLoanPlans(loanRequests);
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    responseEntity.getBody().writeTo(outputStream);
+
+    Assertions.assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatus.OK);
+    String[] lines = outputStream.toString("UTF-8").split("\n");
+    Assertions.assertThat(lines).hasSize(2);
+    Assertions.assertThat(lines[1]).isEqualTo("{\"index\":1,\"errors\":[\"error\"]}");
+  }
+
+  @Test
+  public void shouldGenerateLoanPlans() {
+    List<LoanRequest> loanRequests = Collections.singletonList(getLoanRequest());
+    Mockito.when(batchService.generateLoanPlans(loanRequests))
+        .thenReturn(
+            Collections.singletonList(
+                LoanPlanResult.builder().plan(createLoanPlanResponse()).build()));
+
+    ResponseEntity<List<LoanPlanResult>> responseEntity =
+        loanController.generateLoanPlans(loanRequests);
+
+    Assertions.assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatus.OK);
+    Assertions.assertThat(responseEntity.getBody()).hasSize(1);
+    Assertions.assertThat(responseEntity.getBody().get(0).getPlan())
+        .isEqualTo(createLoanPlanResponse());
+  }
+
+  @Test
+  public void shouldRejectTooLargeBatch() {
+    LoanServiceProperties loanServiceProperties = new LoanServiceProperties();
+    loanServiceProperties.getBatch().setMaximumSize(1);
+    loanController =
+        new LoanController(
+            service,
+            new CoalescingLoanPlanService(
+                loanServiceProperties, service, planComputationExecutor, new InFlightLoanPlans()),
+            planComputationExecutor,
+            loanPlanStore,
+            loanRequestValidator,
+            batchService,
+            portfolioService,
+            gridService,
+            scenarioService,
+            loanServiceProperties,
+            objectMapper);
+    List<LoanRequest> loanRequests = Arrays.asList(getLoanRequest(), getLoanRequest());
+
+    ResponseStatusException exception =
+        org.junit.jupiter.api.Assertions.assertThrows(
+            ResponseStatusException.class, () -> loanController.generateLoanPlans(loanRequests));
+    Assertions.assertThat(exception.getStatus()).isEqualTo(HttpStatus.BAD_REQUEST);
+    Mockito.verifyZeroInteractions(batchService);
+  }
+
+  @Test
+  public void shouldProjectPortfolio() {
+    List<LoanRequest> loanRequests = Arrays.asList(getLoanRequest(), getLoanRequest());
+    PortfolioProjection portfolioProjection =
+        PortfolioProjection.builder()
+            .numberOfLoans(2)
+            .months(Collections.emptyList())
+            .rejectedLoans(Collections.emptyList())
+            .build();
+    Mockito.when(portfolioService.projectPortfolio(loanRequests)).thenReturn(portfolioProjection);
+
+    ResponseEntity<PortfolioProjection> responseEntity =
+        loanController.projectPortfolio(loanRequests);
+
+    Assertions.assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatus.OK);
+    Assertions.assertThat(responseEntity.getBody()).isEqualTo(portfolioProjection);
+  }
+
+  @Test
+  public void shouldRejectTooLargePortfolio() {
+    LoanServiceProperties loanServiceProperties = new LoanServiceProperties();
+    loanServiceProperties.getPortfolio().setMaximumSize(1);
+    loanController =
+        new LoanController(
+            service,
+            new CoalescingLoanPlanService(
+                loanServiceProperties, service, planComputationExecutor, new InFlightLoanPlans()),
+            planComputationExecutor,
+            loanPlanStore,
+            loanRequestValidator,
+            batchService,
+            portfolioService,
+            gridService,
+            scenarioService,
+            loanServiceProperties,
+            objectMapper);
+    List<LoanRequest> loanRequests = Arrays.asList(getLoanRequest(), getLoanRequest());
+
+    ResponseStatusException exception =
+        org.junit.jupiter.api.Assertions.assertThrows(
+            ResponseStatusException.class, () -> loanController.projectPortfolio(loanRequests));
+    Assertions.assertThat(exception.getStatus()).isEqualTo(HttpStatus.BAD_REQUEST);
+    Mockito.verifyZeroInteractions(portfolioService);
+  }
+
+  @Test
+  public void shouldGenerateLoanGrid() {
+    LoanGridRequest loanGridRequest = getLoanGridRequest();
+    List<LoanGridCell> cells =
+        Collections.singletonList(
+            LoanGridCell.builder()
+                .nominalRate(new BigDecimal(5))
+                .durationInMonth(24)
+                .loanAmount(new BigDecimal(5000))
+                .build());
+    Mockito.when(gridService.generateLoanGrid(loanGridRequest)).thenReturn(cells);
+
+    ResponseEntity<List<LoanGridCell>> responseEntity =
+        loanController.generateLoanGrid(loanGridRequest);
+
+    Assertions.assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatus.OK);
+    Assertions.assertThat(responseEntity.getBody()).isEqualTo(cells);
+  }
+
+  @Test
+  public void shouldRejectTooLargeGrid() {
+    LoanServiceProperties loanServiceProperties = new LoanServiceProperties();
+    loanServiceProperties.getGrid().setMaximumSize(7);
+    loanController =
+        new LoanController(
+            service,
+            new CoalescingLoanPlanService(
+                loanServiceProperties, service, planComputationExecutor, new InFlightLoanPlans()),
+            planComputationExecutor,
+            loanPlanStore,
+            loanRequestValidator,
+            batchService,
+            portfolioService,
+            gridService,
+            scenarioService,
+            loanServiceProperties,
+            objectMapper);
+    LoanGridRequest loanGridRequest = getLoanGridRequest();
+
+    ResponseStatusException exception =
+        org.junit.jupiter.api.Assertions.assertThrows(
+            ResponseStatusException.class, () -> loanController.generateLoanGrid(loanGridRequest));
+    Assertions.assertThat(exception.getStatus()).isEqualTo(HttpStatus.BAD_REQUEST);
+    Mockito.verifyZeroInteractions(gridService);
+  }
+
+  @Test
+  public void shouldGenerateLoanScenario() {
+    LoanScenarioRequest loanScenarioRequest =
+        new LoanScenarioRequest(
+            getLoanRequest(),
+            Collections.singletonList(
+                LoanEvent.builder().month(1).extraRepayment(new BigDecimal(1000)).build()));
+    Mockito.when(scenarioService.generateLoanScenario(loanScenarioRequest))
+        .thenReturn(createLoanPlanResponse());
+
+    ResponseEntity<List<MonthlyRepayment>> responseEntity =
+        loanController.generateLoanScenario(loanScenarioRequest).join();
+
+    Assertions.assertThat(responseEntity.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+    Assertions.assertThat(responseEntity.getBody()).isEqualTo(createLoanPlanResponse());
+  }
+
+  private LoanGridRequest getLoanGridRequest() {
+    return LoanGridRequest.builder()
+        .nominalRates(Arrays.asList(new BigDecimal(5), new BigDecimal(6)))
+        .durationsInMonth(Arrays.asList(12, 24))
+        .loanAmounts(Arrays.asList(new BigDecimal(5000), new BigDecimal(10000)))
+        .startDate(LocalDateTime.now())
+        .build();
+  }
+
   private List<MonthlyRepayment> createLoanPlanResponse() {
     return Collections.singletonList(
         MonthlyRepayment.builder()
@@ -0,0 +1,149 @@
+package com.loan.loanservice.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.loan.loanservice.domain.BatchLoanPlanLine;
+import com.loan.loanservice.domain.LoanRequest;
+import com.loan.loanservice.domain.MonthlyRepayment;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("reactive")
+public class ReactiveLoanControllerIT {
+
+  private static final MediaType APPLICATION_NDJSON =
+      MediaType.parseMediaType("application/x-ndjson");
+
+  @Autowired private WebTestClient webTestClient;
+  @Autowired private ObjectMapper objectMapper;
+
+  @Test
+  public void shouldStreamLoanPlan() {
+    List<MonthlyRepayment> repayments =
+        webTestClient
+            .post()
+            .uri("/generate-plan")
+            .contentType(MediaType.APPLICATION_JSON)
+            .accept(APPLICATION_NDJSON)
+            .bodyValue(getLoanRequest(24))
+            .exchange()
+            .expectStatus()
+            .isCreated()
+            .expectHeader()
+            .contentTypeCompatibleWith(APPLICATION_NDJSON)
+            .returnResult(String.class)
+            .getResponseBody()
+            .map(line -> readValue(line, MonthlyRepayment.class))
+            .collectList()
+            .block();
+
+    Assertions.assertThat(repayments).hasSize(24);
+    Assertions.assertThat(repayments.get(23).getRemainingOutstandingPrincipal())
+        .isEqualByComparingTo(BigDecimal.ZERO);
+  }
+
+  @Test
+  public void shouldGenerateLoanPlan() {
+    webTestClient
+        .post()
+        .uri("/generate-plan")
+        .contentType(MediaType.APPLICATION_JSON)
+        .accept(MediaType.APPLICATION_JSON)
+        .bodyValue(getLoanRequest(24))
+        .exchange()
+        .expectStatus()
+        .isCreated()
+        .expectBody()
+        .jsonPath("$.length()")
+        .isEqualTo(24);
+  }
+
+  @Test
+  public void shouldRejectInvalidLoanRequest() {
+    LoanRequest loanRequest = getLoanRequest(24);
+    loanRequest.setLoanAmount(BigDecimal.ZERO);
+
+    webTestClient
+        .post()
+        .uri("/generate-plan")
+        .contentType(MediaType.APPLICATION_JSON)
+        .bodyValue(loanRequest)
+        .exchange()
+        .expectStatus()
+        .isBadRequest();
+  }
+
+  @Test
+  public void shouldStreamLoanPlansOfBatch() {
+    LoanRequest invalidLoanRequest = getLoanRequest(12);
+    invalidLoanRequest.setNominalRate(null);
+
+    List<BatchLoanPlanLine> lines =
+        webTestClient
+            .post()
+            .uri("/generate-plans")
+            .contentType(MediaType.APPLICATION_JSON)
+            .accept(APPLICATION_NDJSON)
+            .bodyValue(Arrays.asList(getLoanRequest(2), invalidLoanRequest, getLoanRequest(3)))
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .returnResult(String.class)
+            .getResponseBody()
+            .map(line -> readValue(line, BatchLoanPlanLine.class))
+            .collectList()
+            .block();
+
+    Assertions.assertThat(lines)
+        .extracting(BatchLoanPlanLine::getIndex)
+        .containsExactly(0, 0, 1, 2, 2, 2);
+    Assertions.assertThat(lines.get(2).getErrors())
+        .containsExactly("nominalRate: NominalRate(annual) must not null");
+  }
+
+  @Test
+  public void shouldGenerateLoanPlansOfBatch() {
+    webTestClient
+        .post()
+        .uri("/generate-plans")
+        .contentType(MediaType.APPLICATION_JSON)
+        .accept(MediaType.APPLICATION_JSON)
+        .bodyValue(Arrays.asList(getLoanRequest(2), getLoanRequest(3)))
+        .exchange()
+        .expectStatus()
+        .isOk()
+        .expectBody()
+        .jsonPath("$[0].plan.length()")
+        .isEqualTo(2)
+        .jsonPath("$[1].plan.length()")
+        .isEqualTo(3);
+  }
+
+  private <T> T readValue(String line, Class<T> type) {
+    try {
+      return objectMapper.readValue(line, type);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private LoanRequest getLoanRequest(int durationInMonth) {
+    return LoanRequest.builder()
+        .nominalRate(new BigDecimal(5))
+        .loanAmount(new BigDecimal(5000))
+        .durationInMonth(durationInMonth)
+        .startDate(LocalDateTime.now().plusDays(1))
+        .build();
+  }
+}
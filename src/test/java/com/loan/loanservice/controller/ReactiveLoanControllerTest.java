@@ -0,0 +1,138 @@
+package com.loan.loanservice.controller;
+
+import com.loan.loanservice.configuration.LoanServiceProperties;
+import com.loan.loanservice.domain.LoanRequest;
+import com.loan.loanservice.domain.MonthlyRepayment;
+import com.loan.loanservice.service.BatchLoanPlanService;
+import com.loan.loanservice.service.LoanPlanGeneratorService;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.MockitoAnnotations;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+
+public class ReactiveLoanControllerTest {
+
+  @Mock private LoanPlanGeneratorService service;
+  @Mock private BatchLoanPlanService batchService;
+
+  private ReactiveLoanController loanController;
+
+  @BeforeEach
+  public void setup() {
+    MockitoAnnotations.initMocks(this);
+    loanController =
+        new ReactiveLoanController(
+            service, batchService, new LoanServiceProperties(), Schedulers.immediate());
+  }
+
+  @Test
+  public void shouldOnlyCalculateRequestedRepayments() {
+    LoanRequest loanRequest = getLoanRequest();
+    AtomicInteger calculatedRepayments = new AtomicInteger();
+    Mockito.when(service.iterateLoanPlan(loanRequest))
+        .thenReturn(countingIterator(calculatedRepayments));
+
+    StepVerifier.create(loanController.streamLoanPlan(loanRequest), 0)
+        .thenRequest(2)
+        .expectNextCount(2)
+        .then(() -> Assertions.assertThat(calculatedRepayments).hasValue(2))
+        .thenRequest(1)
+        .expectNextCount(1)
+        .then(() -> Assertions.assertThat(calculatedRepayments).hasValue(3))
+        .thenCancel()
+        .verify();
+  }
+
+  @Test
+  public void shouldCalculateRepaymentsAsSlowConsumerRequestsThem() {
+    LoanRequest loanRequest = getLoanRequest();
+    AtomicInteger calculatedRepayments = new AtomicInteger();
+    Mockito.when(service.iterateLoanPlan(loanRequest))
+        .thenReturn(countingIterator(calculatedRepayments));
+    Scheduler scheduler = Schedulers.newSingle("plan-computation");
+    loanController =
+        new ReactiveLoanController(service, batchService, new LoanServiceProperties(), scheduler);
+
+    try {
+      StepVerifier.create(loanController.streamLoanPlan(loanRequest), 1)
+          .expectNextCount(1)
+          .thenAwait(Duration.ofMillis(100))
+          .then(() -> Assertions.assertThat(calculatedRepayments).hasValue(1))
+          .thenRequest(1)
+          .expectNextCount(1)
+          .thenAwait(Duration.ofMillis(100))
+          .then(() -> Assertions.assertThat(calculatedRepayments).hasValue(2))
+          .thenCancel()
+          .verify(Duration.ofSeconds(5));
+    } finally {
+      scheduler.dispose();
+    }
+  }
+
+  @Test
+  public void shouldCalculateJsonLoanPlanAsWhole() {
+    LoanRequest loanRequest = getLoanRequest();
+    List<MonthlyRepayment> repayments =
+        Collections.singletonList(MonthlyRepayment.builder().principal(BigDecimal.ONE).build());
+    Mockito.when(service.generateLoanPlan(loanRequest)).thenReturn(repayments);
+
+    StepVerifier.create(loanController.generateLoanPlan(loanRequest))
+        .expectNext(repayments)
+        .verifyComplete();
+  }
+
+  @Test
+  public void shouldRejectTooLargeBatch() {
+    LoanServiceProperties loanServiceProperties = new LoanServiceProperties();
+    loanServiceProperties.getBatch().setMaximumSize(1);
+    loanController =
+        new ReactiveLoanController(
+            service, batchService, loanServiceProperties, Schedulers.immediate());
+
+    ResponseStatusException exception =
+        org.junit.jupiter.api.Assertions.assertThrows(
+            ResponseStatusException.class,
+            () ->
+                loanController.streamLoanPlans(Arrays.asList(getLoanRequest(), getLoanRequest())));
+    Assertions.assertThat(exception.getStatus()).isEqualTo(HttpStatus.BAD_REQUEST);
+  }
+
+  private Iterator<MonthlyRepayment> countingIterator(AtomicInteger calculatedRepayments) {
+    return new Iterator<MonthlyRepayment>() {
+      @Override
+      public boolean hasNext() {
+        return true;
+      }
+
+      @Override
+      public MonthlyRepayment next() {
+        calculatedRepayments.incrementAndGet();
+        return MonthlyRepayment.builder().principal(BigDecimal.ONE).build();
+      }
+    };
+  }
+
+  private LoanRequest getLoanRequest() {
+    return LoanRequest.builder()
+        .nominalRate(new BigDecimal(5))
+        .loanAmount(new BigDecimal(5000))
+        .durationInMonth(24)
+        .startDate(LocalDateTime.now().plusDays(1))
+        .build();
+  }
+}
@@ -0,0 +1,202 @@
+package com.loan.loanservice.job;
+
+import com.loan.loanservice.configuration.LoanServiceProperties;
+import com.loan.loanservice.domain.LoanRequest;
+import com.loan.loanservice.domain.MonthlyRepayment;
+import com.loan.loanservice.service.LoanPlanCache;
+import com.loan.loanservice.service.LoanPlanGeneratorService;
+import com.loan.loanservice.service.LoanPlanMetrics;
+import com.loan.loanservice.service.RateCardIndex;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import javax.validation.Validation;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class LoanPlanJobTest {
+
+  private static final String HEADER = "id,loanAmount,nominalRate,durationInMonth,startDate";
+
+  @TempDir Path directory;
+
+  private ForkJoinPool batchComputationPool;
+  private LoanPlanGeneratorService planGeneratorService;
+  private LoanPlanJob loanPlanJob;
+
+  @BeforeEach
+  public void setup() {
+    LoanServiceProperties loanServiceProperties = new LoanServiceProperties();
+    loanServiceProperties.getJob().setChunkSize(3);
+    loanServiceProperties.getJob().setCheckpointInterval(Duration.ZERO);
+    batchComputationPool = new ForkJoinPool(4);
+    planGeneratorService =
+        new LoanPlanGeneratorService(
+            loanServiceProperties,
+            new LoanPlanCache(loanServiceProperties),
+            new LoanPlanMetrics(new SimpleMeterRegistry()),
+            new RateCardIndex(loanServiceProperties));
+    loanPlanJob =
+        new LoanPlanJob(
+            planGeneratorService,
+            Validation.buildDefaultValidatorFactory().getValidator(),
+            batchComputationPool,
+            loanServiceProperties);
+  }
+
+  @AfterEach
+  public void tearDown() {
+    batchComputationPool.shutdown();
+  }
+
+  @Test
+  public void shouldWritePlansInInputOrder() throws IOException {
+    List<String> lines = new ArrayList<>();
+    lines.add(HEADER);
+    for (int duration = 1; duration <= 20; duration++) {
+      lines.add("loan-" + duration + ",5000," + "5.0," + duration + ",2019-01-01T00:00:01");
+    }
+    Path input = write("loans.csv", lines);
+
+    JobCheckpoint result = loanPlanJob.run(input, directory.resolve("out"));
+
+    List<String> expected = new ArrayList<>();
+    expected.add(
+        "id,date,borrowerPaymentAmount,interest,principal,"
+            + "initialOutstandingPrincipal,remainingOutstandingPrincipal");
+    for (int duration = 1; duration <= 20; duration++) {
+      for (MonthlyRepayment repayment :
+          planGeneratorService.generateLoanPlan(getLoanRequest(duration))) {
+        expected.add(
+            String.join(
+                ",",
+                "loan-" + duration,
+                repayment.getDate().toString(),
+                repayment.getBorrowerPaymentAmount().toPlainString(),
+                repayment.getInterest().toPlainString(),
+                repayment.getPrincipal().toPlainString(),
+                repayment.getInitialOutstandingPrincipal().toPlainString(),
+                repayment.getRemainingOutstandingPrincipal().toPlainString()));
+      }
+    }
+    Assertions.assertThat(Files.readAllLines(directory.resolve("out/plans.csv")))
+        .isEqualTo(expected);
+    Assertions.assertThat(Files.readAllLines(directory.resolve("out/rejected.csv")))
+        .containsExactly("id,errors");
+    Assertions.assertThat(result.getLoans()).isEqualTo(20);
+    Assertions.assertThat(result.getRepayments()).isEqualTo(expected.size() - 1);
+    Assertions.assertThat(directory.resolve("out/checkpoint.properties")).doesNotExist();
+  }
+
+  @Test
+  public void shouldRejectInvalidLines() throws IOException {
+    Path input =
+        write(
+            "loans.csv",
+            Arrays.asList(
+                HEADER,
+                "a,5000,5.0,12,2019-01-01T00:00:01",
+                "b,5000,5.0,0,2019-01-01T00:00:01",
+                "c,5000,five,12,2019-01-01T00:00:01",
+                "d,5000,5.0,12",
+                "",
+                "e,1,100,1200,2019-01-01T00:00:01"));
+
+    JobCheckpoint result = loanPlanJob.run(input, directory);
+
+    Assertions.assertThat(Files.readAllLines(directory.resolve(LoanPlanJob.REJECTED_FILE)))
+        .containsExactly(
+            "id,errors",
+            "b,\"durationInMonth: durationInMonth must be greater than or equal to 1\"",
+            "c,\"nominalRate: invalid value five\"",
+            "d,\"Expected 5 values but found 4\"",
+            "e,\"Invalid Loan Request. Annuity does not cover the monthly interest.\"");
+    Assertions.assertThat(result.getLoans()).isEqualTo(1);
+    Assertions.assertThat(result.getRejectedLoans()).isEqualTo(4);
+    Assertions.assertThat(result.getRepayments()).isEqualTo(12);
+  }
+
+  @Test
+  public void shouldResumeFromCheckpoint() throws IOException {
+    List<String> lines = new ArrayList<>();
+    lines.add(HEADER);
+    for (int duration = 1; duration <= 20; duration++) {
+      lines.add("loan-" + duration + ",5000," + "5.0," + duration + ",2019-01-01T00:00:01");
+    }
+    lines.add("invalid,5000,5.0,0,2019-01-01T00:00:01");
+    Path input = write("loans.csv", lines);
+    Path expected = directory.resolve("expected");
+    loanPlanJob.run(input, expected);
+
+    // Progress of a crashed job after the first 8 loans, with half written output after it.
+    Path head = write("head.csv", lines.subList(0, 9));
+    Path output = directory.resolve("output");
+    JobCheckpoint checkpoint = loanPlanJob.run(head, output);
+    checkpoint
+        .toBuilder()
+        .input(input.toAbsolutePath().normalize().toString())
+        .inputSize(Files.size(input))
+        .inputPosition(Files.size(head))
+        .build()
+        .save(output.resolve(LoanPlanJob.CHECKPOINT_FILE));
+    Files.write(
+        output.resolve(LoanPlanJob.PLANS_FILE),
+        "loan-9,2019-01-01T00:00:01,5".getBytes(StandardCharsets.UTF_8),
+        StandardOpenOption.APPEND);
+
+    JobCheckpoint result = loanPlanJob.run(input, output);
+
+    Assertions.assertThat(output.resolve(LoanPlanJob.PLANS_FILE))
+        .hasSameContentAs(expected.resolve(LoanPlanJob.PLANS_FILE));
+    Assertions.assertThat(output.resolve(LoanPlanJob.REJECTED_FILE))
+        .hasSameContentAs(expected.resolve(LoanPlanJob.REJECTED_FILE));
+    Assertions.assertThat(result.getLoans()).isEqualTo(20);
+    Assertions.assertThat(result.getRejectedLoans()).isEqualTo(1);
+  }
+
+  @Test
+  public void shouldReadLinesAcrossMappedRegions() throws IOException {
+    Path file = directory.resolve("lines.csv");
+    Files.write(
+        file,
+        "first\r\nsecond line\n\nthird, longer than a region".getBytes(StandardCharsets.UTF_8));
+
+    List<String> lines = new ArrayList<>();
+    try (MappedLineReader reader = new MappedLineReader(file, 0, 4)) {
+      String line;
+      while ((line = reader.readLine()) != null) {
+        lines.add(line);
+      }
+      Assertions.assertThat(reader.getPosition()).isEqualTo(Files.size(file));
+    }
+
+    Assertions.assertThat(lines)
+        .containsExactly("first", "second line", "", "third, longer than a region");
+  }
+
+  private Path write(String name, List<String> lines) throws IOException {
+    return Files.write(directory.resolve(name), lines);
+  }
+
+  private LoanRequest getLoanRequest(int durationInMonth) {
+    return LoanRequest.builder()
+        .loanAmount(new BigDecimal("5000"))
+        .nominalRate(new BigDecimal("5.0"))
+        .durationInMonth(durationInMonth)
+        .startDate(LocalDateTime.parse("2019-01-01T00:00:01"))
+        .build();
+  }
+}
@@ -0,0 +1,139 @@
+package com.loan.loanservice.service;
+
+import com.loan.loanservice.domain.CalculationBackend;
+import com.loan.loanservice.domain.LoanRequest;
+import com.loan.loanservice.domain.MonthlyRepayment;
+import com.loan.loanservice.utils.DayCount;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import javax.validation.ValidationException;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class AmortizationScheduleIteratorTest {
+
+  @Test
+  public void shouldIterateRepaymentsWithoutDates() {
+    AmortizationScheduleIterator iterator =
+        new AmortizationScheduleIterator(getLoanRequest(), CalculationBackend.BIG_DECIMAL);
+
+    List<MonthlyRepayment> repayments = new ArrayList<>();
+    iterator.forEachRemaining(repayments::add);
+
+    Assertions.assertThat(repayments).hasSize(24);
+    Assertions.assertThat(repayments).extracting(MonthlyRepayment::getDate).containsOnlyNulls();
+    Assertions.assertThat(repayments.get(23).getRemainingOutstandingPrincipal())
+        .isEqualTo(BigDecimal.ZERO);
+    org.junit.jupiter.api.Assertions.assertThrows(NoSuchElementException.class, iterator::next);
+  }
+
+  @Test
+  public void shouldSkipRepaymentsWithoutCreatingThem() {
+    List<MonthlyRepayment> repayments = new ArrayList<>();
+    new AmortizationScheduleIterator(getLoanRequest(), CalculationBackend.BIG_DECIMAL)
+        .forEachRemaining(repayments::add);
+
+    for (CalculationBackend calculationBackend : CalculationBackend.values()) {
+      AmortizationScheduleIterator iterator =
+          new AmortizationScheduleIterator(getLoanRequest(), calculationBackend);
+      Assertions.assertThat(iterator.skip(10)).isEqualTo(10);
+      Assertions.assertThat(iterator.next()).isEqualTo(repayments.get(10));
+      Assertions.assertThat(iterator.skip(100)).isEqualTo(13);
+      Assertions.assertThat(iterator.hasNext()).isFalse();
+    }
+  }
+
+  @Test
+  public void shouldSumRemainingRepayments() {
+    List<MonthlyRepayment> repayments = new ArrayList<>();
+    new AmortizationScheduleIterator(getLoanRequest(), CalculationBackend.BIG_DECIMAL)
+        .forEachRemaining(repayments::add);
+    BigDecimal totalInterest =
+        repayments.stream().map(MonthlyRepayment::getInterest).reduce(BigDecimal::add).get();
+    BigDecimal totalBorrowerPaymentAmount =
+        repayments.stream()
+            .map(MonthlyRepayment::getBorrowerPaymentAmount)
+            .reduce(BigDecimal::add)
+            .get();
+
+    for (CalculationBackend calculationBackend : CalculationBackend.values()) {
+      AmortizationScheduleIterator iterator =
+          new AmortizationScheduleIterator(getLoanRequest(), calculationBackend);
+      AmortizationScheduleIterator.RepaymentTotals repaymentTotals = iterator.sumRemaining();
+
+      Assertions.assertThat(repaymentTotals.getNumberOfRepayments()).isEqualTo(24);
+      Assertions.assertThat(repaymentTotals.getTotalInterest()).isEqualTo(totalInterest);
+      Assertions.assertThat(repaymentTotals.getTotalBorrowerPaymentAmount())
+          .isEqualTo(totalBorrowerPaymentAmount);
+      Assertions.assertThat(iterator.hasNext()).isFalse();
+    }
+  }
+
+  @Test
+  public void shouldContinueWithBigDecimalWhenCentsOverflow() {
+    LoanRequest loanRequest = getLoanRequest();
+    // 30 trillion in cents times the rate numerator does not fit into a long.
+    loanRequest.setLoanAmount(new BigDecimal("30000000000000"));
+    loanRequest.setNominalRate(new BigDecimal("29.99"));
+
+    List<MonthlyRepayment> expected = new ArrayList<>();
+    new AmortizationScheduleIterator(loanRequest, CalculationBackend.BIG_DECIMAL)
+        .forEachRemaining(expected::add);
+    List<MonthlyRepayment> actual = new ArrayList<>();
+    new AmortizationScheduleIterator(loanRequest, CalculationBackend.FIXED_POINT)
+        .forEachRemaining(actual::add);
+
+    Assertions.assertThat(actual).isEqualTo(expected);
+  }
+
+  @Test
+  public void shouldFailBeforeFirstRepaymentWhenAnnuityDoesNotCoverInterest() {
+    LoanRequest loanRequest = getLoanRequest();
+    loanRequest.setLoanAmount(BigDecimal.ONE);
+    loanRequest.setNominalRate(BigDecimal.ONE);
+    loanRequest.setDurationInMonth(1200);
+
+    ValidationException exception =
+        org.junit.jupiter.api.Assertions.assertThrows(
+            ValidationException.class,
+            () -> new AmortizationScheduleIterator(loanRequest, CalculationBackend.FIXED_POINT));
+    Assertions.assertThat(exception.getMessage())
+        .isEqualTo("Invalid Loan Request. Annuity does not cover the monthly interest.");
+  }
+
+  @Test
+  public void shouldContinuePlanFromOutstandingPrincipal() {
+    List<MonthlyRepayment> repayments = new ArrayList<>();
+    AmortizationScheduleIterator plan =
+        new AmortizationScheduleIterator(getLoanRequest(), CalculationBackend.BIG_DECIMAL);
+    plan.forEachRemaining(repayments::add);
+
+    for (CalculationBackend calculationBackend : CalculationBackend.values()) {
+      AmortizationScheduleIterator iterator =
+          new AmortizationScheduleIterator(
+              repayments.get(9).getRemainingOutstandingPrincipal(),
+              new BigDecimal(5),
+              plan.getAnnuity(),
+              14,
+              DayCount.THIRTY_360.dayFractions(null, 24),
+              10,
+              calculationBackend);
+      List<MonthlyRepayment> continued = new ArrayList<>();
+      iterator.forEachRemaining(continued::add);
+
+      Assertions.assertThat(continued).isEqualTo(repayments.subList(10, 24));
+    }
+  }
+
+  private LoanRequest getLoanRequest() {
+    return LoanRequest.builder()
+        .nominalRate(new BigDecimal(5))
+        .loanAmount(new BigDecimal(5000))
+        .durationInMonth(24)
+        .startDate(LocalDateTime.parse("2020-05-01T00:00:01"))
+        .build();
+  }
+}
@@ -0,0 +1,129 @@
+package com.loan.loanservice.service;
+
+import com.loan.loanservice.configuration.LoanServiceProperties;
+import com.loan.loanservice.domain.BatchLoanPlanLine;
+import com.loan.loanservice.domain.LoanPlanResult;
+import com.loan.loanservice.domain.LoanRequest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import javax.validation.Validation;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class BatchLoanPlanServiceTest {
+
+  private ForkJoinPool batchComputationPool;
+  private LoanPlanGeneratorService planGeneratorService;
+  private BatchLoanPlanService batchLoanPlanService;
+
+  @BeforeEach
+  public void setup() {
+    LoanServiceProperties loanServiceProperties = new LoanServiceProperties();
+    batchComputationPool = new ForkJoinPool(4);
+    planGeneratorService =
+        new LoanPlanGeneratorService(
+            loanServiceProperties,
+            new LoanPlanCache(loanServiceProperties),
+            new LoanPlanMetrics(new SimpleMeterRegistry()),
+            new RateCardIndex(loanServiceProperties));
+    batchLoanPlanService =
+        new BatchLoanPlanService(
+            planGeneratorService,
+            new LoanRequestValidator(
+                Validation.buildDefaultValidatorFactory(),
+                new LoanPlanMetrics(new SimpleMeterRegistry())),
+            batchComputationPool);
+  }
+
+  @AfterEach
+  public void tearDown() {
+    batchComputationPool.shutdown();
+  }
+
+  @Test
+  public void shouldGenerateLoanPlansInRequestOrder() {
+    List<LoanRequest> loanRequests = new ArrayList<>();
+    for (int duration = 1; duration <= 100; duration++) {
+      loanRequests.add(getLoanRequest(duration));
+    }
+
+    List<LoanPlanResult> loanPlanResults = batchLoanPlanService.generateLoanPlans(loanRequests);
+
+    Assertions.assertThat(loanPlanResults).hasSize(100);
+    for (int i = 0; i < loanRequests.size(); i++) {
+      Assertions.assertThat(loanPlanResults.get(i).getErrors()).isNull();
+      Assertions.assertThat(loanPlanResults.get(i).getPlan())
+          .isEqualTo(planGeneratorService.generateLoanPlan(loanRequests.get(i)));
+    }
+  }
+
+  @Test
+  public void shouldReportValidationErrorsPerRequest() {
+    LoanRequest invalidLoanRequest = getLoanRequest(0);
+    invalidLoanRequest.setLoanAmount(null);
+
+    List<LoanPlanResult> loanPlanResults =
+        batchLoanPlanService.generateLoanPlans(
+            Arrays.asList(getLoanRequest(12), invalidLoanRequest, null, getLoanRequest(24)));
+
+    Assertions.assertThat(loanPlanResults).hasSize(4);
+    Assertions.assertThat(loanPlanResults.get(0).getPlan()).hasSize(12);
+    Assertions.assertThat(loanPlanResults.get(1).getPlan()).isNull();
+    Assertions.assertThat(loanPlanResults.get(1).getErrors())
+        .containsExactly(
+            "durationInMonth: durationInMonth must be greater than or equal to 1",
+            "loanAmount: Loan amount must not null");
+    Assertions.assertThat(loanPlanResults.get(2).getErrors())
+        .containsExactly("Loan request must not null");
+    Assertions.assertThat(loanPlanResults.get(3).getPlan()).hasSize(24);
+  }
+
+  @Test
+  public void shouldReportPlansWhichCanNotBeGenerated() {
+    LoanRequest loanRequest = getLoanRequest(1200);
+    loanRequest.setLoanAmount(BigDecimal.ONE);
+    loanRequest.setNominalRate(BigDecimal.ONE);
+
+    List<LoanPlanResult> loanPlanResults =
+        batchLoanPlanService.generateLoanPlans(Arrays.asList(loanRequest));
+
+    Assertions.assertThat(loanPlanResults.get(0).getErrors())
+        .containsExactly("Invalid Loan Request. Annuity does not cover the monthly interest.");
+  }
+
+  @Test
+  public void shouldStreamLoanPlansInRequestOrder() {
+    LoanRequest invalidLoanRequest = getLoanRequest(12);
+    invalidLoanRequest.setNominalRate(null);
+    LoanRequest loanRequest = getLoanRequest(2);
+    List<BatchLoanPlanLine> lines = new ArrayList<>();
+
+    batchLoanPlanService.streamLoanPlans(
+        Arrays.asList(loanRequest, invalidLoanRequest, getLoanRequest(3)), lines::add);
+
+    Assertions.assertThat(lines)
+        .extracting(BatchLoanPlanLine::getIndex)
+        .containsExactly(0, 0, 1, 2, 2, 2);
+    Assertions.assertThat(lines.get(1).getRepayment())
+        .isEqualTo(planGeneratorService.generateLoanPlan(loanRequest).get(1));
+    Assertions.assertThat(lines.get(2).getRepayment()).isNull();
+    Assertions.assertThat(lines.get(2).getErrors())
+        .containsExactly("nominalRate: NominalRate(annual) must not null");
+  }
+
+  private LoanRequest getLoanRequest(int durationInMonth) {
+    return LoanRequest.builder()
+        .nominalRate(new BigDecimal(5))
+        .loanAmount(new BigDecimal(5000))
+        .durationInMonth(durationInMonth)
+        .startDate(LocalDateTime.now().plusDays(1))
+        .build();
+  }
+}
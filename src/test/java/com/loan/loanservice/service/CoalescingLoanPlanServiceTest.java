@@ -0,0 +1,167 @@
+package com.loan.loanservice.service;
+
+import com.loan.loanservice.configuration.LoanServiceProperties;
+import com.loan.loanservice.domain.LoanRequest;
+import com.loan.loanservice.domain.MonthlyRepayment;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import javax.validation.ValidationException;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+
+public class CoalescingLoanPlanServiceTest {
+
+  private static final int CONCURRENT_REQUESTS = 5;
+
+  private final List<MonthlyRepayment> plan =
+      Collections.singletonList(
+          MonthlyRepayment.builder().principal(new BigDecimal(5000)).build());
+
+  private LoanServiceProperties loanServiceProperties;
+  private LoanPlanGeneratorService planGeneratorService;
+  private PlanComputationExecutor planComputationExecutor;
+  private CountDownLatch computationStarted;
+  private CountDownLatch computationReleased;
+
+  @BeforeEach
+  public void setup() {
+    loanServiceProperties = new LoanServiceProperties();
+    planGeneratorService = Mockito.mock(LoanPlanGeneratorService.class);
+    computationStarted = new CountDownLatch(1);
+    computationReleased = new CountDownLatch(1);
+  }
+
+  @AfterEach
+  public void tearDown() {
+    computationReleased.countDown();
+    if (planComputationExecutor != null) {
+      planComputationExecutor.shutdown();
+    }
+  }
+
+  @Test
+  public void shouldShareComputationOfConcurrentIdenticalRequests() throws Exception {
+    // A single thread and no queue, requests sharing the computation must not be submitted.
+    loanServiceProperties.getExecution().setParallelism(1);
+    loanServiceProperties.getExecution().setQueueCapacity(0);
+    Mockito.when(planGeneratorService.generateLoanPlan(ArgumentMatchers.any()))
+        .thenAnswer(
+            invocation -> {
+              computationStarted.countDown();
+              computationReleased.await();
+              return plan;
+            });
+    CoalescingLoanPlanService coalescingService = createCoalescingService();
+
+    List<CompletableFuture<List<MonthlyRepayment>>> plans = requestConcurrently(coalescingService);
+
+    for (CompletableFuture<List<MonthlyRepayment>> future : plans) {
+      Assertions.assertThat(future.get()).isSameAs(plan);
+    }
+    Mockito.verify(planGeneratorService, Mockito.times(1)).generateLoanPlan(ArgumentMatchers.any());
+    Assertions.assertThat(coalescingService.coalescedCount()).isEqualTo(CONCURRENT_REQUESTS - 1);
+    Assertions.assertThat(planComputationExecutor.rejectedCount()).isZero();
+    Assertions.assertThat(coalescingService.inFlight()).isZero();
+  }
+
+  @Test
+  public void shouldShareExceptionOfConcurrentIdenticalRequests() throws Exception {
+    Mockito.when(planGeneratorService.generateLoanPlan(ArgumentMatchers.any()))
+        .thenAnswer(
+            invocation -> {
+              computationStarted.countDown();
+              computationReleased.await();
+              throw new ValidationException("Monthly interest exceeds the annuity");
+            });
+    CoalescingLoanPlanService coalescingService = createCoalescingService();
+
+    List<CompletableFuture<List<MonthlyRepayment>>> plans = requestConcurrently(coalescingService);
+
+    for (CompletableFuture<List<MonthlyRepayment>> future : plans) {
+      ExecutionException exception =
+          org.junit.jupiter.api.Assertions.assertThrows(ExecutionException.class, future::get);
+      Assertions.assertThat(exception.getCause()).isInstanceOf(ValidationException.class);
+    }
+    Assertions.assertThat(coalescingService.inFlight()).isZero();
+  }
+
+  @Test
+  public void shouldComputeAgainOnceComputationIsDone() {
+    Mockito.when(planGeneratorService.generateLoanPlan(ArgumentMatchers.any())).thenReturn(plan);
+    CoalescingLoanPlanService coalescingService = createCoalescingService();
+
+    coalescingService.generateLoanPlan(getLoanRequest()).join();
+    coalescingService.generateLoanPlan(getLoanRequest()).join();
+
+    Mockito.verify(planGeneratorService, Mockito.times(2)).generateLoanPlan(ArgumentMatchers.any());
+    Assertions.assertThat(coalescingService.coalescedCount()).isZero();
+  }
+
+  @Test
+  public void shouldComputeWithoutSharingWhenTooManyComputationsAreInFlight() throws Exception {
+    loanServiceProperties.getCoalescing().setMaximumInFlight(1);
+    loanServiceProperties.getExecution().setParallelism(2);
+    LoanRequest otherLoanRequest = getLoanRequest();
+    otherLoanRequest.setDurationInMonth(12);
+    Mockito.when(planGeneratorService.generateLoanPlan(ArgumentMatchers.any()))
+        .thenAnswer(
+            invocation -> {
+              computationStarted.countDown();
+              computationReleased.await();
+              return plan;
+            })
+        .thenReturn(plan);
+    CoalescingLoanPlanService coalescingService = createCoalescingService();
+
+    CompletableFuture<List<MonthlyRepayment>> first =
+        coalescingService.generateLoanPlan(getLoanRequest());
+    computationStarted.await();
+    List<MonthlyRepayment> other = coalescingService.generateLoanPlan(otherLoanRequest).get();
+    computationReleased.countDown();
+
+    Assertions.assertThat(first.get()).isSameAs(plan);
+    Assertions.assertThat(other).isSameAs(plan);
+    Assertions.assertThat(coalescingService.overflowedCount()).isEqualTo(1);
+  }
+
+  private CoalescingLoanPlanService createCoalescingService() {
+    planComputationExecutor = new PlanComputationExecutor(loanServiceProperties);
+    return new CoalescingLoanPlanService(
+        loanServiceProperties,
+        planGeneratorService,
+        planComputationExecutor,
+        new InFlightLoanPlans());
+  }
+
+  private List<CompletableFuture<List<MonthlyRepayment>>> requestConcurrently(
+      CoalescingLoanPlanService coalescingService) throws InterruptedException {
+    List<CompletableFuture<List<MonthlyRepayment>>> plans = new ArrayList<>();
+    plans.add(coalescingService.generateLoanPlan(getLoanRequest()));
+    computationStarted.await();
+    for (int i = 1; i < CONCURRENT_REQUESTS; i++) {
+      plans.add(coalescingService.generateLoanPlan(getLoanRequest()));
+    }
+    // Every other request shares the computation, which is still running.
+    computationReleased.countDown();
+    return plans;
+  }
+
+  private LoanRequest getLoanRequest() {
+    return LoanRequest.builder()
+        .nominalRate(new BigDecimal(5))
+        .loanAmount(new BigDecimal(5000))
+        .durationInMonth(24)
+        .startDate(LocalDateTime.parse("2020-05-01T00:00:01"))
+        .build();
+  }
+}
@@ -0,0 +1,126 @@
+package com.loan.loanservice.service;
+
+import com.loan.loanservice.configuration.LoanServiceProperties;
+import com.loan.loanservice.domain.CalculationBackend;
+import com.loan.loanservice.domain.LoanGridCell;
+import com.loan.loanservice.domain.LoanGridRequest;
+import com.loan.loanservice.domain.LoanRequest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class LoanGridServiceTest {
+
+  private ForkJoinPool batchComputationPool;
+  private LoanPlanGeneratorService planGeneratorService;
+  private LoanGridService loanGridService;
+
+  @BeforeEach
+  public void setup() {
+    LoanServiceProperties loanServiceProperties = new LoanServiceProperties();
+    loanServiceProperties.getPlanCache().setEnabled(false);
+    LoanPlanMetrics loanPlanMetrics = new LoanPlanMetrics(new SimpleMeterRegistry());
+    batchComputationPool = new ForkJoinPool(4);
+    planGeneratorService =
+        new LoanPlanGeneratorService(
+            loanServiceProperties,
+            new LoanPlanCache(loanServiceProperties),
+            loanPlanMetrics,
+            new RateCardIndex(loanServiceProperties));
+    loanGridService =
+        new LoanGridService(loanServiceProperties, loanPlanMetrics, batchComputationPool);
+  }
+
+  @AfterEach
+  public void tearDown() {
+    batchComputationPool.shutdown();
+  }
+
+  @Test
+  public void shouldGenerateSameSummariesAndPlansAsSingleRequests() {
+    LoanGridRequest loanGridRequest =
+        getLoanGridRequest(
+            Arrays.asList(new BigDecimal("1.99"), new BigDecimal("5.125"), new BigDecimal("12")),
+            Arrays.asList(360, 1, 60, 12, 480, 60),
+            Arrays.asList(new BigDecimal("5000"), new BigDecimal("250000.55")));
+    loanGridRequest.setIncludePlans(true);
+
+    List<LoanGridCell> cells = loanGridService.generateLoanGrid(loanGridRequest);
+
+    Assertions.assertThat(cells).hasSize(36);
+    int index = 0;
+    for (BigDecimal nominalRate : loanGridRequest.getNominalRates()) {
+      for (Integer duration : loanGridRequest.getDurationsInMonth()) {
+        for (BigDecimal loanAmount : loanGridRequest.getLoanAmounts()) {
+          LoanGridCell cell = cells.get(index++);
+          LoanRequest loanRequest =
+              LoanRequest.builder()
+                  .nominalRate(nominalRate)
+                  .durationInMonth(duration)
+                  .loanAmount(loanAmount)
+                  .startDate(loanGridRequest.getStartDate())
+                  .build();
+          Assertions.assertThat(cell.getNominalRate()).isEqualTo(nominalRate);
+          Assertions.assertThat(cell.getDurationInMonth()).isEqualTo(duration);
+          Assertions.assertThat(cell.getLoanAmount()).isEqualTo(loanAmount);
+          Assertions.assertThat(cell.getSummary())
+              .isEqualTo(planGeneratorService.summarizeLoanPlan(loanRequest));
+          Assertions.assertThat(cell.getPlan())
+              .isEqualTo(planGeneratorService.generateLoanPlan(loanRequest));
+          Assertions.assertThat(cell.getErrors()).isNull();
+        }
+      }
+    }
+  }
+
+  @Test
+  public void shouldOmitPlansUnlessRequested() {
+    LoanGridRequest loanGridRequest =
+        getLoanGridRequest(
+            Arrays.asList(new BigDecimal("5")),
+            Arrays.asList(24),
+            Arrays.asList(new BigDecimal("5000")));
+    loanGridRequest.setCalculationBackend(CalculationBackend.FIXED_POINT);
+
+    List<LoanGridCell> cells = loanGridService.generateLoanGrid(loanGridRequest);
+
+    Assertions.assertThat(cells).hasSize(1);
+    Assertions.assertThat(cells.get(0).getPlan()).isNull();
+    Assertions.assertThat(cells.get(0).getSummary().getAnnuity())
+        .isEqualTo(BigDecimal.valueOf(219.36));
+    Assertions.assertThat(cells.get(0).getSummary().getNumberOfRepayments()).isEqualTo(24);
+  }
+
+  @Test
+  public void shouldReportCellsWithoutPlan() {
+    LoanGridRequest loanGridRequest =
+        getLoanGridRequest(
+            Arrays.asList(new BigDecimal("100")),
+            Arrays.asList(12, 1200),
+            Arrays.asList(new BigDecimal("1")));
+
+    List<LoanGridCell> cells = loanGridService.generateLoanGrid(loanGridRequest);
+
+    Assertions.assertThat(cells.get(0).getSummary()).isNotNull();
+    Assertions.assertThat(cells.get(1).getSummary()).isNull();
+    Assertions.assertThat(cells.get(1).getErrors())
+        .containsExactly("Invalid Loan Request. Annuity does not cover the monthly interest.");
+  }
+
+  private LoanGridRequest getLoanGridRequest(
+      List<BigDecimal> nominalRates, List<Integer> durations, List<BigDecimal> loanAmounts) {
+    return LoanGridRequest.builder()
+        .nominalRates(nominalRates)
+        .durationsInMonth(durations)
+        .loanAmounts(loanAmounts)
+        .startDate(LocalDateTime.parse("2020-05-01T00:00:01"))
+        .build();
+  }
+}
@@ -0,0 +1,163 @@
+package com.loan.loanservice.service;
+
+import com.loan.loanservice.configuration.LoanServiceProperties;
+import com.loan.loanservice.domain.DayCountConvention;
+import com.loan.loanservice.domain.LoanRequest;
+import com.loan.loanservice.domain.MonthlyRepayment;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class LoanPlanCacheTest {
+
+  private LoanServiceProperties loanServiceProperties;
+  private AtomicInteger generatedPlans;
+  private Function<LoanRequest, LoanPlanTemplate> templateGenerator;
+
+  @BeforeEach
+  public void setup() {
+    loanServiceProperties = new LoanServiceProperties();
+    generatedPlans = new AtomicInteger();
+    templateGenerator =
+        loanRequest -> {
+          generatedPlans.incrementAndGet();
+          return new LoanPlanTemplate(
+              Collections.singletonList(
+                  MonthlyRepayment.builder().principal(loanRequest.getLoanAmount()).build()));
+        };
+  }
+
+  @Test
+  public void shouldReturnCachedTemplateForSameRequest() {
+    LoanPlanCache loanPlanCache = new LoanPlanCache(loanServiceProperties);
+
+    LoanPlanTemplate first = loanPlanCache.get(getLoanRequest(), templateGenerator);
+    LoanPlanTemplate second = loanPlanCache.get(getLoanRequest(), templateGenerator);
+
+    Assertions.assertThat(second).isSameAs(first);
+    Assertions.assertThat(generatedPlans.get()).isEqualTo(1);
+    Assertions.assertThat(loanPlanCache.stats().hitCount()).isEqualTo(1);
+    Assertions.assertThat(loanPlanCache.stats().missCount()).isEqualTo(1);
+  }
+
+  @Test
+  public void shouldShareCachedTemplateForDifferentStartDates() {
+    LoanPlanCache loanPlanCache = new LoanPlanCache(loanServiceProperties);
+    LoanRequest loanRequest = getLoanRequest();
+    loanRequest.setStartDate(loanRequest.getStartDate().plusDays(17));
+
+    LoanPlanTemplate first = loanPlanCache.get(getLoanRequest(), templateGenerator);
+    LoanPlanTemplate second = loanPlanCache.get(loanRequest, templateGenerator);
+
+    Assertions.assertThat(second).isSameAs(first);
+    Assertions.assertThat(generatedPlans.get()).isEqualTo(1);
+  }
+
+  @Test
+  public void shouldNotShareCachedTemplateForDifferentStartDatesWithActualDays() {
+    LoanPlanCache loanPlanCache = new LoanPlanCache(loanServiceProperties);
+    LoanRequest first = getLoanRequest();
+    first.setDayCountConvention(DayCountConvention.ACTUAL_365);
+    LoanRequest second = getLoanRequest();
+    second.setDayCountConvention(DayCountConvention.ACTUAL_365);
+    second.setStartDate(second.getStartDate().plusDays(17));
+
+    loanPlanCache.get(first, templateGenerator);
+    loanPlanCache.get(second, templateGenerator);
+    loanPlanCache.get(getLoanRequest(), templateGenerator);
+
+    Assertions.assertThat(generatedPlans.get()).isEqualTo(3);
+  }
+
+  @Test
+  public void shouldNotShareCachedTemplateForDifferentActualDayCounts() {
+    LoanPlanCache loanPlanCache = new LoanPlanCache(loanServiceProperties);
+    LoanRequest first = getLoanRequest();
+    first.setDayCountConvention(DayCountConvention.ACTUAL_360);
+    LoanRequest second = getLoanRequest();
+    second.setDayCountConvention(DayCountConvention.ACTUAL_365);
+
+    loanPlanCache.get(first, templateGenerator);
+    loanPlanCache.get(second, templateGenerator);
+
+    Assertions.assertThat(generatedPlans.get()).isEqualTo(2);
+  }
+
+  @Test
+  public void shouldShareCachedTemplateForNominalRateWithTrailingZeros() {
+    LoanPlanCache loanPlanCache = new LoanPlanCache(loanServiceProperties);
+    LoanRequest loanRequest = getLoanRequest();
+    loanRequest.setNominalRate(new BigDecimal("5.00"));
+
+    loanPlanCache.get(getLoanRequest(), templateGenerator);
+    loanPlanCache.get(loanRequest, templateGenerator);
+
+    Assertions.assertThat(generatedPlans.get()).isEqualTo(1);
+  }
+
+  @Test
+  public void shouldNotShareCachedTemplateForLoanAmountWithDifferentScale() {
+    LoanPlanCache loanPlanCache = new LoanPlanCache(loanServiceProperties);
+    LoanRequest loanRequest = getLoanRequest();
+    loanRequest.setLoanAmount(new BigDecimal("5000.00"));
+
+    loanPlanCache.get(getLoanRequest(), templateGenerator);
+    loanPlanCache.get(loanRequest, templateGenerator);
+
+    Assertions.assertThat(generatedPlans.get()).isEqualTo(2);
+  }
+
+  @Test
+  public void shouldReturnUnmodifiableTemplate() {
+    LoanPlanCache loanPlanCache = new LoanPlanCache(loanServiceProperties);
+
+    List<MonthlyRepayment> repayments =
+        loanPlanCache.get(getLoanRequest(), templateGenerator).getRepayments();
+
+    org.junit.jupiter.api.Assertions.assertThrows(
+        UnsupportedOperationException.class, () -> repayments.add(repayments.get(0)));
+  }
+
+  @Test
+  public void shouldEvictTemplatesAboveMaximumSize() {
+    loanServiceProperties.getPlanCache().setMaximumSize(1);
+    LoanPlanCache loanPlanCache = new LoanPlanCache(loanServiceProperties);
+    LoanRequest otherLoanRequest = getLoanRequest();
+    otherLoanRequest.setDurationInMonth(12);
+
+    for (int i = 0; i < 10; i++) {
+      loanPlanCache.get(getLoanRequest(), templateGenerator);
+      loanPlanCache.get(otherLoanRequest, templateGenerator);
+    }
+    loanPlanCache.cleanUp();
+
+    Assertions.assertThat(loanPlanCache.stats().evictionCount()).isPositive();
+  }
+
+  @Test
+  public void shouldGeneratePlanEveryTimeWhenDisabled() {
+    loanServiceProperties.getPlanCache().setEnabled(false);
+    LoanPlanCache loanPlanCache = new LoanPlanCache(loanServiceProperties);
+
+    loanPlanCache.get(getLoanRequest(), templateGenerator);
+    loanPlanCache.get(getLoanRequest(), templateGenerator);
+
+    Assertions.assertThat(loanPlanCache.isEnabled()).isFalse();
+    Assertions.assertThat(generatedPlans.get()).isEqualTo(2);
+  }
+
+  private LoanRequest getLoanRequest() {
+    return LoanRequest.builder()
+        .nominalRate(new BigDecimal(5))
+        .loanAmount(new BigDecimal(5000))
+        .durationInMonth(24)
+        .startDate(LocalDateTime.parse("2020-05-01T00:00:01"))
+        .build();
+  }
+}
@@ -0,0 +1,316 @@
+package com.loan.loanservice.service;
+
+import com.loan.loanservice.configuration.LoanServiceProperties;
+import com.loan.loanservice.domain.CalculationBackend;
+import com.loan.loanservice.domain.DayCountConvention;
+import com.loan.loanservice.domain.LoanRequest;
+import com.loan.loanservice.domain.MonthlyRepayment;
+import com.loan.loanservice.utils.InterestCalculationUtil;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import javax.validation.ValidationException;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class LoanPlanGeneratorServiceRegressionTest {
+
+  private static final int MAX_DURATION_IN_MONTH = 1200;
+  private static final int RANDOM_CORPUS_SIZE = 2000;
+
+  private LoanPlanGeneratorService planGeneratorService;
+
+  @BeforeEach
+  public void setup() {
+    LoanServiceProperties loanServiceProperties = new LoanServiceProperties();
+    // Compare freshly generated plans only.
+    loanServiceProperties.getPlanCache().setEnabled(false);
+    planGeneratorService =
+        new LoanPlanGeneratorService(
+            loanServiceProperties,
+            new LoanPlanCache(loanServiceProperties),
+            new LoanPlanMetrics(new SimpleMeterRegistry()),
+            new RateCardIndex(loanServiceProperties));
+  }
+
+  @Test
+  public void shouldGenerateSamePlanAsRecursiveAlgorithmForAllDurations() {
+    for (int duration = 1; duration <= MAX_DURATION_IN_MONTH; duration++) {
+      LoanRequest loanRequest = getLoanRequest(duration);
+
+      List<MonthlyRepayment> expected = RecursiveLoanPlanGenerator.generateLoanPlan(loanRequest);
+      List<MonthlyRepayment> actual = planGeneratorService.generateLoanPlan(loanRequest);
+
+      Assertions.assertThat(actual).as("duration %d", duration).isEqualTo(expected);
+    }
+  }
+
+  @Test
+  public void shouldGenerateSamePlanWithFixedPointBackendForRandomLoans() {
+    Random random = new Random(20200501L);
+    for (int i = 0; i < RANDOM_CORPUS_SIZE; i++) {
+      LoanRequest loanRequest = getRandomLoanRequest(random);
+
+      loanRequest.setCalculationBackend(CalculationBackend.BIG_DECIMAL);
+      List<MonthlyRepayment> expected = planGeneratorService.generateLoanPlan(loanRequest);
+      loanRequest.setCalculationBackend(CalculationBackend.FIXED_POINT);
+      List<MonthlyRepayment> actual = planGeneratorService.generateLoanPlan(loanRequest);
+
+      Assertions.assertThat(actual).as("request %s", loanRequest).isEqualTo(expected);
+    }
+  }
+
+  @Test
+  public void shouldGenerateSamePlanWithFixedPointBackendForActualDayCounts() {
+    Random random = new Random(20200502L);
+    DayCountConvention[] dayCountConventions = DayCountConvention.values();
+    for (int i = 0; i < RANDOM_CORPUS_SIZE; i++) {
+      LoanRequest loanRequest = getRandomLoanRequest(random);
+      loanRequest.setDayCountConvention(
+          dayCountConventions[random.nextInt(dayCountConventions.length)]);
+
+      loanRequest.setCalculationBackend(CalculationBackend.BIG_DECIMAL);
+      List<MonthlyRepayment> expected = planGeneratorService.generateLoanPlan(loanRequest);
+      loanRequest.setCalculationBackend(CalculationBackend.FIXED_POINT);
+      List<MonthlyRepayment> actual = planGeneratorService.generateLoanPlan(loanRequest);
+
+      Assertions.assertThat(actual).as("request %s", loanRequest).isEqualTo(expected);
+      Assertions.assertThat(actual)
+          .as("request %s", loanRequest)
+          .hasSizeLessThanOrEqualTo(loanRequest.getDurationInMonth());
+      Assertions.assertThat(actual.get(actual.size() - 1).getRemainingOutstandingPrincipal())
+          .as("request %s", loanRequest)
+          .isEqualByComparingTo(BigDecimal.ZERO);
+    }
+  }
+
+  @Test
+  public void shouldGenerateSameShortPlansAsRecursiveAlgorithmForRandomLoans() {
+    Random random = new Random(20200503L);
+    for (int i = 0; i < RANDOM_CORPUS_SIZE; i++) {
+      LoanRequest loanRequest = getRandomLoanRequest(random);
+      loanRequest.setDurationInMonth(1 + random.nextInt(4));
+
+      List<MonthlyRepayment> expected = RecursiveLoanPlanGenerator.generateLoanPlan(loanRequest);
+      List<MonthlyRepayment> actual = planGeneratorService.generateLoanPlan(loanRequest);
+
+      Assertions.assertThat(actual)
+          .as("request %s", loanRequest)
+          .usingElementComparatorIgnoringFields("date")
+          .isEqualTo(expected);
+    }
+  }
+
+  @Test
+  public void shouldNotAdjustFirstRepaymentOfThirtyDayPlan() {
+    LoanRequest loanRequest = getLoanRequest(1);
+    loanRequest.setLoanAmount(new BigDecimal("929134.0"));
+    loanRequest.setNominalRate(new BigDecimal("15.00"));
+
+    List<MonthlyRepayment> plan = planGeneratorService.generateLoanPlan(loanRequest);
+
+    Assertions.assertThat(plan).hasSize(1);
+    Assertions.assertThat(plan.get(0).getBorrowerPaymentAmount())
+        .isEqualTo(new BigDecimal("940748.18"));
+    Assertions.assertThat(plan.get(0).getRemainingOutstandingPrincipal())
+        .isEqualTo(new BigDecimal("-0.01"));
+  }
+
+  @Test
+  public void shouldRepayOneMonthPlanWithActualDayCount() {
+    LoanRequest loanRequest =
+        LoanRequest.builder()
+            .nominalRate(new BigDecimal("28.81"))
+            .loanAmount(new BigDecimal("4167359.6"))
+            .durationInMonth(1)
+            .startDate(LocalDateTime.parse("2020-07-12T00:00:01"))
+            .dayCountConvention(DayCountConvention.ACTUAL_365)
+            .build();
+
+    List<MonthlyRepayment> plan = planGeneratorService.generateLoanPlan(loanRequest);
+
+    Assertions.assertThat(plan).hasSize(1);
+    Assertions.assertThat(plan.get(0).getPrincipal())
+        .isEqualByComparingTo(loanRequest.getLoanAmount());
+    Assertions.assertThat(plan.get(0).getRemainingOutstandingPrincipal())
+        .isEqualByComparingTo(BigDecimal.ZERO);
+  }
+
+  @Test
+  public void shouldCalculateInterestOfActualDaysInPeriod() {
+    LoanRequest loanRequest = getLoanRequest(12);
+    loanRequest.setDayCountConvention(DayCountConvention.ACTUAL_360);
+
+    List<MonthlyRepayment> plan = planGeneratorService.generateLoanPlan(loanRequest);
+
+    // The first period ends on January 31st, the second one on February 29th.
+    BigDecimal nominalRate =
+        loanRequest.getNominalRate().divide(new BigDecimal(100), 20, RoundingMode.HALF_DOWN);
+    Assertions.assertThat(plan.get(0).getInterest())
+        .isEqualTo(
+            InterestCalculationUtil.calculateInterest(
+                loanRequest.getLoanAmount(), nominalRate, new BigDecimal(31), new BigDecimal(360)));
+    Assertions.assertThat(plan.get(1).getInterest())
+        .isEqualTo(
+            InterestCalculationUtil.calculateInterest(
+                plan.get(1).getInitialOutstandingPrincipal(),
+                nominalRate,
+                new BigDecimal(29),
+                new BigDecimal(360)));
+  }
+
+  @Test
+  public void shouldFallBackToBigDecimalWhenAmountIsNotWholeCents() {
+    LoanRequest loanRequest = getLoanRequest(360);
+    loanRequest.setLoanAmount(new BigDecimal("250000.125"));
+
+    loanRequest.setCalculationBackend(CalculationBackend.BIG_DECIMAL);
+    List<MonthlyRepayment> expected = planGeneratorService.generateLoanPlan(loanRequest);
+    loanRequest.setCalculationBackend(CalculationBackend.FIXED_POINT);
+    List<MonthlyRepayment> actual = planGeneratorService.generateLoanPlan(loanRequest);
+
+    Assertions.assertThat(actual).isEqualTo(expected);
+  }
+
+  @Test
+  public void shouldThrowValidationExceptionWhenAnnuityDoesNotCoverInterest() {
+    LoanRequest loanRequest = getLoanRequest(MAX_DURATION_IN_MONTH);
+    loanRequest.setLoanAmount(BigDecimal.ONE);
+    loanRequest.setNominalRate(BigDecimal.ONE);
+    ValidationException exception =
+        org.junit.jupiter.api.Assertions.assertThrows(
+            ValidationException.class, () -> planGeneratorService.generateLoanPlan(loanRequest));
+    Assertions.assertThat(exception.getMessage())
+        .isEqualTo("Invalid Loan Request. Annuity does not cover the monthly interest.");
+  }
+
+  private LoanRequest getRandomLoanRequest(Random random) {
+    return LoanRequest.builder()
+        .nominalRate(
+            BigDecimal.valueOf(100 + random.nextInt(2901), 2).setScale(2 + random.nextInt(2)))
+        .loanAmount(BigDecimal.valueOf(100_000 + random.nextInt(1_000_000_000), random.nextInt(3)))
+        .durationInMonth(1 + random.nextInt(480))
+        .startDate(LocalDateTime.parse("2020-05-01T00:00:01").plusDays(random.nextInt(365)))
+        .build();
+  }
+
+  private LoanRequest getLoanRequest(int durationInMonth) {
+    return LoanRequest.builder()
+        .nominalRate(new BigDecimal("5.5"))
+        .loanAmount(new BigDecimal("250000"))
+        .durationInMonth(durationInMonth)
+        .startDate(LocalDateTime.parse("2020-01-31T00:00:01"))
+        .build();
+  }
+
+  /** Reference copy of the original recursive plan generation algorithm. */
+  private static final class RecursiveLoanPlanGenerator {
+
+    static List<MonthlyRepayment> generateLoanPlan(LoanRequest loanRequest) {
+      List<MonthlyRepayment> monthlyRepaymentList = new ArrayList<>();
+
+      BigDecimal annuity = InterestCalculationUtil.calculateAnnuity(loanRequest);
+      BigDecimal loanAmount = loanRequest.getLoanAmount();
+      BigDecimal nominalInterestRate =
+          loanRequest.getNominalRate().divide(new BigDecimal(100), 20, RoundingMode.HALF_DOWN);
+      BigDecimal calculatedInterest =
+          InterestCalculationUtil.calculateInterest(loanAmount, nominalInterestRate);
+      BigDecimal principal = evaluatePrincipal(annuity, calculatedInterest, loanAmount);
+
+      MonthlyRepayment firstMonthlyRepayment =
+          MonthlyRepayment.builder()
+              .borrowerPaymentAmount(principal.add(calculatedInterest))
+              .date(loanRequest.getStartDate())
+              .initialOutstandingPrincipal(loanAmount)
+              .interest(calculatedInterest)
+              .principal(principal)
+              .remainingOutstandingPrincipal(loanAmount.subtract(principal))
+              .build();
+
+      monthlyRepaymentList.add(firstMonthlyRepayment);
+
+      generateMonthlyRepayments(
+          monthlyRepaymentList, firstMonthlyRepayment, nominalInterestRate, annuity);
+
+      return monthlyRepaymentList;
+    }
+
+    private static void generateMonthlyRepayments(
+        List<MonthlyRepayment> monthlyRepaymentList,
+        MonthlyRepayment payment,
+        BigDecimal nominalRate,
+        BigDecimal annuity) {
+      if (payment.getRemainingOutstandingPrincipal().compareTo(BigDecimal.ZERO) > 0) {
+        BigDecimal initialOutstandingPrincipal = payment.getRemainingOutstandingPrincipal();
+        BigDecimal calculateInterest =
+            InterestCalculationUtil.calculateInterest(initialOutstandingPrincipal, nominalRate);
+        BigDecimal principal =
+            evaluatePrincipal(annuity, calculateInterest, initialOutstandingPrincipal);
+        BigDecimal borrowerPaymentAmount = calculateInterest.add(principal);
+
+        MonthlyRepayment newMonthlyPayment =
+            MonthlyRepayment.builder()
+                .date(payment.getDate().plusMonths(1))
+                .interest(calculateInterest)
+                .initialOutstandingPrincipal(initialOutstandingPrincipal)
+                .borrowerPaymentAmount(borrowerPaymentAmount)
+                .remainingOutstandingPrincipal(initialOutstandingPrincipal.subtract(principal))
+                .build();
+
+        newMonthlyPayment =
+            sanityCheckAndUpdatePrincipal(calculateInterest, principal, newMonthlyPayment);
+
+        monthlyRepaymentList.add(newMonthlyPayment);
+
+        generateMonthlyRepayments(monthlyRepaymentList, newMonthlyPayment, nominalRate, annuity);
+      }
+    }
+
+    private static BigDecimal evaluatePrincipal(
+        BigDecimal annuity, BigDecimal calculatedInterest, BigDecimal initialOutstandingPrincipal) {
+      BigDecimal principal = annuity.subtract(calculatedInterest);
+      return calculatedInterest.compareTo(initialOutstandingPrincipal) > 0
+          ? initialOutstandingPrincipal
+          : principal;
+    }
+
+    private static MonthlyRepayment sanityCheckAndUpdatePrincipal(
+        BigDecimal calculateInterest, BigDecimal principal, MonthlyRepayment newMonthlyPayment) {
+      BigDecimal remainingOutstandingPrincipal =
+          newMonthlyPayment.getInitialOutstandingPrincipal().subtract(principal);
+
+      if (remainingOutstandingPrincipal.compareTo(BigDecimal.ZERO) <= 0) {
+        principal = principal.add(newMonthlyPayment.getRemainingOutstandingPrincipal());
+        newMonthlyPayment =
+            newMonthlyPayment
+                .toBuilder()
+                .borrowerPaymentAmount(
+                    newMonthlyPayment
+                        .getBorrowerPaymentAmount()
+                        .add(newMonthlyPayment.getRemainingOutstandingPrincipal()))
+                .remainingOutstandingPrincipal(BigDecimal.ZERO)
+                .build();
+      }
+
+      BigDecimal diffPrincipal =
+          newMonthlyPayment.getRemainingOutstandingPrincipal().subtract(principal);
+
+      if (diffPrincipal.compareTo(BigDecimal.ZERO) < 0) {
+        principal = principal.add(newMonthlyPayment.getRemainingOutstandingPrincipal());
+        newMonthlyPayment =
+            newMonthlyPayment
+                .toBuilder()
+                .borrowerPaymentAmount(calculateInterest.add(principal))
+                .remainingOutstandingPrincipal(BigDecimal.ZERO)
+                .build();
+      }
+
+      return newMonthlyPayment.toBuilder().principal(principal).build();
+    }
+  }
+}
@@ -1,10 +1,21 @@
 package com.loan.loanservice.service;
 
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.loan.loanservice.configuration.LoanServiceProperties;
+import com.loan.loanservice.domain.LoanPlanSummary;
 import com.loan.loanservice.domain.LoanRequest;
 import com.loan.loanservice.domain.MonthlyRepayment;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
 import javax.validation.ValidationException;
 import org.assertj.core.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
@@ -12,11 +23,21 @@ import org.junit.jupiter.api.Test;
 
 public class LoanPlanGeneratorServiceTest {
 
+  private static final BigDecimal THRESHOLD = new BigDecimal(1000);
+
+  private MeterRegistry meterRegistry;
   private LoanPlanGeneratorService planGeneratorService;
 
   @BeforeEach
   public void setup() {
-    planGeneratorService = new LoanPlanGeneratorService();
+    LoanServiceProperties loanServiceProperties = new LoanServiceProperties();
+    meterRegistry = new SimpleMeterRegistry();
+    planGeneratorService =
+        new LoanPlanGeneratorService(
+            loanServiceProperties,
+            new LoanPlanCache(loanServiceProperties),
+            new LoanPlanMetrics(meterRegistry),
+            new RateCardIndex(loanServiceProperties));
   }
 
   @Test
@@ -54,6 +75,148 @@ public class LoanPlanGeneratorServiceTest {
         .isEqualTo(LocalDateTime.parse("2022-04-01T00:00:01"));
   }
 
+  @Test
+  public void shouldGenerateSampleLoanPlan() throws IOException {
+    ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    List<MonthlyRepayment> sampleLoanPlan =
+        objectMapper.readValue(
+            getClass().getResourceAsStream("/sampleLoanPlan.json"),
+            new TypeReference<List<MonthlyRepayment>>() {});
+
+    List<MonthlyRepayment> repaymentList = planGeneratorService.generateLoanPlan(getLoanRequest());
+
+    Assertions.assertThat(repaymentList)
+        .usingComparatorForElementFieldsWithType(BigDecimal::compareTo, BigDecimal.class)
+        .usingFieldByFieldElementComparator()
+        .containsExactlyElementsOf(sampleLoanPlan);
+  }
+
+  @Test
+  public void shouldShiftPlanToStartDate() {
+    LoanRequest loanRequest = getLoanRequest();
+    loanRequest.setStartDate(LocalDateTime.parse("2020-01-31T00:00:01"));
+
+    List<MonthlyRepayment> repaymentList = planGeneratorService.generateLoanPlan(getLoanRequest());
+    List<MonthlyRepayment> shiftedRepaymentList =
+        planGeneratorService.generateLoanPlan(loanRequest);
+
+    Assertions.assertThat(shiftedRepaymentList)
+        .usingElementComparatorIgnoringFields("date")
+        .containsExactlyElementsOf(repaymentList);
+    Assertions.assertThat(shiftedRepaymentList.get(0).getDate())
+        .isEqualTo(LocalDateTime.parse("2020-01-31T00:00:01"));
+    Assertions.assertThat(shiftedRepaymentList.get(1).getDate())
+        .isEqualTo(LocalDateTime.parse("2020-02-29T00:00:01"));
+    Assertions.assertThat(shiftedRepaymentList.get(2).getDate())
+        .isEqualTo(LocalDateTime.parse("2020-03-29T00:00:01"));
+  }
+
+  @Test
+  public void shouldIterateGeneratedLoanPlan() {
+    LoanRequest loanRequest = getLoanRequest();
+    loanRequest.setStartDate(LocalDateTime.parse("2020-01-31T00:00:01"));
+
+    List<MonthlyRepayment> iteratedRepaymentList = new ArrayList<>();
+    planGeneratorService.iterateLoanPlan(loanRequest).forEachRemaining(iteratedRepaymentList::add);
+    List<MonthlyRepayment> repaymentList = planGeneratorService.generateLoanPlan(loanRequest);
+    List<MonthlyRepayment> cachedRepaymentList = new ArrayList<>();
+    planGeneratorService.iterateLoanPlan(loanRequest).forEachRemaining(cachedRepaymentList::add);
+
+    Assertions.assertThat(iteratedRepaymentList).isEqualTo(repaymentList);
+    Assertions.assertThat(cachedRepaymentList).isEqualTo(repaymentList);
+  }
+
+  @Test
+  public void shouldStreamGeneratedLoanPlan() {
+    LoanRequest loanRequest = getLoanRequest();
+    loanRequest.setStartDate(LocalDateTime.parse("2020-01-31T00:00:01"));
+
+    List<MonthlyRepayment> streamedRepaymentList =
+        planGeneratorService.streamLoanPlan(loanRequest).collect(Collectors.toList());
+    List<MonthlyRepayment> repaymentList = planGeneratorService.generateLoanPlan(loanRequest);
+    List<MonthlyRepayment> cachedRepaymentList =
+        planGeneratorService.streamLoanPlan(loanRequest).collect(Collectors.toList());
+
+    Assertions.assertThat(streamedRepaymentList).isEqualTo(repaymentList);
+    Assertions.assertThat(cachedRepaymentList).isEqualTo(repaymentList);
+  }
+
+  @Test
+  public void shouldStopStreamingLoanPlanAtFirstMatch() {
+    AtomicInteger calculatedRepayments = new AtomicInteger();
+
+    Optional<MonthlyRepayment> repayment =
+        planGeneratorService
+            .streamLoanPlan(getLoanRequest())
+            .peek(monthlyRepayment -> calculatedRepayments.incrementAndGet())
+            .filter(
+                monthlyRepayment ->
+                    monthlyRepayment.getRemainingOutstandingPrincipal().compareTo(THRESHOLD) < 0)
+            .findFirst();
+    List<MonthlyRepayment> repaymentList = planGeneratorService.generateLoanPlan(getLoanRequest());
+
+    Assertions.assertThat(repayment).contains(repaymentList.get(19));
+    Assertions.assertThat(repaymentList.get(18).getRemainingOutstandingPrincipal())
+        .isGreaterThanOrEqualTo(THRESHOLD);
+    Assertions.assertThat(calculatedRepayments).hasValue(20);
+  }
+
+  @Test
+  public void shouldGenerateLoanPlanPage() {
+    LoanRequest loanRequest = getLoanRequest();
+    loanRequest.setStartDate(LocalDateTime.parse("2020-01-31T00:00:01"));
+
+    List<MonthlyRepayment> page = planGeneratorService.generateLoanPlan(loanRequest, 10, 5);
+    List<MonthlyRepayment> repaymentList = planGeneratorService.generateLoanPlan(loanRequest);
+    List<MonthlyRepayment> cachedPage = planGeneratorService.generateLoanPlan(loanRequest, 10, 5);
+
+    Assertions.assertThat(page).isEqualTo(repaymentList.subList(10, 15));
+    Assertions.assertThat(cachedPage).isEqualTo(page);
+    Assertions.assertThat(planGeneratorService.generateLoanPlan(loanRequest, 20, 10))
+        .isEqualTo(repaymentList.subList(20, 24));
+    Assertions.assertThat(planGeneratorService.generateLoanPlan(loanRequest, 24, 10)).isEmpty();
+  }
+
+  @Test
+  public void shouldSummarizeLoanPlan() {
+    LoanRequest loanRequest = getLoanRequest();
+
+    LoanPlanSummary summary = planGeneratorService.summarizeLoanPlan(loanRequest);
+    planGeneratorService.generateLoanPlan(loanRequest);
+    LoanPlanSummary cachedSummary = planGeneratorService.summarizeLoanPlan(loanRequest);
+
+    Assertions.assertThat(summary.getAnnuity()).isEqualTo(new BigDecimal("219.36"));
+    Assertions.assertThat(summary.getNumberOfRepayments()).isEqualTo(24);
+    Assertions.assertThat(summary.getTotalInterest()).isEqualTo(new BigDecimal("264.56"));
+    Assertions.assertThat(summary.getTotalBorrowerPaymentAmount())
+        .isEqualTo(new BigDecimal("5264.56"));
+    Assertions.assertThat(summary.getFinalRepaymentDate())
+        .isEqualTo(LocalDateTime.parse("2022-04-01T00:00:01"));
+    Assertions.assertThat(cachedSummary).isEqualTo(summary);
+  }
+
+  @Test
+  public void shouldRecordMetrics() {
+    planGeneratorService.generateLoanPlan(getLoanRequest());
+    planGeneratorService.generateLoanPlan(getLoanRequest());
+    LoanRequest invalidLoanRequest = getLoanRequest();
+    invalidLoanRequest.setStartDate(null);
+    org.junit.jupiter.api.Assertions.assertThrows(
+        ValidationException.class, () -> planGeneratorService.generateLoanPlan(invalidLoanRequest));
+
+    Assertions.assertThat(meterRegistry.get("loan.plan.annuity").timer().count()).isEqualTo(1);
+    Assertions.assertThat(meterRegistry.get("loan.plan.schedule").timer().count()).isEqualTo(1);
+    Assertions.assertThat(meterRegistry.get("loan.plan.length").summary().count()).isEqualTo(2);
+    Assertions.assertThat(meterRegistry.get("loan.plan.length").summary().max()).isEqualTo(24);
+    Assertions.assertThat(
+            meterRegistry
+                .get("loan.plan.validation.failures")
+                .tag("reason", "constraint-violation")
+                .counter()
+                .count())
+        .isEqualTo(1);
+  }
+
   @Test
   public void shouldThrowValidationExceptionWhenAmountIsNull() {
     LoanRequest loanRequest = getLoanRequest();
@@ -0,0 +1,209 @@
+package com.loan.loanservice.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.loan.loanservice.configuration.LoanServiceProperties;
+import com.loan.loanservice.domain.MonthlyRepayment;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.File;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class LoanPlanStoreTest {
+
+  @TempDir Path directory;
+
+  private final ObjectMapper objectMapper =
+      new ObjectMapper()
+          .findAndRegisterModules()
+          .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+  private LoanServiceProperties loanServiceProperties;
+  private LoanPlanStore loanPlanStore;
+
+  @BeforeEach
+  public void setup() {
+    loanServiceProperties = new LoanServiceProperties();
+    loanServiceProperties.getPlanStore().setEnabled(true);
+    loanServiceProperties.getPlanStore().setDirectory(directory);
+    // Plans are only written by explicit flushes.
+    loanServiceProperties.getPlanStore().setFlushInterval(Duration.ofHours(1));
+  }
+
+  @AfterEach
+  public void tearDown() throws InterruptedException {
+    if (loanPlanStore != null) {
+      loanPlanStore.shutdown();
+    }
+  }
+
+  @Test
+  public void shouldFindPlanBeforeAndAfterItIsWritten() throws Exception {
+    loanPlanStore = new LoanPlanStore(loanServiceProperties, objectMapper);
+    List<MonthlyRepayment> plan = getPlan();
+
+    String id = loanPlanStore.store(plan);
+
+    Assertions.assertThat(loanPlanStore.find(id)).containsSame(plan);
+    Assertions.assertThat(directory.resolve(id + ".json")).doesNotExist();
+
+    loanPlanStore.flush();
+
+    Assertions.assertThat(directory.resolve(id + ".json")).exists();
+    Assertions.assertThat(loanPlanStore.find(id)).contains(plan);
+  }
+
+  @Test
+  public void shouldFindPlanWrittenByPreviousStore() throws Exception {
+    loanPlanStore = new LoanPlanStore(loanServiceProperties, objectMapper);
+    String id = loanPlanStore.store(getPlan());
+    loanPlanStore.shutdown();
+
+    loanPlanStore = new LoanPlanStore(loanServiceProperties, objectMapper);
+
+    Assertions.assertThat(loanPlanStore.find(id)).contains(getPlan());
+  }
+
+  @Test
+  public void shouldNotFindUnknownOrInvalidIds() throws Exception {
+    loanPlanStore = new LoanPlanStore(loanServiceProperties, objectMapper);
+    Files.write(directory.resolve("other.json"), "[]".getBytes());
+
+    Assertions.assertThat(loanPlanStore.find("7d1ab5d4-2f7c-4b3e-9a43-0c5a3f8f0b1e")).isEmpty();
+    Assertions.assertThat(loanPlanStore.find("other")).isEmpty();
+    Assertions.assertThat(loanPlanStore.find("../other")).isEmpty();
+  }
+
+  @Test
+  public void shouldNotFindAndDeletePlansOlderThanRetention() throws Exception {
+    loanServiceProperties.getPlanStore().setRetention(Duration.ofHours(1));
+    loanPlanStore = new LoanPlanStore(loanServiceProperties, objectMapper);
+    String expiredId = loanPlanStore.store(getPlan());
+    String id = loanPlanStore.store(getPlan());
+    loanPlanStore.flush();
+    Path expiredFile = directory.resolve(expiredId + ".json");
+    Files.setLastModifiedTime(
+        expiredFile, FileTime.from(Instant.now().minus(Duration.ofHours(2))));
+    Files.write(directory.resolve("other.json"), "[]".getBytes());
+    Files.setLastModifiedTime(
+        directory.resolve("other.json"), FileTime.from(Instant.now().minus(Duration.ofHours(2))));
+
+    Assertions.assertThat(loanPlanStore.find(expiredId)).isEmpty();
+
+    loanPlanStore.deleteExpiredPlans();
+
+    Assertions.assertThat(expiredFile).doesNotExist();
+    Assertions.assertThat(directory.resolve("other.json")).exists();
+    Assertions.assertThat(loanPlanStore.find(id)).contains(getPlan());
+  }
+
+  @Test
+  public void shouldDropPlansWhenTooManyArePending() throws Exception {
+    loanServiceProperties.getPlanStore().setMaximumPending(1);
+    loanPlanStore = new LoanPlanStore(loanServiceProperties, objectMapper);
+
+    String first = loanPlanStore.store(getPlan());
+    String second = loanPlanStore.store(getPlan());
+
+    Assertions.assertThat(first).isNotNull();
+    Assertions.assertThat(second).isNull();
+  }
+
+  @Test
+  public void shouldKeepPlanPendingAndWriteItAgainWhenWriteFails() throws Exception {
+    loanPlanStore = new LoanPlanStore(loanServiceProperties, failingObjectMapper(1));
+    String id = loanPlanStore.store(getPlan());
+
+    loanPlanStore.flush();
+
+    Assertions.assertThat(directory.resolve(id + ".json")).doesNotExist();
+    Assertions.assertThat(loanPlanStore.find(id)).contains(getPlan());
+
+    loanPlanStore.flush();
+
+    Assertions.assertThat(directory.resolve(id + ".json")).exists();
+    Assertions.assertThat(loanPlanStore.find(id)).contains(getPlan());
+  }
+
+  @Test
+  public void shouldGiveUpPlanAfterMaximumAttempts() throws Exception {
+    loanServiceProperties.getPlanStore().setMaximumAttempts(2);
+    loanPlanStore = new LoanPlanStore(loanServiceProperties, failingObjectMapper(2));
+    MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    loanPlanStore.bindTo(meterRegistry);
+    String id = loanPlanStore.store(getPlan());
+
+    loanPlanStore.flush();
+
+    Assertions.assertThat(loanPlanStore.find(id)).isPresent();
+    Assertions.assertThat(failedPlans(meterRegistry)).isZero();
+
+    loanPlanStore.flush();
+
+    Assertions.assertThat(loanPlanStore.find(id)).isEmpty();
+    Assertions.assertThat(failedPlans(meterRegistry)).isEqualTo(1);
+    Assertions.assertThat(meterRegistry.get("loan.plan.store.pending").gauge().value()).isZero();
+  }
+
+  @Test
+  public void shouldNotStorePlansWhenDisabled() throws Exception {
+    loanServiceProperties.getPlanStore().setEnabled(false);
+    loanPlanStore = new LoanPlanStore(loanServiceProperties, objectMapper);
+
+    Assertions.assertThat(loanPlanStore.isEnabled()).isFalse();
+    Assertions.assertThat(loanPlanStore.store(getPlan())).isNull();
+  }
+
+  /** Object mapper failing to write the first {@code failures} values to a file. */
+  private ObjectMapper failingObjectMapper(int failures) {
+    AtomicInteger remainingFailures = new AtomicInteger(failures);
+    ObjectMapper failingObjectMapper =
+        new ObjectMapper() {
+          @Override
+          public void writeValue(File resultFile, Object value) throws IOException {
+            if (remainingFailures.getAndDecrement() > 0) {
+              throw new IOException("Disk full");
+            }
+            super.writeValue(resultFile, value);
+          }
+        };
+    return failingObjectMapper
+        .findAndRegisterModules()
+        .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+  }
+
+  private double failedPlans(MeterRegistry meterRegistry) {
+    return meterRegistry
+        .get("loan.plan.store.plans")
+        .tag("result", "failed")
+        .functionCounter()
+        .count();
+  }
+
+  private List<MonthlyRepayment> getPlan() {
+    return Collections.singletonList(
+        MonthlyRepayment.builder()
+            .date(LocalDateTime.parse("2020-05-01T00:00:01"))
+            .borrowerPaymentAmount(new BigDecimal("5020.83"))
+            .interest(new BigDecimal("20.83"))
+            .principal(new BigDecimal("5000.00"))
+            .initialOutstandingPrincipal(new BigDecimal("5000"))
+            .remainingOutstandingPrincipal(new BigDecimal("0.00"))
+            .build());
+  }
+}
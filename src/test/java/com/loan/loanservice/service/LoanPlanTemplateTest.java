@@ -0,0 +1,103 @@
+package com.loan.loanservice.service;
+
+import com.loan.loanservice.domain.MonthlyRepayment;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class LoanPlanTemplateTest {
+
+  @Test
+  public void shouldProjectRepaymentsToStartDate() {
+    LoanPlanTemplate template = createLoanPlanTemplate();
+
+    List<MonthlyRepayment> repaymentList =
+        template.project(LocalDateTime.parse("2020-05-01T00:00:01"));
+
+    Assertions.assertThat(repaymentList).hasSize(2);
+    Assertions.assertThat(repaymentList.get(0))
+        .isEqualTo(
+            template
+                .getRepayments()
+                .get(0)
+                .toBuilder()
+                .date(LocalDateTime.parse("2020-05-01T00:00:01"))
+                .build());
+    Assertions.assertThat(repaymentList.get(1).getDate())
+        .isEqualTo(LocalDateTime.parse("2020-06-01T00:00:01"));
+  }
+
+  @Test
+  public void shouldKeepShortenedDayOfMonthLikeChainedPlusMonths() {
+    List<MonthlyRepayment> repaymentList =
+        createLoanPlanTemplate().project(LocalDateTime.parse("2021-01-31T10:00:00"));
+
+    Assertions.assertThat(repaymentList.get(1).getDate())
+        .isEqualTo(LocalDateTime.parse("2021-02-28T10:00:00"));
+  }
+
+  @Test
+  public void shouldNotModifyTemplateWhenProjecting() {
+    LoanPlanTemplate template = createLoanPlanTemplate();
+
+    template.project(LocalDateTime.parse("2020-05-01T00:00:01"));
+
+    Assertions.assertThat(template.getRepayments())
+        .extracting(MonthlyRepayment::getDate)
+        .containsOnlyNulls();
+  }
+
+  @Test
+  public void shouldCreateProjectedRepaymentsFromSchedule() {
+    LoanPlanTemplate template = createLoanPlanTemplate();
+
+    List<MonthlyRepayment> repaymentList =
+        template.project(LocalDateTime.parse("2020-05-01T00:00:01"));
+
+    Assertions.assertThat(repaymentList.get(1))
+        .isEqualTo(
+            template.getSchedule().getRepayment(1, LocalDateTime.parse("2020-06-01T00:00:01")));
+    Assertions.assertThat(repaymentList.iterator().next()).isEqualTo(repaymentList.get(0));
+  }
+
+  @Test
+  public void shouldIterateFromOffsetWithGivenDate() {
+    LoanPlanTemplate template = createLoanPlanTemplate();
+
+    Iterator<MonthlyRepayment> repayments =
+        template.iterator(1, LocalDateTime.parse("2020-06-01T00:00:01"));
+
+    Assertions.assertThat(repayments.next())
+        .isEqualTo(
+            template
+                .getRepayments()
+                .get(1)
+                .toBuilder()
+                .date(LocalDateTime.parse("2020-06-01T00:00:01"))
+                .build());
+    Assertions.assertThat(repayments.hasNext()).isFalse();
+  }
+
+  private LoanPlanTemplate createLoanPlanTemplate() {
+    return new LoanPlanTemplate(
+        Arrays.asList(
+            MonthlyRepayment.builder()
+                .borrowerPaymentAmount(new BigDecimal("2510.42"))
+                .interest(new BigDecimal("20.83"))
+                .principal(new BigDecimal("2489.59"))
+                .initialOutstandingPrincipal(new BigDecimal(5000))
+                .remainingOutstandingPrincipal(new BigDecimal("2510.41"))
+                .build(),
+            MonthlyRepayment.builder()
+                .borrowerPaymentAmount(new BigDecimal("2520.87"))
+                .interest(new BigDecimal("10.46"))
+                .principal(new BigDecimal("2510.41"))
+                .initialOutstandingPrincipal(new BigDecimal("2510.41"))
+                .remainingOutstandingPrincipal(BigDecimal.ZERO)
+                .build()));
+  }
+}
@@ -0,0 +1,130 @@
+package com.loan.loanservice.service;
+
+import com.loan.loanservice.domain.LoanRequest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import javax.validation.Validation;
+import javax.validation.Validator;
+import javax.validation.ValidatorFactory;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.validation.BeanPropertyBindingResult;
+import org.springframework.validation.Errors;
+import org.springframework.validation.FieldError;
+import org.springframework.validation.beanvalidation.SpringValidatorAdapter;
+
+public class LoanRequestValidatorTest {
+
+  private Validator validator;
+  private LoanRequestValidator loanRequestValidator;
+
+  @BeforeEach
+  public void setup() {
+    ValidatorFactory validatorFactory = Validation.buildDefaultValidatorFactory();
+    validator = validatorFactory.getValidator();
+    loanRequestValidator =
+        new LoanRequestValidator(validatorFactory, new LoanPlanMetrics(new SimpleMeterRegistry()));
+  }
+
+  @Test
+  public void shouldReportSameErrorsAsBeanValidation() {
+    List<Integer> durations = Arrays.asList(null, -1, 0, 1, 360);
+    List<BigDecimal> amounts =
+        Arrays.asList(
+            null,
+            new BigDecimal("-5"),
+            BigDecimal.ZERO,
+            new BigDecimal("0.99"),
+            BigDecimal.ONE,
+            new BigDecimal("1.00"),
+            new BigDecimal("5000"));
+    List<LocalDateTime> startDates =
+        Arrays.asList(null, LocalDateTime.now().minusDays(1), LocalDateTime.now().plusYears(1));
+    for (Integer duration : durations) {
+      for (BigDecimal amount : amounts) {
+        for (LocalDateTime startDate : startDates) {
+          LoanRequest loanRequest =
+              LoanRequest.builder()
+                  .durationInMonth(duration)
+                  .nominalRate(amount)
+                  .loanAmount(amount)
+                  .startDate(startDate)
+                  .build();
+
+          Assertions.assertThat(loanRequestValidator.validate(loanRequest))
+              .as("request %s", loanRequest)
+              .isEqualTo(validateReflectively(loanRequest));
+        }
+      }
+    }
+  }
+
+  @Test
+  public void shouldReportNoErrorsForValidRequest() {
+    LoanRequest loanRequest =
+        LoanRequest.builder()
+            .durationInMonth(24)
+            .nominalRate(new BigDecimal(5))
+            .loanAmount(new BigDecimal(5000))
+            .startDate(LocalDateTime.now().plusDays(1))
+            .build();
+
+    Assertions.assertThat(loanRequestValidator.validate(loanRequest)).isEmpty();
+  }
+
+  @Test
+  public void shouldRejectInvalidPropertiesWithConstraintCodeAndMessage() {
+    LoanRequest loanRequest =
+        LoanRequest.builder()
+            .durationInMonth(24)
+            .nominalRate(new BigDecimal(5))
+            .loanAmount(BigDecimal.ZERO)
+            .startDate(LocalDateTime.now().plusDays(1))
+            .build();
+    Errors errors = new BeanPropertyBindingResult(loanRequest, "loanRequest");
+
+    loanRequestValidator.validate(loanRequest, errors);
+
+    Assertions.assertThat(errors.getErrorCount()).isEqualTo(1);
+    Assertions.assertThat(errors.getFieldError("loanAmount").getCode()).isEqualTo("Min");
+    Assertions.assertThat(errors.getFieldError("loanAmount").getDefaultMessage())
+        .isEqualTo("loanAmount must be greater than or equal to 1");
+  }
+
+  @Test
+  public void shouldRejectWithSameFieldErrorsAsSpringValidatorAdapter() {
+    LoanRequest loanRequest =
+        LoanRequest.builder()
+            .durationInMonth(0)
+            .nominalRate(null)
+            .loanAmount(BigDecimal.ZERO)
+            .startDate(LocalDateTime.now().minusDays(1))
+            .build();
+    Errors errors = new BeanPropertyBindingResult(loanRequest, "loanRequest");
+    Errors expectedErrors = new BeanPropertyBindingResult(loanRequest, "loanRequest");
+
+    loanRequestValidator.validate(loanRequest, errors);
+    new SpringValidatorAdapter(validator).validate(loanRequest, expectedErrors);
+
+    Assertions.assertThat(describe(errors)).isEqualTo(describe(expectedErrors));
+  }
+
+  private static List<String> describe(Errors errors) {
+    return errors.getFieldErrors().stream()
+        .map(FieldError::toString)
+        .sorted()
+        .collect(Collectors.toList());
+  }
+
+  private List<String> validateReflectively(LoanRequest loanRequest) {
+    return validator.validate(loanRequest).stream()
+        .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+        .sorted()
+        .collect(Collectors.toList());
+  }
+}
@@ -0,0 +1,159 @@
+package com.loan.loanservice.service;
+
+import com.loan.loanservice.configuration.LoanServiceProperties;
+import com.loan.loanservice.domain.CalculationBackend;
+import com.loan.loanservice.domain.LoanEvent;
+import com.loan.loanservice.domain.LoanRequest;
+import com.loan.loanservice.domain.LoanScenarioRequest;
+import com.loan.loanservice.domain.MonthlyRepayment;
+import com.loan.loanservice.utils.InterestCalculationUtil;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class LoanScenarioServiceTest {
+
+  private LoanPlanCache loanPlanCache;
+  private LoanPlanGeneratorService planGeneratorService;
+  private LoanScenarioService loanScenarioService;
+
+  @BeforeEach
+  public void setup() {
+    LoanServiceProperties loanServiceProperties = new LoanServiceProperties();
+    RateCardIndex rateCardIndex = new RateCardIndex(loanServiceProperties);
+    loanPlanCache = new LoanPlanCache(loanServiceProperties);
+    planGeneratorService =
+        new LoanPlanGeneratorService(
+            loanServiceProperties,
+            loanPlanCache,
+            new LoanPlanMetrics(new SimpleMeterRegistry()),
+            rateCardIndex);
+    loanScenarioService =
+        new LoanScenarioService(loanServiceProperties, planGeneratorService, rateCardIndex);
+  }
+
+  @Test
+  public void shouldGenerateCachedPlanWithoutEvents() {
+    LoanRequest loanRequest = getLoanRequest();
+
+    List<MonthlyRepayment> scenario =
+        loanScenarioService.generateLoanScenario(
+            new LoanScenarioRequest(loanRequest, Collections.emptyList()));
+
+    Assertions.assertThat(loanPlanCache.getIfPresent(loanRequest)).isNotNull();
+    Assertions.assertThat(scenario).isEqualTo(planGeneratorService.generateLoanPlan(loanRequest));
+  }
+
+  @Test
+  public void shouldShortenPlanAfterExtraRepayment() {
+    LoanRequest loanRequest = getLoanRequest();
+    List<MonthlyRepayment> plan = planGeneratorService.generateLoanPlan(loanRequest);
+
+    for (CalculationBackend calculationBackend : CalculationBackend.values()) {
+      loanRequest.setCalculationBackend(calculationBackend);
+      List<MonthlyRepayment> scenario =
+          loanScenarioService.generateLoanScenario(
+              new LoanScenarioRequest(
+                  loanRequest,
+                  Collections.singletonList(
+                      LoanEvent.builder()
+                          .month(24)
+                          .extraRepayment(new BigDecimal("5000"))
+                          .build())));
+
+      Assertions.assertThat(scenario.subList(0, 23)).isEqualTo(plan.subList(0, 23));
+      MonthlyRepayment extraRepayment = scenario.get(23);
+      Assertions.assertThat(extraRepayment.getInterest()).isEqualTo(plan.get(23).getInterest());
+      Assertions.assertThat(extraRepayment.getPrincipal())
+          .isEqualTo(plan.get(23).getPrincipal().add(new BigDecimal("5000")));
+      Assertions.assertThat(extraRepayment.getRemainingOutstandingPrincipal())
+          .isEqualTo(
+              plan.get(23).getRemainingOutstandingPrincipal().subtract(new BigDecimal("5000")));
+      Assertions.assertThat(scenario.size()).isLessThan(plan.size());
+      assertConsistent(scenario, loanRequest.getStartDate());
+    }
+  }
+
+  @Test
+  public void shouldPayOffLoanWhenExtraRepaymentCoversOutstandingPrincipal() {
+    LoanRequest loanRequest = getLoanRequest();
+    List<MonthlyRepayment> plan = planGeneratorService.generateLoanPlan(loanRequest);
+
+    List<MonthlyRepayment> scenario =
+        loanScenarioService.generateLoanScenario(
+            new LoanScenarioRequest(
+                loanRequest,
+                Arrays.asList(
+                    LoanEvent.builder().month(3).extraRepayment(new BigDecimal("1000000")).build(),
+                    LoanEvent.builder().month(5).extraRepayment(new BigDecimal("1000")).build())));
+
+    Assertions.assertThat(scenario).hasSize(3);
+    Assertions.assertThat(scenario.get(2).getRemainingOutstandingPrincipal())
+        .isEqualTo(BigDecimal.ZERO);
+    Assertions.assertThat(scenario.get(2).getBorrowerPaymentAmount())
+        .isEqualTo(plan.get(2).getInterest().add(plan.get(2).getInitialOutstandingPrincipal()));
+  }
+
+  @Test
+  public void shouldRecalculateAnnuityAfterRateChange() {
+    LoanRequest loanRequest = getLoanRequest();
+    List<MonthlyRepayment> plan = planGeneratorService.generateLoanPlan(loanRequest);
+
+    List<MonthlyRepayment> scenario =
+        loanScenarioService.generateLoanScenario(
+            new LoanScenarioRequest(
+                loanRequest,
+                Arrays.asList(
+                    LoanEvent.builder().month(1).build(),
+                    LoanEvent.builder().month(121).nominalRate(new BigDecimal("7.25")).build())));
+
+    Assertions.assertThat(scenario.subList(0, 120)).isEqualTo(plan.subList(0, 120));
+    BigDecimal outstandingPrincipal = plan.get(119).getRemainingOutstandingPrincipal();
+    Assertions.assertThat(scenario.get(120).getInterest())
+        .isEqualTo(
+            InterestCalculationUtil.calculateInterest(
+                outstandingPrincipal,
+                new BigDecimal("7.25").divide(new BigDecimal(100), 20, RoundingMode.HALF_DOWN)));
+    Assertions.assertThat(scenario.get(120).getBorrowerPaymentAmount())
+        .isEqualTo(
+            InterestCalculationUtil.calculateAnnuity(
+                LoanRequest.builder()
+                    .loanAmount(outstandingPrincipal)
+                    .nominalRate(new BigDecimal("7.25"))
+                    .durationInMonth(240)
+                    .build()));
+    Assertions.assertThat(scenario).hasSize(360);
+    assertConsistent(scenario, loanRequest.getStartDate());
+  }
+
+  private void assertConsistent(List<MonthlyRepayment> scenario, LocalDateTime startDate) {
+    BigDecimal outstandingPrincipal = scenario.get(0).getInitialOutstandingPrincipal();
+    for (int index = 0; index < scenario.size(); index++) {
+      MonthlyRepayment monthlyRepayment = scenario.get(index);
+      Assertions.assertThat(monthlyRepayment.getDate()).isEqualTo(startDate.plusMonths(index));
+      Assertions.assertThat(monthlyRepayment.getInitialOutstandingPrincipal())
+          .isEqualByComparingTo(outstandingPrincipal);
+      Assertions.assertThat(monthlyRepayment.getRemainingOutstandingPrincipal())
+          .isEqualByComparingTo(
+              outstandingPrincipal.subtract(monthlyRepayment.getPrincipal()).max(BigDecimal.ZERO));
+      outstandingPrincipal = monthlyRepayment.getRemainingOutstandingPrincipal();
+    }
+    Assertions.assertThat(outstandingPrincipal).isEqualTo(BigDecimal.ZERO);
+  }
+
+  private LoanRequest getLoanRequest() {
+    return LoanRequest.builder()
+        .nominalRate(new BigDecimal("5.5"))
+        .loanAmount(new BigDecimal("250000"))
+        .durationInMonth(360)
+        .startDate(LocalDateTime.parse("2020-05-01T00:00:01"))
+        .build();
+  }
+}
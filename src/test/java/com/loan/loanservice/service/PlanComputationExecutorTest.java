@@ -0,0 +1,107 @@
+package com.loan.loanservice.service;
+
+import com.loan.loanservice.configuration.LoanServiceProperties;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import javax.validation.ValidationException;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class PlanComputationExecutorTest {
+
+  private LoanServiceProperties loanServiceProperties;
+  private PlanComputationExecutor planComputationExecutor;
+  private CountDownLatch computationReleased;
+
+  @BeforeEach
+  public void setup() {
+    loanServiceProperties = new LoanServiceProperties();
+    computationReleased = new CountDownLatch(1);
+  }
+
+  @AfterEach
+  public void tearDown() {
+    computationReleased.countDown();
+    if (planComputationExecutor != null) {
+      planComputationExecutor.shutdown();
+    }
+  }
+
+  @Test
+  public void shouldCalculateOnPlanComputationThread() {
+    planComputationExecutor = new PlanComputationExecutor(loanServiceProperties);
+
+    String threadName =
+        planComputationExecutor.submit(() -> Thread.currentThread().getName()).join();
+
+    Assertions.assertThat(threadName).startsWith("plan-computation-");
+  }
+
+  @Test
+  public void shouldCompleteWithExceptionOfCalculation() {
+    planComputationExecutor = new PlanComputationExecutor(loanServiceProperties);
+
+    CompletableFuture<Object> future =
+        planComputationExecutor.submit(
+            () -> {
+              throw new ValidationException("Invalid Loan Request");
+            });
+
+    ExecutionException exception =
+        org.junit.jupiter.api.Assertions.assertThrows(ExecutionException.class, future::get);
+    Assertions.assertThat(exception.getCause())
+        .isInstanceOf(ValidationException.class)
+        .hasMessage("Invalid Loan Request");
+  }
+
+  @Test
+  public void shouldRejectCalculationWhenPoolAndQueueAreFull() throws Exception {
+    loanServiceProperties.getExecution().setParallelism(1);
+    loanServiceProperties.getExecution().setQueueCapacity(1);
+    loanServiceProperties.getExecution().setRetryAfter(Duration.ofSeconds(5));
+    planComputationExecutor = new PlanComputationExecutor(loanServiceProperties);
+    CountDownLatch computationStarted = new CountDownLatch(1);
+
+    CompletableFuture<Integer> running =
+        planComputationExecutor.submit(
+            () -> {
+              computationStarted.countDown();
+              awaitRelease();
+              return 1;
+            });
+    computationStarted.await();
+    CompletableFuture<Integer> queued = planComputationExecutor.submit(() -> 2);
+
+    PlanComputationRejectedException exception =
+        org.junit.jupiter.api.Assertions.assertThrows(
+            PlanComputationRejectedException.class, () -> planComputationExecutor.submit(() -> 3));
+    computationReleased.countDown();
+
+    Assertions.assertThat(exception.getRetryAfter()).isEqualTo(Duration.ofSeconds(5));
+    Assertions.assertThat(planComputationExecutor.rejectedCount()).isEqualTo(1);
+    Assertions.assertThat(running.get()).isEqualTo(1);
+    Assertions.assertThat(queued.get()).isEqualTo(2);
+  }
+
+  @Test
+  public void shouldCalculateOnCallingThreadWhenDisabled() {
+    loanServiceProperties.getExecution().setEnabled(false);
+    planComputationExecutor = new PlanComputationExecutor(loanServiceProperties);
+
+    Thread thread = planComputationExecutor.submit(Thread::currentThread).join();
+
+    Assertions.assertThat(thread).isSameAs(Thread.currentThread());
+  }
+
+  private void awaitRelease() {
+    try {
+      computationReleased.await();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
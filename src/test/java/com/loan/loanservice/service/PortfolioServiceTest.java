@@ -0,0 +1,163 @@
+package com.loan.loanservice.service;
+
+import com.loan.loanservice.configuration.LoanServiceProperties;
+import com.loan.loanservice.domain.LoanRequest;
+import com.loan.loanservice.domain.MonthlyRepayment;
+import com.loan.loanservice.domain.PortfolioMonth;
+import com.loan.loanservice.domain.PortfolioProjection;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import javax.validation.Validation;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class PortfolioServiceTest {
+
+  private ForkJoinPool batchComputationPool;
+  private LoanPlanGeneratorService planGeneratorService;
+  private PortfolioService portfolioService;
+
+  @BeforeEach
+  public void setup() {
+    LoanServiceProperties loanServiceProperties = new LoanServiceProperties();
+    batchComputationPool = new ForkJoinPool(4);
+    planGeneratorService =
+        new LoanPlanGeneratorService(
+            loanServiceProperties,
+            new LoanPlanCache(loanServiceProperties),
+            new LoanPlanMetrics(new SimpleMeterRegistry()),
+            new RateCardIndex(loanServiceProperties));
+    portfolioService =
+        new PortfolioService(
+            planGeneratorService,
+            new BatchLoanPlanService(
+                planGeneratorService,
+                new LoanRequestValidator(
+                    Validation.buildDefaultValidatorFactory(),
+                    new LoanPlanMetrics(new SimpleMeterRegistry())),
+                batchComputationPool),
+            batchComputationPool);
+  }
+
+  @AfterEach
+  public void tearDown() {
+    batchComputationPool.shutdown();
+  }
+
+  @Test
+  public void shouldAddUpRepaymentsPerMonth() {
+    List<LoanRequest> loanRequests = new ArrayList<>();
+    for (int i = 0; i < 200; i++) {
+      loanRequests.add(
+          getLoanRequest(
+              new BigDecimal(1000 + i * 250).movePointLeft(i % 3),
+              1 + i % 60,
+              LocalDateTime.parse("2030-01-31T00:00:01").plusMonths(i % 13)));
+    }
+
+    PortfolioProjection portfolioProjection = portfolioService.projectPortfolio(loanRequests);
+
+    Map<YearMonth, PortfolioMonth> expected = new TreeMap<>();
+    for (LoanRequest loanRequest : loanRequests) {
+      for (MonthlyRepayment repayment : planGeneratorService.generateLoanPlan(loanRequest)) {
+        PortfolioMonth month =
+            expected.computeIfAbsent(
+                YearMonth.from(repayment.getDate()),
+                yearMonth ->
+                    new PortfolioMonth(
+                        yearMonth,
+                        0,
+                        new BigDecimal("0.00"),
+                        new BigDecimal("0.00"),
+                        new BigDecimal("0.00"),
+                        new BigDecimal("0.00")));
+        month.setNumberOfRepayments(month.getNumberOfRepayments() + 1);
+        month.setInterest(month.getInterest().add(repayment.getInterest()));
+        month.setPrincipal(month.getPrincipal().add(repayment.getPrincipal()));
+        month.setBorrowerPaymentAmount(
+            month.getBorrowerPaymentAmount().add(repayment.getBorrowerPaymentAmount()));
+        month.setRemainingOutstandingPrincipal(
+            month
+                .getRemainingOutstandingPrincipal()
+                .add(repayment.getRemainingOutstandingPrincipal()));
+      }
+    }
+    Assertions.assertThat(portfolioProjection.getNumberOfLoans()).isEqualTo(200);
+    Assertions.assertThat(portfolioProjection.getMonths())
+        .isEqualTo(new ArrayList<>(expected.values()));
+    Assertions.assertThat(portfolioProjection.getRejectedLoans()).isEmpty();
+  }
+
+  @Test
+  public void shouldIncludeMonthsWithoutRepayments() {
+    List<LoanRequest> loanRequests =
+        Arrays.asList(
+            getLoanRequest(new BigDecimal(5000), 1, LocalDateTime.parse("2030-01-15T00:00:01")),
+            getLoanRequest(new BigDecimal(5000), 1, LocalDateTime.parse("2030-03-15T00:00:01")));
+
+    List<PortfolioMonth> months = portfolioService.projectPortfolio(loanRequests).getMonths();
+
+    Assertions.assertThat(months)
+        .extracting(PortfolioMonth::getMonth)
+        .containsExactly(YearMonth.of(2030, 1), YearMonth.of(2030, 2), YearMonth.of(2030, 3));
+    Assertions.assertThat(months.get(1).getNumberOfRepayments()).isZero();
+    Assertions.assertThat(months.get(1).getBorrowerPaymentAmount()).isEqualByComparingTo("0");
+  }
+
+  @Test
+  public void shouldReportRejectedLoansInRequestOrder() {
+    LoanRequest invalidLoanRequest =
+        getLoanRequest(BigDecimal.ZERO, 12, LocalDateTime.parse("2030-01-15T00:00:01"));
+    LoanRequest notAmortizingLoanRequest =
+        getLoanRequest(BigDecimal.ONE, 1200, LocalDateTime.parse("2030-01-15T00:00:01"));
+    notAmortizingLoanRequest.setNominalRate(BigDecimal.ONE);
+    List<LoanRequest> loanRequests =
+        Arrays.asList(
+            notAmortizingLoanRequest,
+            getLoanRequest(new BigDecimal(5000), 12, LocalDateTime.parse("2030-01-15T00:00:01")),
+            invalidLoanRequest);
+
+    PortfolioProjection portfolioProjection = portfolioService.projectPortfolio(loanRequests);
+
+    Assertions.assertThat(portfolioProjection.getNumberOfLoans()).isEqualTo(1);
+    Assertions.assertThat(portfolioProjection.getMonths()).hasSize(12);
+    Assertions.assertThat(portfolioProjection.getRejectedLoans()).hasSize(2);
+    Assertions.assertThat(portfolioProjection.getRejectedLoans().get(0).getIndex()).isEqualTo(0);
+    Assertions.assertThat(portfolioProjection.getRejectedLoans().get(0).getErrors())
+        .containsExactly("Invalid Loan Request. Annuity does not cover the monthly interest.");
+    Assertions.assertThat(portfolioProjection.getRejectedLoans().get(1).getIndex()).isEqualTo(2);
+    Assertions.assertThat(portfolioProjection.getRejectedLoans().get(1).getErrors())
+        .containsExactly("loanAmount: loanAmount must be greater than or equal to 1");
+  }
+
+  @Test
+  public void shouldReturnEmptyProjectionWithoutValidLoans() {
+    PortfolioProjection portfolioProjection =
+        portfolioService.projectPortfolio(Collections.singletonList(null));
+
+    Assertions.assertThat(portfolioProjection.getNumberOfLoans()).isZero();
+    Assertions.assertThat(portfolioProjection.getMonths()).isEmpty();
+    Assertions.assertThat(portfolioProjection.getRejectedLoans()).hasSize(1);
+  }
+
+  private LoanRequest getLoanRequest(
+      BigDecimal loanAmount, int durationInMonth, LocalDateTime startDate) {
+    return LoanRequest.builder()
+        .nominalRate(new BigDecimal("5.125"))
+        .loanAmount(loanAmount)
+        .durationInMonth(durationInMonth)
+        .startDate(startDate)
+        .build();
+  }
+}
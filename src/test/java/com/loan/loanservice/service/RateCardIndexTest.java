@@ -0,0 +1,103 @@
+package com.loan.loanservice.service;
+
+import com.loan.loanservice.configuration.LoanServiceProperties;
+import com.loan.loanservice.domain.LoanRequest;
+import com.loan.loanservice.utils.InterestCalculationUtil;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class RateCardIndexTest {
+
+  private static final List<Integer> DURATIONS = Arrays.asList(12, 24, 36, 60, 120, 240, 360);
+
+  private List<BigDecimal> nominalRates;
+  private RateCardIndex rateCardIndex;
+  private MeterRegistry meterRegistry;
+
+  @BeforeEach
+  public void setup() {
+    nominalRates =
+        Arrays.asList(new BigDecimal("1.99"), new BigDecimal("3.5"), new BigDecimal("7"));
+    LoanServiceProperties loanServiceProperties = new LoanServiceProperties();
+    loanServiceProperties.getRateCard().setNominalRates(nominalRates);
+    loanServiceProperties.getRateCard().setDurations(DURATIONS);
+    rateCardIndex = new RateCardIndex(loanServiceProperties);
+    meterRegistry = new SimpleMeterRegistry();
+    rateCardIndex.bindTo(meterRegistry);
+  }
+
+  @Test
+  public void shouldIndexEveryRateAndDuration() {
+    Assertions.assertThat(rateCardIndex.size()).isEqualTo(21);
+  }
+
+  @Test
+  public void shouldCalculateSameAnnuityOnRateCard() {
+    Random random = new Random(20200501L);
+    for (int i = 0; i < 5000; i++) {
+      LoanRequest loanRequest =
+          getLoanRequest(
+              nominalRates.get(random.nextInt(nominalRates.size())),
+              DURATIONS.get(random.nextInt(DURATIONS.size())),
+              BigDecimal.valueOf(100_000 + random.nextInt(1_000_000_000), random.nextInt(4)));
+
+      Assertions.assertThat(rateCardIndex.calculateAnnuity(loanRequest))
+          .as("request %s", loanRequest)
+          .isEqualTo(InterestCalculationUtil.calculateAnnuity(loanRequest));
+    }
+    Assertions.assertThat(lookups("hit")).isEqualTo(5000);
+    Assertions.assertThat(lookups("miss")).isZero();
+  }
+
+  @Test
+  public void shouldIgnoreTrailingZerosOfRate() {
+    rateCardIndex.calculateAnnuity(
+        getLoanRequest(new BigDecimal("3.50"), 60, new BigDecimal(5000)));
+    rateCardIndex.calculateAnnuity(getLoanRequest(new BigDecimal("7.0"), 60, new BigDecimal(5000)));
+
+    Assertions.assertThat(lookups("hit")).isEqualTo(2);
+  }
+
+  @Test
+  public void shouldFallBackToLiveCalculationOffRateCard() {
+    LoanRequest offRate = getLoanRequest(new BigDecimal("5"), 24, new BigDecimal(5000));
+    LoanRequest offDuration = getLoanRequest(new BigDecimal("7"), 25, new BigDecimal(5000));
+    LoanRequest onCard = getLoanRequest(new BigDecimal("7"), 24, new BigDecimal(5000));
+
+    Assertions.assertThat(rateCardIndex.calculateAnnuity(offRate))
+        .isEqualTo(BigDecimal.valueOf(219.36));
+    Assertions.assertThat(rateCardIndex.calculateAnnuity(offDuration))
+        .isEqualTo(InterestCalculationUtil.calculateAnnuity(offDuration));
+    rateCardIndex.calculateAnnuity(onCard);
+    rateCardIndex.calculateAnnuity(onCard);
+
+    Assertions.assertThat(lookups("miss")).isEqualTo(2);
+    Assertions.assertThat(meterRegistry.get("loan.plan.rate.card.hit.ratio").gauge().value())
+        .isEqualTo(0.5);
+  }
+
+  private double lookups(String result) {
+    return meterRegistry
+        .get("loan.plan.rate.card.lookups")
+        .tag("result", result)
+        .functionCounter()
+        .count();
+  }
+
+  private LoanRequest getLoanRequest(BigDecimal nominalRate, int duration, BigDecimal loanAmount) {
+    return LoanRequest.builder()
+        .nominalRate(nominalRate)
+        .loanAmount(loanAmount)
+        .durationInMonth(duration)
+        .startDate(LocalDateTime.parse("2020-05-01T00:00:01"))
+        .build();
+  }
+}
@@ -0,0 +1,94 @@
+package com.loan.loanservice.service;
+
+import com.loan.loanservice.domain.CalculationBackend;
+import com.loan.loanservice.domain.LoanRequest;
+import com.loan.loanservice.domain.MonthlyRepayment;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class RepaymentScheduleTest {
+
+  @Test
+  public void shouldScheduleSameRepaymentsAsIterator() {
+    for (String loanAmount : new String[] {"5000", "5000.5", "250000.125", "30000000000000"}) {
+      LoanRequest loanRequest = getLoanRequest(loanAmount);
+      List<MonthlyRepayment> repayments = new ArrayList<>();
+      new AmortizationScheduleIterator(loanRequest, CalculationBackend.BIG_DECIMAL)
+          .forEachRemaining(repayments::add);
+
+      for (CalculationBackend calculationBackend : CalculationBackend.values()) {
+        RepaymentSchedule schedule =
+            new AmortizationScheduleIterator(loanRequest, calculationBackend).scheduleRemaining();
+
+        Assertions.assertThat(schedule.toRepayments())
+            .as("%s %s", loanAmount, calculationBackend)
+            .isEqualTo(repayments);
+      }
+    }
+  }
+
+  @Test
+  public void shouldKeepScaleOfAmounts() {
+    List<MonthlyRepayment> repayments =
+        Arrays.asList(
+            MonthlyRepayment.builder()
+                .borrowerPaymentAmount(new BigDecimal("5020.83"))
+                .interest(new BigDecimal("20.83"))
+                .principal(new BigDecimal("5000.00"))
+                .initialOutstandingPrincipal(new BigDecimal(5000))
+                .remainingOutstandingPrincipal(new BigDecimal("0.00"))
+                .build(),
+            MonthlyRepayment.builder()
+                .borrowerPaymentAmount(new BigDecimal("1.000"))
+                .interest(BigDecimal.ZERO)
+                .principal(new BigDecimal("1.000"))
+                .initialOutstandingPrincipal(new BigDecimal("1.000"))
+                .remainingOutstandingPrincipal(BigDecimal.ZERO)
+                .build());
+
+    Assertions.assertThat(RepaymentSchedule.of(repayments).toRepayments()).isEqualTo(repayments);
+  }
+
+  @Test
+  public void shouldDateRepayment() {
+    RepaymentSchedule schedule =
+        new AmortizationScheduleIterator(getLoanRequest("5000"), CalculationBackend.FIXED_POINT)
+            .scheduleRemaining();
+
+    Assertions.assertThat(schedule.getRepayment(3, LocalDateTime.parse("2020-08-01T00:00:01")))
+        .isEqualTo(
+            schedule
+                .getRepayment(3)
+                .toBuilder()
+                .date(LocalDateTime.parse("2020-08-01T00:00:01"))
+                .build());
+  }
+
+  @Test
+  public void shouldSumRepaymentsLikeIterator() {
+    for (CalculationBackend calculationBackend : CalculationBackend.values()) {
+      RepaymentSchedule schedule =
+          new AmortizationScheduleIterator(getLoanRequest("5000"), calculationBackend)
+              .scheduleRemaining();
+
+      Assertions.assertThat(schedule.sum())
+          .isEqualTo(
+              new AmortizationScheduleIterator(getLoanRequest("5000"), calculationBackend)
+                  .sumRemaining());
+    }
+  }
+
+  private LoanRequest getLoanRequest(String loanAmount) {
+    return LoanRequest.builder()
+        .nominalRate(new BigDecimal("5.125"))
+        .loanAmount(new BigDecimal(loanAmount))
+        .durationInMonth(24)
+        .startDate(LocalDateTime.parse("2020-05-01T00:00:01"))
+        .build();
+  }
+}
@@ -0,0 +1,57 @@
+package com.loan.loanservice.utils;
+
+import com.loan.loanservice.domain.DayCountConvention;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class DayCountTest {
+
+  @Test
+  public void shouldUseThirtyDaysOfThreeHundredSixtyByDefault() {
+    DayFractions dayFractions = DayCount.of(null).dayFractions(null, 360);
+
+    Assertions.assertThat(DayCount.of(DayCountConvention.THIRTY_360)).isSameAs(DayCount.of(null));
+    Assertions.assertThat(dayFractions.isConstant()).isTrue();
+    Assertions.assertThat(dayFractions.getNumerator(0)).isEqualTo(30);
+    Assertions.assertThat(dayFractions.getNumerator(1000)).isEqualTo(30);
+    Assertions.assertThat(dayFractions.getDenominator()).isEqualTo(360);
+  }
+
+  @Test
+  public void shouldCountActualDaysBetweenRepaymentDates() {
+    DayFractions dayFractions =
+        DayCount.of(DayCountConvention.ACTUAL_365)
+            .dayFractions(LocalDateTime.parse("2020-01-31T00:00:01"), 12);
+
+    Assertions.assertThat(dayFractions.isConstant()).isFalse();
+    // December 31st to January 31st, February 29th, March 29th and April 29th.
+    Assertions.assertThat(dayFractions.getNumerator(0)).isEqualTo(31);
+    Assertions.assertThat(dayFractions.getNumerator(1)).isEqualTo(29);
+    Assertions.assertThat(dayFractions.getNumerator(2)).isEqualTo(29);
+    Assertions.assertThat(dayFractions.getNumerator(3)).isEqualTo(31);
+    Assertions.assertThat(dayFractions.getNumeratorDecimal(3)).isEqualTo(new BigDecimal(31));
+    Assertions.assertThat(dayFractions.getDenominator()).isEqualTo(365);
+  }
+
+  @Test
+  public void shouldWeightDaysOfLeapYearsWithActualActual() {
+    LocalDateTime startDate = LocalDateTime.parse("2020-01-15T00:00:01");
+    DayFractions dayFractions =
+        DayCount.of(DayCountConvention.ACTUAL_ACTUAL).dayFractions(startDate, 2);
+
+    Assertions.assertThat(dayFractions.getDenominator()).isEqualTo(365 * 366);
+    // 17 days of 2019 are 1/365 each, 14 days of 2020 are 1/366 each.
+    Assertions.assertThat(dayFractions.getNumerator(0)).isEqualTo(17 * 366 + 14 * 365);
+    Assertions.assertThat(dayFractions.getNumerator(1)).isEqualTo(31 * 365);
+    // Periods after the expected ones are calculated on access. December 15th 2020 to January 15th
+    // 2021: 17 days of 2020 are 1/366 each, 14 days of 2021 are 1/365 each.
+    Assertions.assertThat(dayFractions.getNumerator(12))
+        .isEqualTo(
+            DayCount.of(DayCountConvention.ACTUAL_ACTUAL)
+                .dayFractions(startDate, 13)
+                .getNumerator(12))
+        .isEqualTo(17 * 365 + 14 * 366);
+  }
+}
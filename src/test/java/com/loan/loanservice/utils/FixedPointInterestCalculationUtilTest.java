@@ -0,0 +1,65 @@
+package com.loan.loanservice.utils;
+
+import com.loan.loanservice.utils.FixedPointInterestCalculationUtil.MonthlyRate;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Random;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class FixedPointInterestCalculationUtilTest {
+
+  @Test
+  public void shouldCalculateInterest() {
+    MonthlyRate monthlyRate =
+        FixedPointInterestCalculationUtil.toMonthlyRate(new BigDecimal("0.05"));
+    long interest = FixedPointInterestCalculationUtil.calculateInterest(500000L, monthlyRate);
+    Assertions.assertThat(interest).isEqualTo(2083L);
+  }
+
+  @Test
+  public void shouldCalculateSameInterestAsBigDecimal() {
+    Random random = new Random(42L);
+    for (int i = 0; i < 100_000; i++) {
+      BigDecimal nominalRate =
+          BigDecimal.valueOf(1 + random.nextInt(10_000), 2)
+              .divide(new BigDecimal(100), 20, RoundingMode.HALF_DOWN);
+      long cents = random.nextInt(Integer.MAX_VALUE);
+
+      long interest =
+          FixedPointInterestCalculationUtil.calculateInterest(
+              cents, FixedPointInterestCalculationUtil.toMonthlyRate(nominalRate));
+
+      Assertions.assertThat(FixedPointInterestCalculationUtil.fromCents(interest))
+          .isEqualTo(
+              InterestCalculationUtil.calculateInterest(
+                  FixedPointInterestCalculationUtil.fromCents(cents), nominalRate));
+    }
+  }
+
+  @Test
+  public void shouldRoundHalfDown() {
+    Assertions.assertThat(FixedPointInterestCalculationUtil.divideHalfDown(5, 2)).isEqualTo(2L);
+    Assertions.assertThat(FixedPointInterestCalculationUtil.divideHalfDown(7, 4)).isEqualTo(2L);
+    Assertions.assertThat(FixedPointInterestCalculationUtil.divideHalfDown(5, 4)).isEqualTo(1L);
+    Assertions.assertThat(FixedPointInterestCalculationUtil.divideHalfDown(-5, 2)).isEqualTo(-2L);
+    Assertions.assertThat(FixedPointInterestCalculationUtil.divideHalfDown(-7, 4)).isEqualTo(-2L);
+  }
+
+  @Test
+  public void shouldConvertCents() {
+    Assertions.assertThat(FixedPointInterestCalculationUtil.toCents(new BigDecimal("5000")))
+        .isEqualTo(500000L);
+    Assertions.assertThat(FixedPointInterestCalculationUtil.toCents(new BigDecimal("20.83")))
+        .isEqualTo(2083L);
+    Assertions.assertThat(FixedPointInterestCalculationUtil.fromCents(2083L))
+        .isEqualTo(new BigDecimal("20.83"));
+  }
+
+  @Test
+  public void shouldNotConvertFractionsOfCents() {
+    org.junit.jupiter.api.Assertions.assertThrows(
+        ArithmeticException.class,
+        () -> FixedPointInterestCalculationUtil.toCents(new BigDecimal("0.001")));
+  }
+}
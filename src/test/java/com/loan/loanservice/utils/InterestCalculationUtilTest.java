@@ -1,5 +1,6 @@
 package com.loan.loanservice.utils;
 
+import com.loan.loanservice.domain.DayCountConvention;
 import com.loan.loanservice.domain.LoanRequest;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -21,6 +22,61 @@ public class InterestCalculationUtilTest {
     Assertions.assertThat(annuity).isEqualTo(BigDecimal.valueOf(219.36));
   }
 
+  @Test
+  public void shouldCalculateSameAnnuityFromAnnuityFactor() {
+    LoanRequest loanRequest = getLoanRequest();
+    BigDecimal monthlyRate = InterestCalculationUtil.calculateMonthlyRate(new BigDecimal("5.00"));
+    BigDecimal discountFactor = RatePowerUtil.calculateDiscountFactor(monthlyRate, 24);
+
+    BigDecimal annuity =
+        InterestCalculationUtil.calculateAnnuity(
+            loanRequest.getLoanAmount(),
+            monthlyRate,
+            discountFactor,
+            InterestCalculationUtil.calculateAnnuityFactor(monthlyRate, discountFactor));
+
+    Assertions.assertThat(annuity).isEqualTo(BigDecimal.valueOf(219.36));
+  }
+
+  @Test
+  public void shouldCalculateSameAnnuityFromPresentValueFactorOfConstantFractions() {
+    BigDecimal presentValueFactor =
+        InterestCalculationUtil.calculatePresentValueFactor(
+            new BigDecimal(5), DayCount.THIRTY_360.dayFractions(null, 24), 0, 24);
+
+    BigDecimal annuity =
+        InterestCalculationUtil.calculateAnnuity(new BigDecimal(5000), presentValueFactor);
+
+    Assertions.assertThat(annuity).isEqualTo(BigDecimal.valueOf(219.36));
+  }
+
+  @Test
+  public void shouldCalculateAnnuityFromActualDays() {
+    LoanRequest loanRequest = getLoanRequest();
+    loanRequest.setDayCountConvention(DayCountConvention.ACTUAL_365);
+    BigDecimal presentValueFactor =
+        InterestCalculationUtil.calculatePresentValueFactor(
+            loanRequest.getNominalRate(),
+            DayCount.ACTUAL_365.dayFractions(loanRequest.getStartDate(), 24),
+            0,
+            24);
+
+    Assertions.assertThat(InterestCalculationUtil.calculateAnnuity(loanRequest))
+        .isEqualTo(
+            InterestCalculationUtil.calculateAnnuity(
+                loanRequest.getLoanAmount(), presentValueFactor))
+        .isNotEqualTo(BigDecimal.valueOf(219.36));
+  }
+
+  @Test
+  public void shouldDivideWhenAnnuityFactorIsOnRoundingBoundary() {
+    // 0.01 * 0.5 = 0.005 is exactly half way between two cents and rounds down.
+    BigDecimal annuity =
+        InterestCalculationUtil.calculateAnnuity(
+            new BigDecimal("0.01"), new BigDecimal("0.5"), BigDecimal.ZERO, 0.5);
+    Assertions.assertThat(annuity).isEqualTo(new BigDecimal("0.00"));
+  }
+
   private LoanRequest getLoanRequest() {
     return LoanRequest.builder()
         .nominalRate(new BigDecimal(5))
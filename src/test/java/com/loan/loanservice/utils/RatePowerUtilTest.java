@@ -0,0 +1,76 @@
+package com.loan.loanservice.utils;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Random;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class RatePowerUtilTest {
+
+  @Test
+  public void shouldCalculateDiscountFactor() {
+    BigDecimal discountFactor =
+        RatePowerUtil.calculateDiscountFactor(new BigDecimal("0.00416666666666666667"), 24);
+    Assertions.assertThat(discountFactor).isEqualTo(new BigDecimal("0.90502542335851669609"));
+  }
+
+  @Test
+  public void shouldCalculateSameDiscountFactorAsExactPower() {
+    Random random = new Random(42L);
+    for (int i = 0; i < 2000; i++) {
+      BigDecimal monthlyInterestRate =
+          BigDecimal.valueOf(1 + random.nextInt(5000), 2)
+              .divide(new BigDecimal(1200), RatePowerUtil.SCALE, RoundingMode.HALF_DOWN);
+      int duration = 1 + random.nextInt(1200);
+
+      Assertions.assertThat(RatePowerUtil.computeDiscountFactor(monthlyInterestRate, duration))
+          .isEqualTo(exactDiscountFactor(monthlyInterestRate, duration));
+    }
+  }
+
+  @Test
+  public void shouldDeriveDiscountFactorsOfAscendingDurations() {
+    Random random = new Random(7L);
+    for (int i = 0; i < 20; i++) {
+      BigDecimal monthlyInterestRate =
+          BigDecimal.valueOf(1 + random.nextInt(5000), 3)
+              .divide(new BigDecimal(1200), RatePowerUtil.SCALE, RoundingMode.HALF_DOWN);
+      int[] durations = random.ints(50, 1, 1201).sorted().toArray();
+
+      BigDecimal[] discountFactors =
+          RatePowerUtil.calculateDiscountFactors(monthlyInterestRate, durations);
+
+      for (int index = 0; index < durations.length; index++) {
+        Assertions.assertThat(discountFactors[index])
+            .isEqualTo(exactDiscountFactor(monthlyInterestRate, durations[index]));
+      }
+    }
+  }
+
+  @Test
+  public void shouldUseExactPowerWhenRoundingIsAmbiguous() {
+    // 1 / 2^21 = 0.000000476837158203125 is exactly half way between two values at scale 20.
+    BigDecimal discountFactor = RatePowerUtil.computeDiscountFactor(BigDecimal.ONE, 21);
+    Assertions.assertThat(discountFactor).isEqualTo(new BigDecimal("0.00000047683715820312"));
+  }
+
+  @Test
+  public void shouldCacheDiscountFactor() {
+    BigDecimal monthlyInterestRate = new BigDecimal("0.00123400000000000000");
+    long hitCount = RatePowerUtil.cacheStats().hitCount();
+
+    BigDecimal first = RatePowerUtil.calculateDiscountFactor(monthlyInterestRate, 360);
+    BigDecimal second = RatePowerUtil.calculateDiscountFactor(monthlyInterestRate, 360);
+
+    Assertions.assertThat(second).isSameAs(first);
+    Assertions.assertThat(RatePowerUtil.cacheStats().hitCount()).isEqualTo(hitCount + 1);
+  }
+
+  private BigDecimal exactDiscountFactor(BigDecimal monthlyInterestRate, int duration) {
+    return BigDecimal.ONE.divide(
+        BigDecimal.ONE.add(monthlyInterestRate).pow(duration),
+        RatePowerUtil.SCALE,
+        RoundingMode.HALF_DOWN);
+  }
+}
@@ -0,0 +1,32 @@
+package com.loan.loanservice.utils;
+
+import java.time.LocalDateTime;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class RepaymentDateUtilTest {
+
+  @Test
+  public void shouldCalculateSameDateAsAddingMonthsOneByOne() {
+    LocalDateTime startDate = LocalDateTime.parse("2019-12-01T10:15:30");
+    for (int day = 0; day < 3 * 366; day++) {
+      LocalDateTime date = startDate.plusDays(day);
+      for (int month = 0; month <= 60; month++) {
+        Assertions.assertThat(RepaymentDateUtil.repaymentDate(startDate.plusDays(day), month))
+            .as("start date %s, month %d", startDate.plusDays(day), month)
+            .isEqualTo(date);
+        date = date.plusMonths(1);
+      }
+    }
+  }
+
+  @Test
+  public void shouldKeepShortestDayOfMonth() {
+    Assertions.assertThat(
+            RepaymentDateUtil.repaymentDate(LocalDateTime.parse("2020-01-31T00:00:01"), 2))
+        .isEqualTo(LocalDateTime.parse("2020-03-29T00:00:01"));
+    Assertions.assertThat(
+            RepaymentDateUtil.repaymentDate(LocalDateTime.parse("2020-12-31T00:00:01"), 14))
+        .isEqualTo(LocalDateTime.parse("2022-02-28T00:00:01"));
+  }
+}